@@ -0,0 +1,95 @@
+package za.ac.cput.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import za.ac.cput.domain.Crime;
+import za.ac.cput.repository.impl.AsyncCrimeRepositoryImpl;
+import za.ac.cput.repository.impl.CrimeRepositoryImpl;
+import za.ac.cput.repository.impl.WalCrimeRepositoryImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to durably create a burst of crimes behind a write-ahead log that forces every
+ * record to disk. {@code blocking} creates them one by one, paying one fsync each;
+ * {@code pipelined} issues them all through {@link AsyncCrimeRepositoryImpl}, whose
+ * writer coalesces the in-flight creates into a few batched records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AsyncCreateBenchmark {
+
+    @Param({"1", "16", "256"})
+    public int burst;
+
+    Path logFile;
+    WalCrimeRepositoryImpl wal;
+    AsyncCrimeRepositoryImpl async;
+    CrimeDataGenerator generator = new CrimeDataGenerator(42);
+    Crime[] crimes;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        CrimeRepositoryImpl.getRepository().clearRepository();
+        logFile = Files.createTempFile("crimes", ".wal");
+        wal = new WalCrimeRepositoryImpl.Builder()
+                .withLogFile(logFile)
+                .withDelegate(CrimeRepositoryImpl.getRepository())
+                .withFsyncPolicy(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)
+                .build();
+        async = new AsyncCrimeRepositoryImpl.Builder().withDelegate(wal).build();
+    }
+
+    @Setup(Level.Invocation)
+    public void generate() {
+        crimes = new Crime[burst];
+        for (int i = 0; i < burst; i++) {
+            crimes[i] = generator.next();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        async.close();
+        wal.close();
+        Files.deleteIfExists(logFile);
+        CrimeRepositoryImpl.getRepository().clearRepository();
+    }
+
+    @Benchmark
+    public Crime blocking() {
+        Crime last = null;
+        for (Crime crime : crimes) {
+            last = wal.create(crime);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object pipelined() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[burst];
+        for (int i = 0; i < burst; i++) {
+            futures[i] = async.create(crimes[i]);
+        }
+        return CompletableFuture.allOf(futures).join();
+    }
+}
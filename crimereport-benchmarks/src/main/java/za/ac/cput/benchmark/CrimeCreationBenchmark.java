@@ -0,0 +1,85 @@
+package za.ac.cput.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating one crime, through the builder as intake used to and through
+ * {@link CrimeFactory}. Run with the GC profiler to compare allocation per crime:
+ * <pre>
+ * java -jar crimereport-benchmarks/target/benchmarks.jar CrimeCreationBenchmark -prof gc
+ * </pre>
+ * and read {@code gc.alloc.rate.norm}, the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CrimeCreationBenchmark {
+
+    private static final int FIELD_POOL = 256;
+
+    String[] descriptions;
+    String[] locations;
+    String[] reporterIds;
+    CrimeType[] crimeTypes;
+    int cursor;
+
+    @Setup
+    public void generate() {
+        CrimeDataGenerator generator = new CrimeDataGenerator(42);
+        descriptions = new String[FIELD_POOL];
+        locations = new String[FIELD_POOL];
+        reporterIds = new String[FIELD_POOL];
+        crimeTypes = new CrimeType[FIELD_POOL];
+        for (int i = 0; i < FIELD_POOL; i++) {
+            Crime crime = generator.next();
+            descriptions[i] = crime.getDescription();
+            locations[i] = crime.getLocation();
+            reporterIds[i] = crime.getReporterId();
+            crimeTypes[i] = crime.getCrimeType();
+        }
+    }
+
+    /**
+     * The old intake path: a builder per crime and a fresh clock read per crime.
+     */
+    @Benchmark
+    public Crime builder() {
+        int i = next();
+        return new Crime.Builder()
+                .withDescription(descriptions[i])
+                .withLocation(locations[i])
+                .withCrimeType(crimeTypes[i])
+                .withReporterId(reporterIds[i])
+                .withReportedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public Crime factory() {
+        int i = next();
+        return CrimeFactory.createCrime(descriptions[i], locations[i], crimeTypes[i], reporterIds[i]);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (FIELD_POOL - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,109 @@
+package za.ac.cput.benchmark;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Generates realistic crime reports through {@link CrimeFactory}. Locations and reporters
+ * follow a skewed distribution so a few busy suburbs and officers account for most
+ * reports, crime types are weighted towards theft and burglary, and report times spread
+ * over the 90 days before a fixed reference time. A fixed seed keeps runs reproducible.
+ */
+public class CrimeDataGenerator {
+
+    static final String[] LOCATIONS = {
+            "Cape Town CBD", "Woodstock", "Observatory", "Sea Point", "Green Point", "Gardens",
+            "Mowbray", "Rondebosch", "Claremont", "Wynberg", "Bellville", "Parow", "Goodwood",
+            "Khayelitsha", "Mitchells Plain", "Gugulethu", "Langa", "Athlone", "Muizenberg",
+            "Hout Bay", "Camps Bay", "Milnerton", "Table View", "Durbanville", "Brackenfell"
+    };
+    static final String[] STREETS = {
+            "Main Road", "Long Street", "Voortrekker Road", "Station Road", "Beach Road",
+            "Kloof Street", "Church Street", "Victoria Road", "Klipfontein Road", "Lansdowne Road"
+    };
+    private static final String[] DESCRIPTIONS = {
+            "Cell phone snatched from pedestrian",
+            "Vehicle window smashed and laptop stolen",
+            "House broken into while occupants were at work",
+            "Shoplifting of groceries from supermarket",
+            "Assault outside tavern after an argument",
+            "Armed robbery at spaza shop",
+            "Fraudulent card transactions reported by victim",
+            "Graffiti sprayed on school wall",
+            "Copper cable stolen from substation",
+            "Bicycle stolen from outside station"
+    };
+    private static final CrimeType[] WEIGHTED_TYPES = {
+            CrimeType.THEFT, CrimeType.THEFT, CrimeType.THEFT, CrimeType.THEFT,
+            CrimeType.BURGLARY, CrimeType.BURGLARY, CrimeType.BURGLARY,
+            CrimeType.ASSAULT, CrimeType.ASSAULT,
+            CrimeType.ROBBERY, CrimeType.ROBBERY,
+            CrimeType.FRAUD, CrimeType.VANDALISM, CrimeType.OTHER
+    };
+    static final LocalDateTime REFERENCE_TIME = LocalDateTime.of(2025, 3, 28, 12, 0);
+    private static final int REPORTERS = 5000;
+    private static final int WINDOW_SECONDS = 90 * 24 * 60 * 60;
+
+    private final Random random;
+
+    public CrimeDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Crime next() {
+        String location = skewed(LOCATIONS.length) < LOCATIONS.length / 2
+                ? LOCATIONS[skewed(LOCATIONS.length)]
+                : STREETS[random.nextInt(STREETS.length)] + ", " + LOCATIONS[skewed(LOCATIONS.length)];
+        String description = DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)];
+        CrimeType crimeType = WEIGHTED_TYPES[random.nextInt(WEIGHTED_TYPES.length)];
+        LocalDateTime reportedAt = reportedAt();
+
+        Crime crime = CrimeFactory.createCrimeWithTime(description, location, crimeType, reporterId(), reportedAt);
+        if (random.nextInt(100) < 35) {
+            crime = withResolutionToggled(crime);
+        }
+        return crime;
+    }
+
+    public String reporterId() {
+        return "SAPS-" + (10000 + skewed(REPORTERS));
+    }
+
+    public String location() {
+        return LOCATIONS[skewed(LOCATIONS.length)];
+    }
+
+    public LocalDateTime reportedAt() {
+        return REFERENCE_TIME.minusSeconds(random.nextInt(WINDOW_SECONDS));
+    }
+
+    public int nextIndex(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public CrimeType crimeType() {
+        return WEIGHTED_TYPES[random.nextInt(WEIGHTED_TYPES.length)];
+    }
+
+    public static Crime withResolutionToggled(Crime crime) {
+        return new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(crime.getDescription())
+                .withLocation(crime.getLocation())
+                .withReportedAt(crime.getReportedAt())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .isResolved(!crime.isResolved())
+                .build();
+    }
+
+    // Roughly Zipf-like: low indexes are picked far more often than high ones
+    private int skewed(int bound) {
+        double u = random.nextDouble();
+        return (int) (bound * u * u * u);
+    }
+}
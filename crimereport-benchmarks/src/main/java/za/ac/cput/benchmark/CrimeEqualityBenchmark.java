@@ -0,0 +1,107 @@
+package za.ac.cput.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import za.ac.cput.domain.Crime;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of hashing and comparing every crime in a store. {@code objectsHash} recomputes
+ * {@link Objects#hash} per crime, which is how {@link Crime#hashCode()} used to work, and
+ * {@code cachedHash} reads the hash cached at construction. {@code distinct} and
+ * {@code containsAll} put the store in a {@link HashSet}, where the cached hash also
+ * rejects unequal crimes in a bucket without comparing their strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CrimeEqualityBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int storeSize;
+
+    Crime[] crimes;
+    Crime[] copies;
+    Set<Crime> store;
+
+    @Setup
+    public void generate() {
+        CrimeDataGenerator generator = new CrimeDataGenerator(42);
+        crimes = new Crime[storeSize];
+        copies = new Crime[storeSize];
+        for (int i = 0; i < storeSize; i++) {
+            crimes[i] = generator.next();
+            copies[i] = new Crime.Builder()
+                    .withId(new String(crimes[i].getId()))
+                    .withDescription(new String(crimes[i].getDescription()))
+                    .withLocation(new String(crimes[i].getLocation()))
+                    .withReportedAt(crimes[i].getReportedAt())
+                    .withCrimeType(crimes[i].getCrimeType())
+                    .withReporterId(new String(crimes[i].getReporterId()))
+                    .isResolved(crimes[i].isResolved())
+                    .build();
+        }
+        store = new HashSet<Crime>();
+        for (Crime crime : crimes) {
+            store.add(crime);
+        }
+    }
+
+    @Benchmark
+    public int objectsHash() {
+        int sum = 0;
+        for (Crime crime : crimes) {
+            sum += Objects.hash(crime.getId(), crime.getDescription(), crime.getLocation(), crime.getReportedAt(),
+                    crime.getCrimeType(), crime.getReporterId(), crime.isResolved());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int cachedHash() {
+        int sum = 0;
+        for (Crime crime : crimes) {
+            sum += crime.hashCode();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int distinct() {
+        Set<Crime> distinct = new HashSet<Crime>(storeSize * 2);
+        for (Crime crime : crimes) {
+            distinct.add(crime);
+        }
+        return distinct.size();
+    }
+
+    /**
+     * Looks up equal copies, so every hit is a full comparison of distinct strings.
+     */
+    @Benchmark
+    public int containsAll() {
+        int found = 0;
+        for (Crime copy : copies) {
+            if (store.contains(copy)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,208 @@
+package za.ac.cput.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.impl.ColumnarCrimeRepositoryImpl;
+import za.ac.cput.repository.impl.ConcurrentCrimeRepositoryImpl;
+import za.ac.cput.repository.impl.CrimeRepositoryImpl;
+import za.ac.cput.repository.impl.OffHeapCrimeRepositoryImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-operation latency of every {@link CrimeRepository} method, for each in-memory
+ * backend and store size. Stores are pre-loaded with {@link CrimeDataGenerator} data.
+ * create and delete keep the store size constant by undoing themselves per invocation.
+ *
+ * <p>The default sizes stop at 1M, which every backend holds in the 4 GB fork heap. A 10M
+ * store needs more than that, so run it on its own with a larger heap, as the module
+ * README shows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    private static final int QUERY_POOL = 1024;
+    private static final Duration REPORTED_WINDOW = Duration.ofHours(1);
+
+    @Param({"object", "concurrent", "columnar", "offheap"})
+    public String backend;
+
+    @Param({"1000", "100000", "1000000"})
+    public int storeSize;
+
+    CrimeRepository repository;
+    String[] ids;
+    Crime[] replacements;
+    String[] reporterIds;
+    String[] locations;
+    CrimeType[] crimeTypes;
+    LocalDateTime[] reportedFrom;
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void load() {
+        repository = repositoryFor(backend);
+        clear(repository);
+        CrimeDataGenerator generator = new CrimeDataGenerator(42);
+        ids = new String[storeSize];
+        for (int i = 0; i < storeSize; i++) {
+            Crime crime = generator.next();
+            repository.create(crime);
+            ids[i] = crime.getId();
+        }
+
+        replacements = new Crime[QUERY_POOL];
+        reporterIds = new String[QUERY_POOL];
+        locations = new String[QUERY_POOL];
+        crimeTypes = new CrimeType[QUERY_POOL];
+        reportedFrom = new LocalDateTime[QUERY_POOL];
+        for (int i = 0; i < QUERY_POOL; i++) {
+            Crime existing = repository.read(ids[generator.nextIndex(storeSize)]).get();
+            replacements[i] = existing;
+            reporterIds[i] = generator.reporterId();
+            locations[i] = generator.location().substring(0, 4);
+            crimeTypes[i] = generator.crimeType();
+            reportedFrom[i] = generator.reportedAt();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void unload() {
+        clear(repository);
+    }
+
+    @State(Scope.Thread)
+    public static class PendingCrime {
+        Crime crime;
+        CrimeDataGenerator generator = new CrimeDataGenerator(7);
+
+        @Setup(Level.Invocation)
+        public void generate() {
+            crime = generator.next();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CreatedCrime {
+        Crime crime;
+        CrimeDataGenerator generator = new CrimeDataGenerator(11);
+
+        @Setup(Level.Invocation)
+        public void create(RepositoryBenchmark benchmark) {
+            crime = generator.next();
+            benchmark.repository.create(crime);
+        }
+    }
+
+    @Benchmark
+    public Crime create(PendingCrime pending) {
+        Crime created = repository.create(pending.crime);
+        repository.delete(created.getId());
+        return created;
+    }
+
+    @Benchmark
+    public boolean delete(CreatedCrime created) {
+        return repository.delete(created.crime.getId());
+    }
+
+    @Benchmark
+    public Optional<Crime> read() {
+        return repository.read(ids[next() % ids.length]);
+    }
+
+    @Benchmark
+    public Crime update() {
+        int i = next();
+        Crime replacement = CrimeDataGenerator.withResolutionToggled(replacements[i]);
+        replacements[i] = replacement;
+        return repository.update(replacement);
+    }
+
+    @Benchmark
+    public boolean markResolved() {
+        int i = next();
+        return repository.markResolved(ids[i % ids.length], (i & 1) == 0);
+    }
+
+    @Benchmark
+    public List<Crime> findByCrimeType() {
+        return repository.findByCrimeType(crimeTypes[next()]);
+    }
+
+    @Benchmark
+    public List<Crime> findByLocation() {
+        return repository.findByLocation(locations[next()]);
+    }
+
+    @Benchmark
+    public List<Crime> findByReporterId() {
+        return repository.findByReporterId(reporterIds[next()]);
+    }
+
+    @Benchmark
+    public List<Crime> findByResolutionStatus() {
+        return repository.findByResolutionStatus((next() & 1) == 0);
+    }
+
+    @Benchmark
+    public List<Crime> findByReportedAtBetween() {
+        LocalDateTime from = reportedFrom[next()];
+        return repository.findByReportedAtBetween(from, from.plus(REPORTED_WINDOW));
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERY_POOL - 1);
+        return cursor;
+    }
+
+    static CrimeRepository repositoryFor(String backend) {
+        switch (backend) {
+            case "object":
+                return CrimeRepositoryImpl.getRepository();
+            case "concurrent":
+                return ConcurrentCrimeRepositoryImpl.getRepository();
+            case "columnar":
+                return ColumnarCrimeRepositoryImpl.getRepository();
+            case "offheap":
+                return OffHeapCrimeRepositoryImpl.getRepository();
+            default:
+                throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+    }
+
+    static void clear(CrimeRepository repository) {
+        if (repository instanceof CrimeRepositoryImpl) {
+            ((CrimeRepositoryImpl) repository).clearRepository();
+        } else if (repository instanceof ConcurrentCrimeRepositoryImpl) {
+            ((ConcurrentCrimeRepositoryImpl) repository).clearRepository();
+        } else if (repository instanceof ColumnarCrimeRepositoryImpl) {
+            ((ColumnarCrimeRepositoryImpl) repository).clearRepository();
+        } else if (repository instanceof OffHeapCrimeRepositoryImpl) {
+            ((OffHeapCrimeRepositoryImpl) repository).clearRepository();
+        }
+    }
+}
@@ -181,18 +181,11 @@ public class CrimeReportingApp {
         String input = getStringInput("Mark as resolved? (yes/no): ");
         boolean isResolved = input.equalsIgnoreCase("yes") || input.equalsIgnoreCase("y");
         
-        Crime updatedCrime = new Crime.Builder()
-                .withId(crime.getId())
-                .withDescription(crime.getDescription())
-                .withLocation(crime.getLocation())
-                .withReportedAt(crime.getReportedAt())
-                .withCrimeType(crime.getCrimeType())
-                .withReporterId(crime.getReporterId())
-                .isResolved(isResolved)
-                .build();
-        
-        crimeRepository.update(updatedCrime);
-        System.out.println("Crime status updated successfully.");
+        if (crimeRepository.markResolved(crime.getId(), isResolved)) {
+            System.out.println("Crime status updated successfully.");
+        } else {
+            System.out.println("No crime found with ID: " + id);
+        }
     }
     
     private static void displayCrimeList(List<Crime> crimes) {
@@ -2,7 +2,6 @@ package za.ac.cput.domain;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
-import java.util.UUID;
 
 public class Crime {
     private final String id;
@@ -12,15 +11,60 @@ public class Crime {
     private final CrimeType crimeType;
     private final String reporterId;
     private final boolean isResolved;
+    private final int hash;
+
+    private Crime(String id, String description, String location, LocalDateTime reportedAt,
+                  CrimeType crimeType, String reporterId, boolean isResolved) {
+        this.id = id;
+        this.description = description;
+        this.location = location;
+        this.reportedAt = reportedAt;
+        this.crimeType = crimeType;
+        this.reporterId = reporterId;
+        this.isResolved = isResolved;
+        this.hash = hash(id, description, location, reportedAt, crimeType, reporterId, isResolved);
+    }
+
+    /**
+     * Creates a crime with a generated ID, validated exactly like {@link Builder#build()}.
+     * This is the intake path used by {@code CrimeFactory}: it allocates no builder and
+     * reads the clock only through {@link ReportClock} when {@code reportedAt} comes from it.
+     */
+    public static Crime of(String description, String location, CrimeType crimeType, String reporterId,
+                           LocalDateTime reportedAt, boolean isResolved) {
+        validate(description, location, crimeType, reporterId);
+        String id = Builder.defaultIdGenerator.nextId(reportedAt);
+        return new Crime(id, description, location, reportedAt, crimeType, reporterId, isResolved);
+    }
+
+    private static void validate(String description, String location, CrimeType crimeType, String reporterId) {
+        if (isBlank(description)) {
+            throw new IllegalStateException("Description cannot be empty");
+        }
+        if (isBlank(location)) {
+            throw new IllegalStateException("Location cannot be empty");
+        }
+        if (crimeType == null) {
+            throw new IllegalStateException("Crime type cannot be null");
+        }
+        if (isBlank(reporterId)) {
+            throw new IllegalStateException("Reporter ID cannot be empty");
+        }
+    }
 
-    private Crime(Builder builder) {
-        this.id = builder.id;
-        this.description = builder.description;
-        this.location = builder.location;
-        this.reportedAt = builder.reportedAt;
-        this.crimeType = builder.crimeType;
-        this.reporterId = builder.reporterId;
-        this.isResolved = builder.isResolved;
+    /**
+     * Same answer as {@code value.trim().isEmpty()}, without allocating the trimmed copy.
+     */
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
     }
 
     public String getId() {
@@ -51,12 +95,25 @@ public class Crime {
         return isResolved;
     }
 
+    /**
+     * Returns this crime with its resolution status set, or this crime itself if the status
+     * already matches. Every other field is shared with this crime and not re-validated.
+     */
+    public Crime withResolved(boolean isResolved) {
+        if (isResolved == this.isResolved) {
+            return this;
+        }
+        return new Crime(id, description, location, reportedAt, crimeType, reporterId, isResolved);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Crime crime = (Crime) o;
-        return isResolved == crime.isResolved && 
+        // Cached hashes settle most unequal pairs without comparing any strings
+        return hash == crime.hash &&
+               isResolved == crime.isResolved && 
                Objects.equals(id, crime.id) && 
                Objects.equals(description, crime.description) && 
                Objects.equals(location, crime.location) && 
@@ -67,7 +124,24 @@ public class Crime {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, description, location, reportedAt, crimeType, reporterId, isResolved);
+        return hash;
+    }
+
+    /**
+     * Same value as {@code Objects.hash} over the fields, without boxing or a varargs array.
+     * Computed once at construction, since every field is final.
+     */
+    private static int hash(String id, String description, String location, LocalDateTime reportedAt,
+                            CrimeType crimeType, String reporterId, boolean isResolved) {
+        int result = 1;
+        result = 31 * result + Objects.hashCode(id);
+        result = 31 * result + Objects.hashCode(description);
+        result = 31 * result + Objects.hashCode(location);
+        result = 31 * result + Objects.hashCode(reportedAt);
+        result = 31 * result + Objects.hashCode(crimeType);
+        result = 31 * result + Objects.hashCode(reporterId);
+        result = 31 * result + Boolean.hashCode(isResolved);
+        return result;
     }
 
     @Override
@@ -84,6 +158,8 @@ public class Crime {
     }
 
     public static class Builder {
+        private static volatile CrimeIdGenerator defaultIdGenerator = CrimeIdGenerator.timeOrdered();
+
         private String id;
         private String description;
         private String location;
@@ -91,10 +167,25 @@ public class Crime {
         private CrimeType crimeType;
         private String reporterId;
         private boolean isResolved;
+        private boolean hasReportedAt;
+        private CrimeIdGenerator idGenerator;
+
+        /**
+         * Sets the generator used by builders that are not given an ID or a generator of
+         * their own, including those in {@code CrimeFactory}.
+         */
+        public static void setDefaultIdGenerator(CrimeIdGenerator idGenerator) {
+            if (idGenerator == null) {
+                throw new IllegalArgumentException("ID generator cannot be null");
+            }
+            defaultIdGenerator = idGenerator;
+        }
+
+        public static CrimeIdGenerator getDefaultIdGenerator() {
+            return defaultIdGenerator;
+        }
 
         public Builder() {
-            this.id = UUID.randomUUID().toString();
-            this.reportedAt = LocalDateTime.now();
             this.isResolved = false;
         }
 
@@ -103,6 +194,11 @@ public class Crime {
             return this;
         }
 
+        public Builder withIdGenerator(CrimeIdGenerator idGenerator) {
+            this.idGenerator = idGenerator;
+            return this;
+        }
+
         public Builder withDescription(String description) {
             this.description = description;
             return this;
@@ -115,6 +211,7 @@ public class Crime {
 
         public Builder withReportedAt(LocalDateTime reportedAt) {
             this.reportedAt = reportedAt;
+            this.hasReportedAt = true;
             return this;
         }
 
@@ -134,20 +231,18 @@ public class Crime {
         }
 
         public Crime build() {
-            if (description == null || description.trim().isEmpty()) {
-                throw new IllegalStateException("Description cannot be empty");
-            }
-            if (location == null || location.trim().isEmpty()) {
-                throw new IllegalStateException("Location cannot be empty");
-            }
-            if (crimeType == null) {
-                throw new IllegalStateException("Crime type cannot be null");
+            validate(description, location, crimeType, reporterId);
+            if (!hasReportedAt) {
+                // Read only now, so builders given a report time never read the clock
+                reportedAt = ReportClock.now();
+                hasReportedAt = true;
             }
-            if (reporterId == null || reporterId.trim().isEmpty()) {
-                throw new IllegalStateException("Reporter ID cannot be empty");
+            if (id == null) {
+                // Generated only now, so builders given an ID never pay for one
+                id = (idGenerator != null ? idGenerator : defaultIdGenerator).nextId(reportedAt);
             }
 
-            return new Crime(this);
+            return new Crime(id, description, location, reportedAt, crimeType, reporterId, isResolved);
         }
     }
 }
@@ -0,0 +1,29 @@
+package za.ac.cput.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Strategy that {@link Crime.Builder} uses to assign an ID when none is given with
+ * {@code withId}. It is called once, from {@code build()}, with the crime's report time.
+ */
+@FunctionalInterface
+public interface CrimeIdGenerator {
+
+    String nextId(LocalDateTime reportedAt);
+
+    /**
+     * Random version 4 UUIDs from {@link UUID#randomUUID()}, which draws on a shared
+     * {@code SecureRandom}.
+     */
+    static CrimeIdGenerator randomUuid() {
+        return reportedAt -> UUID.randomUUID().toString();
+    }
+
+    /**
+     * Time-ordered version 7 UUIDs that sort by report time; see {@link TimeOrderedIdGenerator}.
+     */
+    static CrimeIdGenerator timeOrdered() {
+        return new TimeOrderedIdGenerator();
+    }
+}
@@ -0,0 +1,40 @@
+package za.ac.cput.domain;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Source of the default report time. A reading is cached for the millisecond it was
+ * taken in, so crimes reported in the same millisecond share one {@link LocalDateTime}
+ * instead of each allocating their own. Report times are therefore in whole
+ * milliseconds, the same resolution {@link TimeOrderedIdGenerator} keeps in IDs.
+ */
+public final class ReportClock {
+
+    private static final class Reading {
+        final long millis;
+        final LocalDateTime time;
+
+        Reading(long millis, LocalDateTime time) {
+            this.millis = millis;
+            this.time = time;
+        }
+    }
+
+    private static volatile Reading last = new Reading(Long.MIN_VALUE, null);
+
+    private ReportClock() {
+    }
+
+    public static LocalDateTime now() {
+        long millis = System.currentTimeMillis();
+        Reading reading = last;
+        if (reading.millis != millis) {
+            // Racing threads may each refresh; any of their readings is current enough
+            reading = new Reading(millis, LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+            last = reading;
+        }
+        return reading.time;
+    }
+}
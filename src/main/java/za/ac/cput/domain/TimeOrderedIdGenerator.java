@@ -0,0 +1,61 @@
+package za.ac.cput.domain;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates UUIDv7-style IDs: the report time in epoch milliseconds (UTC) in the top
+ * 48 bits, then a 42-bit counter and 32 random bits around the version and variant
+ * bits. IDs therefore sort by report time, which keeps crimes reported together close
+ * in ordered indexes.
+ *
+ * <p>Each thread keeps its own counter, restarted at a random value whenever the
+ * millisecond changes and incremented while it repeats, so IDs from one thread are
+ * strictly increasing for non-decreasing report times. Randomness comes from
+ * {@link ThreadLocalRandom}, so intake threads never contend. A crime without a report
+ * time is stamped with the current time.
+ */
+public final class TimeOrderedIdGenerator implements CrimeIdGenerator {
+
+    private static final long MAX_MILLIS = (1L << 48) - 1;
+    private static final long COUNTER_MASK = (1L << 42) - 1;
+
+    private static final class State {
+        long millis = -1;
+        long counter;
+    }
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public String nextId(LocalDateTime reportedAt) {
+        long millis = reportedAt == null ? System.currentTimeMillis() : epochMillis(reportedAt);
+        State current = state.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (millis != current.millis) {
+            current.millis = millis;
+            // Start in the lower half so the counter has room to increment
+            current.counter = random.nextLong() >>> 23;
+        } else {
+            current.counter = (current.counter + 1) & COUNTER_MASK;
+        }
+
+        long mostSignificant = millis << 16 | 0x7000L | current.counter >>> 30;
+        long leastSignificant = 0x8000000000000000L | (current.counter & 0x3FFFFFFFL) << 32
+                | (random.nextInt() & 0xFFFFFFFFL);
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+
+    private static long epochMillis(LocalDateTime reportedAt) {
+        long seconds = reportedAt.toEpochSecond(ZoneOffset.UTC);
+        if (seconds < 0) {
+            return 0;
+        }
+        if (seconds > MAX_MILLIS / 1000) {
+            return MAX_MILLIS;
+        }
+        return Math.min(MAX_MILLIS, seconds * 1000 + reportedAt.getNano() / 1_000_000);
+    }
+}
@@ -2,39 +2,27 @@ package za.ac.cput.factory;
 
 import za.ac.cput.domain.Crime;
 import za.ac.cput.domain.CrimeType;
+import za.ac.cput.domain.ReportClock;
 
 import java.time.LocalDateTime;
 
+/**
+ * Creates crimes through {@link Crime#of}, which skips the builder, so intake allocates
+ * little beyond the crime and its ID.
+ */
 public class CrimeFactory {
 
     public static Crime createCrime(String description, String location, CrimeType crimeType, String reporterId) {
-        return new Crime.Builder()
-                .withDescription(description)
-                .withLocation(location)
-                .withCrimeType(crimeType)
-                .withReporterId(reporterId)
-                .build();
+        return Crime.of(description, location, crimeType, reporterId, ReportClock.now(), false);
     }
 
     public static Crime createCrimeWithTime(String description, String location, CrimeType crimeType, 
                                            String reporterId, LocalDateTime reportedAt) {
-        return new Crime.Builder()
-                .withDescription(description)
-                .withLocation(location)
-                .withCrimeType(crimeType)
-                .withReporterId(reporterId)
-                .withReportedAt(reportedAt)
-                .build();
+        return Crime.of(description, location, crimeType, reporterId, reportedAt, false);
     }
 
     public static Crime createResolvedCrime(String description, String location, CrimeType crimeType, 
                                            String reporterId) {
-        return new Crime.Builder()
-                .withDescription(description)
-                .withLocation(location)
-                .withCrimeType(crimeType)
-                .withReporterId(reporterId)
-                .isResolved(true)
-                .build();
+        return Crime.of(description, location, crimeType, reporterId, ReportClock.now(), true);
     }
 }
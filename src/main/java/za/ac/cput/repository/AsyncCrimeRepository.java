@@ -0,0 +1,73 @@
+package za.ac.cput.repository;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Non-blocking counterpart of {@link CrimeRepository}. Each operation returns at once and
+ * its future completes with what the synchronous method would have returned, or
+ * exceptionally with what it would have thrown. Operations whose futures have not
+ * completed may be applied in any order, so wait for a write before issuing one that
+ * depends on it.
+ *
+ * <p>Statistics, hotspots and the change feed never block, so they are read from the
+ * synchronous repository directly.
+ */
+public interface AsyncCrimeRepository {
+
+    CompletableFuture<Crime> create(Crime crime);
+
+    CompletableFuture<Optional<Crime>> read(String id);
+
+    CompletableFuture<List<Crime>> readAll();
+
+    CompletableFuture<Crime> update(Crime crime);
+
+    CompletableFuture<Boolean> delete(String id);
+
+    CompletableFuture<BatchResult<String>> createAll(Collection<Crime> crimes);
+
+    CompletableFuture<BatchResult<String>> updateAll(Collection<Crime> crimes);
+
+    CompletableFuture<BatchResult<String>> deleteAll(Collection<String> ids);
+
+    CompletableFuture<Boolean> markResolved(String id, boolean isResolved);
+
+    CompletableFuture<BatchResult<String>> markAllResolved(Collection<String> ids, boolean isResolved);
+
+    CompletableFuture<List<Crime>> findByCrimeType(CrimeType crimeType);
+
+    CompletableFuture<List<Crime>> findByLocation(String location);
+
+    CompletableFuture<List<Crime>> findByReporterId(String reporterId);
+
+    CompletableFuture<List<Crime>> findByResolutionStatus(boolean isResolved);
+
+    CompletableFuture<List<Crime>> findByReportedAtBetween(LocalDateTime from, LocalDateTime to);
+
+    CompletableFuture<List<Crime>> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to);
+
+    CompletableFuture<List<Crime>> findMatching(Predicate<? super Crime> predicate);
+
+    CompletableFuture<List<Crime>> searchDescriptions(String query);
+
+    CompletableFuture<List<Crime>> find(CrimeQuery query);
+
+    CompletableFuture<Page<Crime>> findPage(CrimeQuery query, int limit, String continuationToken);
+
+    <K> CompletableFuture<Map<K, CrimeRollup>> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key);
+
+    /**
+     * Returns the synchronous repository the operations run against.
+     */
+    CrimeRepository blocking();
+}
@@ -0,0 +1,113 @@
+package za.ac.cput.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-item outcome of an all-or-nothing batch operation. Either every item was applied,
+ * or none was and each valid item is reported as {@link Status#NOT_APPLIED}.
+ */
+public class BatchResult<ID> {
+
+    public enum Status {
+        APPLIED,
+        NOT_APPLIED,
+        NULL_ENTITY,
+        INVALID_ID,
+        DUPLICATE_IN_BATCH,
+        ALREADY_EXISTS,
+        NOT_FOUND;
+
+        public boolean isFailure() {
+            return this != APPLIED && this != NOT_APPLIED;
+        }
+    }
+
+    private final List<ID> ids;
+    private final List<Status> statuses;
+    private final boolean applied;
+
+    private BatchResult(Builder<ID> builder) {
+        this.applied = builder.failures == 0;
+        this.ids = Collections.unmodifiableList(builder.ids);
+        List<Status> statuses = new ArrayList<Status>(builder.statuses.size());
+        for (Status status : builder.statuses) {
+            statuses.add(status != null ? status : applied ? Status.APPLIED : Status.NOT_APPLIED);
+        }
+        this.statuses = Collections.unmodifiableList(statuses);
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public ID getId(int index) {
+        return ids.get(index);
+    }
+
+    public Status getStatus(int index) {
+        return statuses.get(index);
+    }
+
+    public List<Status> getStatuses() {
+        return statuses;
+    }
+
+    public int count(Status status) {
+        int count = 0;
+        for (Status s : statuses) {
+            if (s == status) count++;
+        }
+        return count;
+    }
+
+    public List<ID> failedIds() {
+        List<ID> failed = new ArrayList<ID>();
+        for (int i = 0; i < statuses.size(); i++) {
+            if (statuses.get(i).isFailure()) failed.add(ids.get(i));
+        }
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "applied=" + applied +
+                ", size=" + ids.size() +
+                ", failed=" + failedIds() +
+                '}';
+    }
+
+    public static class Builder<ID> {
+        private final List<ID> ids = new ArrayList<ID>();
+        private final List<Status> statuses = new ArrayList<Status>();
+        private int failures;
+
+        /**
+         * Records the validation outcome of the next item; {@code failure} is null for
+         * an item that can be applied.
+         */
+        public Builder<ID> add(ID id, Status failure) {
+            if (failure != null && !failure.isFailure()) {
+                throw new IllegalArgumentException("Status " + failure + " is not a failure");
+            }
+            ids.add(id);
+            statuses.add(failure);
+            if (failure != null) failures++;
+            return this;
+        }
+
+        public boolean hasFailures() {
+            return failures > 0;
+        }
+
+        public BatchResult<ID> build() {
+            return new BatchResult<ID>(this);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package za.ac.cput.repository;
+
+import za.ac.cput.domain.Crime;
+
+/**
+ * One change to a repository, numbered by a sequence that increases by one per change.
+ * Created and updated events carry the crime as written; a deleted event carries the
+ * crime as it was before the delete.
+ */
+public class CrimeChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final Crime crime;
+
+    public CrimeChangeEvent(long sequence, Type type, Crime crime) {
+        this.sequence = sequence;
+        this.type = type;
+        this.crime = crime;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getCrimeId() {
+        return crime.getId();
+    }
+
+    public Crime getCrime() {
+        return crime;
+    }
+
+    @Override
+    public String toString() {
+        return "CrimeChangeEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", crimeId='" + crime.getId() + '\'' +
+                '}';
+    }
+}
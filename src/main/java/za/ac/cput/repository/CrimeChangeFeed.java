@@ -0,0 +1,56 @@
+package za.ac.cput.repository;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Ordered stream of {@link CrimeChangeEvent}s, so downstream systems can follow a
+ * repository instead of polling it. Each subscriber receives events in sequence order,
+ * no faster than it requests them.
+ *
+ * <p>Only the most recent events are retained. Writers never wait for subscribers, so a
+ * subscriber that falls further behind than the retained window, or asks to resume from
+ * a sequence no longer retained, receives {@link Flow.Subscriber#onError} with a
+ * {@link MissedChangesException} and should catch up from a fresh read before
+ * resubscribing.
+ */
+public interface CrimeChangeFeed extends Flow.Publisher<CrimeChangeEvent> {
+
+    /**
+     * Subscribes to changes made after this call.
+     */
+    @Override
+    void subscribe(Flow.Subscriber<? super CrimeChangeEvent> subscriber);
+
+    /**
+     * Subscribes starting at the event numbered {@code fromSequence}, e.g. one past the
+     * last event a restarted consumer processed.
+     */
+    void subscribe(Flow.Subscriber<? super CrimeChangeEvent> subscriber, long fromSequence);
+
+    /**
+     * Returns the sequence of the latest change, or 0 before the first one.
+     */
+    long getLatestSequence();
+
+    /**
+     * Signals that events a subscriber needed are no longer retained.
+     */
+    class MissedChangesException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long missedSequence;
+
+        public MissedChangesException(long missedSequence) {
+            super("Change " + missedSequence + " is no longer retained");
+            this.missedSequence = missedSequence;
+        }
+
+        /**
+         * Returns the first sequence the subscriber did not receive.
+         */
+        public long getMissedSequence() {
+            return missedSequence;
+        }
+    }
+}
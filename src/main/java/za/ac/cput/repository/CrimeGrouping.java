@@ -0,0 +1,62 @@
+package za.ac.cput.repository;
+
+import za.ac.cput.domain.Crime;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Accumulates every {@link CrimeRollup} aggregate for each group in a single pass, so
+ * a repository can feed it straight from its scan without collecting the crimes first.
+ */
+public class CrimeGrouping<K> implements Consumer<Crime> {
+
+    private static final class Accumulator {
+        long count;
+        long resolvedCount;
+        LocalDateTime firstReportedAt;
+        LocalDateTime lastReportedAt;
+    }
+
+    private final Function<? super Crime, ? extends K> key;
+    private final Map<K, Accumulator> groups = new HashMap<K, Accumulator>();
+
+    public CrimeGrouping(Function<? super Crime, ? extends K> key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Group key cannot be null");
+        }
+        this.key = key;
+    }
+
+    @Override
+    public void accept(Crime crime) {
+        Accumulator group = groups.computeIfAbsent(key.apply(crime), k -> new Accumulator());
+        group.count++;
+        if (crime.isResolved()) {
+            group.resolvedCount++;
+        }
+        LocalDateTime reportedAt = crime.getReportedAt();
+        if (reportedAt != null) {
+            if (group.firstReportedAt == null || reportedAt.isBefore(group.firstReportedAt)) {
+                group.firstReportedAt = reportedAt;
+            }
+            if (group.lastReportedAt == null || reportedAt.isAfter(group.lastReportedAt)) {
+                group.lastReportedAt = reportedAt;
+            }
+        }
+    }
+
+    public Map<K, CrimeRollup> toMap() {
+        Map<K, CrimeRollup> rollups = new LinkedHashMap<K, CrimeRollup>();
+        for (Map.Entry<K, Accumulator> entry : groups.entrySet()) {
+            Accumulator group = entry.getValue();
+            rollups.put(entry.getKey(), new CrimeRollup(group.count, group.resolvedCount,
+                    group.firstReportedAt, group.lastReportedAt));
+        }
+        return rollups;
+    }
+}
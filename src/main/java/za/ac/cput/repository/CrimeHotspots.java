@@ -0,0 +1,28 @@
+package za.ac.cput.repository;
+
+import za.ac.cput.domain.CrimeType;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Rolling counts of recently reported crimes per location and crime type, for spotting
+ * emerging hotspots. Counts are kept in one-minute buckets by report time, so a window
+ * is a whole number of minutes from 1 to 60 and covers the current minute plus the
+ * minutes before it. Crimes count when they are created; later updates and deletes do
+ * not change a count.
+ */
+public interface CrimeHotspots {
+
+    long getCount(String location, Duration window);
+
+    long getCount(String location, CrimeType crimeType, Duration window);
+
+    /**
+     * Returns up to {@code limit} locations with the most crimes in the window, hottest
+     * first; ties are ordered by location.
+     */
+    List<Hotspot> getHottestLocations(int limit, Duration window);
+
+    List<Hotspot> getHottestLocations(int limit, CrimeType crimeType, Duration window);
+}
@@ -0,0 +1,138 @@
+package za.ac.cput.repository;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conjunction of crime predicates for {@link CrimeRepository#find(CrimeQuery)}. Every
+ * criterion is optional; an unset criterion is {@code null} and matches every crime.
+ * Location is a case-insensitive substring match and the time range is inclusive.
+ */
+public class CrimeQuery {
+    private final CrimeType crimeType;
+    private final String location;
+    private final String reporterId;
+    private final Boolean resolutionStatus;
+    private final LocalDateTime reportedFrom;
+    private final LocalDateTime reportedTo;
+
+    private CrimeQuery(Builder builder) {
+        this.crimeType = builder.crimeType;
+        this.location = builder.location;
+        this.reporterId = builder.reporterId;
+        this.resolutionStatus = builder.resolutionStatus;
+        this.reportedFrom = builder.reportedFrom;
+        this.reportedTo = builder.reportedTo;
+    }
+
+    public CrimeType getCrimeType() {
+        return crimeType;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getReporterId() {
+        return reporterId;
+    }
+
+    public Boolean getResolutionStatus() {
+        return resolutionStatus;
+    }
+
+    public LocalDateTime getReportedFrom() {
+        return reportedFrom;
+    }
+
+    public LocalDateTime getReportedTo() {
+        return reportedTo;
+    }
+
+    public boolean hasTimeRange() {
+        return reportedFrom != null;
+    }
+
+    public boolean matches(Crime crime) {
+        if (crimeType != null && crime.getCrimeType() != crimeType) {
+            return false;
+        }
+        if (resolutionStatus != null && crime.isResolved() != resolutionStatus) {
+            return false;
+        }
+        if (reporterId != null && !reporterId.equals(crime.getReporterId())) {
+            return false;
+        }
+        if (reportedFrom != null && (crime.getReportedAt() == null
+                || crime.getReportedAt().isBefore(reportedFrom) || crime.getReportedAt().isAfter(reportedTo))) {
+            return false;
+        }
+        return location == null || crime.getLocation().toLowerCase().contains(location.toLowerCase());
+    }
+
+    @Override
+    public String toString() {
+        return "CrimeQuery{" +
+                "crimeType=" + crimeType +
+                ", location='" + location + '\'' +
+                ", reporterId='" + reporterId + '\'' +
+                ", resolutionStatus=" + resolutionStatus +
+                ", reportedFrom=" + reportedFrom +
+                ", reportedTo=" + reportedTo +
+                '}';
+    }
+
+    public static class Builder {
+        private CrimeType crimeType;
+        private String location;
+        private String reporterId;
+        private Boolean resolutionStatus;
+        private LocalDateTime reportedFrom;
+        private LocalDateTime reportedTo;
+
+        public Builder withCrimeType(CrimeType crimeType) {
+            this.crimeType = crimeType;
+            return this;
+        }
+
+        public Builder withLocation(String location) {
+            this.location = location;
+            return this;
+        }
+
+        public Builder withReporterId(String reporterId) {
+            this.reporterId = reporterId;
+            return this;
+        }
+
+        public Builder isResolved(boolean isResolved) {
+            this.resolutionStatus = isResolved;
+            return this;
+        }
+
+        public Builder withReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+            this.reportedFrom = from;
+            this.reportedTo = to;
+            return this;
+        }
+
+        public CrimeQuery build() {
+            if (location != null && location.trim().isEmpty()) {
+                throw new IllegalStateException("Location cannot be empty");
+            }
+            if (reporterId != null && reporterId.trim().isEmpty()) {
+                throw new IllegalStateException("Reporter ID cannot be empty");
+            }
+            if ((reportedFrom == null) != (reportedTo == null)) {
+                throw new IllegalStateException("Time range needs both a start and an end");
+            }
+            if (reportedFrom != null && reportedFrom.isAfter(reportedTo)) {
+                throw new IllegalStateException("Time range start cannot be after its end");
+            }
+
+            return new CrimeQuery(this);
+        }
+    }
+}
@@ -3,10 +3,28 @@ package za.ac.cput.repository;
 import za.ac.cput.domain.Crime;
 import za.ac.cput.domain.CrimeType;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface CrimeRepository extends IRepository<Crime, String> {
     
+    /**
+     * Sets the resolution status of the crime with {@code id}, leaving every other field
+     * as it is. Returns false if there is no such crime.
+     */
+    boolean markResolved(String id, boolean isResolved);
+    
+    /**
+     * Sets the resolution status of every crime in {@code ids}. Like the other batch
+     * operations, nothing changes unless every ID exists.
+     */
+    BatchResult<String> markAllResolved(Collection<String> ids, boolean isResolved);
+    
     List<Crime> findByCrimeType(CrimeType crimeType);
     
     List<Crime> findByLocation(String location);
@@ -14,4 +32,68 @@ public interface CrimeRepository extends IRepository<Crime, String> {
     List<Crime> findByReporterId(String reporterId);
     
     List<Crime> findByResolutionStatus(boolean isResolved);
+    
+    /**
+     * Returns crimes reported between {@code from} and {@code to}, both inclusive,
+     * oldest first.
+     */
+    List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Returns crimes reported between {@code from} and {@code to}, both inclusive,
+     * most recent first.
+     */
+    List<Crime> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Returns every crime {@code predicate} accepts, for criteria no index can answer,
+     * such as a substring of the description. Always scans the whole store.
+     */
+    List<Crime> findMatching(Predicate<? super Crime> predicate);
+    
+    /**
+     * Searches crime descriptions and returns matches best first, ranked by BM25. Terms
+     * are case-insensitive and English word endings are folded; adjacent terms must all
+     * match, {@code "double quotes"} match a phrase and {@code OR} separates alternatives.
+     */
+    List<Crime> searchDescriptions(String query);
+    
+    /**
+     * Returns the crimes matching every criterion of {@code query}.
+     */
+    List<Crime> find(CrimeQuery query);
+    
+    /**
+     * Returns the crimes matching {@code query} as a lazily evaluated stream, so a caller
+     * that stops early does not pay for the remaining matches.
+     */
+    Stream<Crime> stream(CrimeQuery query);
+    
+    /**
+     * Returns up to {@code limit} crimes matching {@code query} in report time order, then
+     * by ID, starting after {@code continuationToken}, or at the beginning if it is null.
+     * Crimes without a report time come after all others, ordered by ID.
+     */
+    Page<Crime> findPage(CrimeQuery query, int limit, String continuationToken);
+    
+    /**
+     * Returns counts maintained as crimes are written, so reading them never scans.
+     */
+    CrimeStatistics statistics();
+    
+    /**
+     * Returns rolling per-minute counts of newly created crimes by location and type.
+     */
+    CrimeHotspots hotspots();
+    
+    /**
+     * Groups the crimes matching {@code query} by {@code key} and aggregates each group,
+     * in a single pass over the matches.
+     */
+    <K> Map<K, CrimeRollup> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key);
+    
+    /**
+     * Returns the ordered feed of changes made to this repository.
+     */
+    CrimeChangeFeed changes();
 }
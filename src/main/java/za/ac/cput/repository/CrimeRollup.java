@@ -0,0 +1,54 @@
+package za.ac.cput.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregates of one group produced by {@link CrimeRepository#groupBy}.
+ */
+public class CrimeRollup {
+    private final long count;
+    private final long resolvedCount;
+    private final LocalDateTime firstReportedAt;
+    private final LocalDateTime lastReportedAt;
+
+    CrimeRollup(long count, long resolvedCount, LocalDateTime firstReportedAt, LocalDateTime lastReportedAt) {
+        this.count = count;
+        this.resolvedCount = resolvedCount;
+        this.firstReportedAt = firstReportedAt;
+        this.lastReportedAt = lastReportedAt;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getResolvedCount() {
+        return resolvedCount;
+    }
+
+    public long getUnresolvedCount() {
+        return count - resolvedCount;
+    }
+
+    public double getResolutionRate() {
+        return count == 0 ? 0 : (double) resolvedCount / count;
+    }
+
+    public LocalDateTime getFirstReportedAt() {
+        return firstReportedAt;
+    }
+
+    public LocalDateTime getLastReportedAt() {
+        return lastReportedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CrimeRollup{" +
+                "count=" + count +
+                ", resolvedCount=" + resolvedCount +
+                ", firstReportedAt=" + firstReportedAt +
+                ", lastReportedAt=" + lastReportedAt +
+                '}';
+    }
+}
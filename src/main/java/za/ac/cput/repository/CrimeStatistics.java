@@ -0,0 +1,38 @@
+package za.ac.cput.repository;
+
+import za.ac.cput.domain.CrimeType;
+
+import java.util.Map;
+
+/**
+ * Live crime counts maintained by a repository as crimes are created, updated and
+ * deleted. Every single-value read is constant time; reads are not synchronized with
+ * writes, so a read racing a write may see some counters before the write and some after.
+ */
+public interface CrimeStatistics {
+
+    long getTotalCount();
+
+    long getCount(CrimeType crimeType);
+
+    long getResolvedCount();
+
+    long getUnresolvedCount();
+
+    long getResolvedCount(CrimeType crimeType);
+
+    /**
+     * Returns the fraction of crimes of {@code crimeType} that are resolved, or 0 if
+     * there are none.
+     */
+    double getResolutionRate(CrimeType crimeType);
+
+    /**
+     * Returns the number of crimes reported at exactly {@code location}.
+     */
+    long getLocationCount(String location);
+
+    Map<CrimeType, Long> getCountsByType();
+
+    Map<String, Long> getCountsByLocation();
+}
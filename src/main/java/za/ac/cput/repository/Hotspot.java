@@ -0,0 +1,30 @@
+package za.ac.cput.repository;
+
+/**
+ * A location and the number of crimes reported there within a recent window.
+ */
+public class Hotspot {
+    private final String location;
+    private final long count;
+
+    public Hotspot(String location, long count) {
+        this.location = location;
+        this.count = count;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "Hotspot{" +
+                "location='" + location + '\'' +
+                ", count=" + count +
+                '}';
+    }
+}
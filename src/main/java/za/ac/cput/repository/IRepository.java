@@ -1,5 +1,6 @@
 package za.ac.cput.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +15,10 @@ public interface IRepository<T, ID> {
     T update(T entity);
     
     boolean delete(ID id);
+    
+    BatchResult<ID> createAll(Collection<T> entities);
+    
+    BatchResult<ID> updateAll(Collection<T> entities);
+    
+    BatchResult<ID> deleteAll(Collection<ID> ids);
 }
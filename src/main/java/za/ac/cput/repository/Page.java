@@ -0,0 +1,41 @@
+package za.ac.cput.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a paginated query. Pass {@link #getContinuationToken()} back to fetch the
+ * next page; it is {@code null} on the last page. Tokens are opaque and stay valid while
+ * the repository changes, because they record the position of the last item rather than
+ * an offset.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String continuationToken;
+
+    public Page(List<T> items, String continuationToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.continuationToken = continuationToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "size=" + items.size() +
+                ", hasNext=" + hasNext() +
+                '}';
+    }
+}
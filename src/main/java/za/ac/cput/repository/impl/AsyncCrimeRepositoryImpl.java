@@ -0,0 +1,344 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.AsyncCrimeRepository;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.Page;
+
+import java.io.Closeable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs each operation of a synchronous delegate on an executor, one task per operation,
+ * so blocking in the delegate (a forced write-ahead log, say) blocks an executor thread
+ * rather than the caller. Without an executor of its own it uses a virtual thread per
+ * task on runtimes that have them, and a cached pool of daemon threads otherwise.
+ *
+ * <p>Creates are pipelined: they queue up while a single writer task applies them, and
+ * the writer takes everything queued as one {@code createAll}, so a burst of in-flight
+ * creates costs one batched write (and one log record and fsync behind a WAL) instead
+ * of one each. A batch that fails as a whole, e.g. because one crime already exists, is
+ * retried one create at a time so every caller gets exactly the outcome a lone create
+ * would have had.
+ */
+public class AsyncCrimeRepositoryImpl implements AsyncCrimeRepository, Closeable {
+
+    private static final class PendingCreate {
+        final Crime crime;
+        final CompletableFuture<Crime> future = new CompletableFuture<Crime>();
+
+        PendingCreate(Crime crime) {
+            this.crime = crime;
+        }
+    }
+
+    private final CrimeRepository delegate;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final int maxBatchSize;
+    private final Queue<PendingCreate> pendingCreates = new ConcurrentLinkedQueue<PendingCreate>();
+    // Creates queued but not yet accounted for by the writer task; the writer runs while non-zero
+    private final AtomicInteger createWork = new AtomicInteger();
+    private volatile boolean closed;
+
+    private AsyncCrimeRepositoryImpl(Builder builder) {
+        this.delegate = builder.delegate;
+        this.ownsExecutor = builder.executor == null;
+        this.executor = ownsExecutor ? defaultExecutor() : builder.executor;
+        this.maxBatchSize = builder.maxBatchSize;
+    }
+
+    @Override
+    public CompletableFuture<Crime> create(Crime crime) {
+        if (crime == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Crime cannot be null"));
+        }
+        if (closed) {
+            return closedFuture();
+        }
+
+        PendingCreate pending = new PendingCreate(crime);
+        pendingCreates.add(pending);
+        if (createWork.getAndIncrement() == 0) {
+            try {
+                executor.execute(this::writeCreates);
+            } catch (RejectedExecutionException e) {
+                // Apply on the caller's thread rather than strand the queue
+                writeCreates();
+            }
+        }
+        return pending.future;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Crime>> read(String id) {
+        return submit(() -> delegate.read(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> readAll() {
+        return submit(delegate::readAll);
+    }
+
+    @Override
+    public CompletableFuture<Crime> update(Crime crime) {
+        return submit(() -> delegate.update(crime));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String id) {
+        return submit(() -> delegate.delete(id));
+    }
+
+    @Override
+    public CompletableFuture<BatchResult<String>> createAll(Collection<Crime> crimes) {
+        return submit(() -> delegate.createAll(crimes));
+    }
+
+    @Override
+    public CompletableFuture<BatchResult<String>> updateAll(Collection<Crime> crimes) {
+        return submit(() -> delegate.updateAll(crimes));
+    }
+
+    @Override
+    public CompletableFuture<BatchResult<String>> deleteAll(Collection<String> ids) {
+        return submit(() -> delegate.deleteAll(ids));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> markResolved(String id, boolean isResolved) {
+        return submit(() -> delegate.markResolved(id, isResolved));
+    }
+
+    @Override
+    public CompletableFuture<BatchResult<String>> markAllResolved(Collection<String> ids, boolean isResolved) {
+        return submit(() -> delegate.markAllResolved(ids, isResolved));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> findByCrimeType(CrimeType crimeType) {
+        return submit(() -> delegate.findByCrimeType(crimeType));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> findByLocation(String location) {
+        return submit(() -> delegate.findByLocation(location));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> findByReporterId(String reporterId) {
+        return submit(() -> delegate.findByReporterId(reporterId));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> findByResolutionStatus(boolean isResolved) {
+        return submit(() -> delegate.findByResolutionStatus(isResolved));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> findByReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+        return submit(() -> delegate.findByReportedAtBetween(from, to));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to) {
+        return submit(() -> delegate.findByReportedAtBetweenOrderByReportedAtDesc(from, to));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> findMatching(Predicate<? super Crime> predicate) {
+        return submit(() -> delegate.findMatching(predicate));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> searchDescriptions(String query) {
+        return submit(() -> delegate.searchDescriptions(query));
+    }
+
+    @Override
+    public CompletableFuture<List<Crime>> find(CrimeQuery query) {
+        return submit(() -> delegate.find(query));
+    }
+
+    @Override
+    public CompletableFuture<Page<Crime>> findPage(CrimeQuery query, int limit, String continuationToken) {
+        return submit(() -> delegate.findPage(query, limit, continuationToken));
+    }
+
+    @Override
+    public <K> CompletableFuture<Map<K, CrimeRollup>> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key) {
+        return submit(() -> delegate.groupBy(query, key));
+    }
+
+    @Override
+    public CrimeRepository blocking() {
+        return delegate;
+    }
+
+    /**
+     * Stops accepting operations. Operations already accepted still complete; an executor
+     * this repository created is shut down once they have run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        if (closed) {
+            return closedFuture();
+        }
+        try {
+            return CompletableFuture.supplyAsync(operation, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> CompletableFuture<T> closedFuture() {
+        return CompletableFuture.failedFuture(new IllegalStateException("Repository is closed"));
+    }
+
+    /**
+     * The single writer task: applies queued creates in batches until it has accounted
+     * for every create counted in {@link #createWork}.
+     */
+    private void writeCreates() {
+        int missed = 1;
+        do {
+            List<PendingCreate> batch = new ArrayList<PendingCreate>();
+            PendingCreate pending;
+            while ((pending = pendingCreates.poll()) != null) {
+                batch.add(pending);
+                if (batch.size() == maxBatchSize) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            missed = createWork.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void write(List<PendingCreate> batch) {
+        if (batch.size() == 1) {
+            writeOne(batch.get(0));
+            return;
+        }
+
+        List<Crime> crimes = new ArrayList<Crime>(batch.size());
+        for (PendingCreate pending : batch) {
+            crimes.add(pending.crime);
+        }
+        BatchResult<String> result;
+        try {
+            result = delegate.createAll(crimes);
+        } catch (RuntimeException e) {
+            for (PendingCreate pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+        if (result.isApplied()) {
+            for (PendingCreate pending : batch) {
+                pending.future.complete(pending.crime);
+            }
+        } else {
+            for (PendingCreate pending : batch) {
+                writeOne(pending);
+            }
+        }
+    }
+
+    private void writeOne(PendingCreate pending) {
+        try {
+            pending.future.complete(delegate.create(pending.crime));
+        } catch (RuntimeException e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private static ExecutorService defaultExecutor() {
+        try {
+            // Looked up reflectively since the build targets Java 11; present from Java 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "crime-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static class Builder {
+        private CrimeRepository delegate;
+        private Executor executor;
+        private int maxBatchSize;
+
+        public Builder() {
+            this.maxBatchSize = 1024;
+        }
+
+        /**
+         * Sets the synchronous repository operations run against. Required.
+         */
+        public Builder withDelegate(CrimeRepository delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Runs operations on {@code executor}, e.g. {@code Executors.newVirtualThreadPerTaskExecutor()}.
+         * The caller keeps ownership and shuts it down.
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Caps how many queued creates are coalesced into one {@code createAll}.
+         */
+        public Builder withMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public AsyncCrimeRepositoryImpl build() {
+            if (delegate == null) {
+                throw new IllegalStateException("Delegate repository cannot be null");
+            }
+            if (maxBatchSize < 1) {
+                throw new IllegalStateException("Max batch size must be positive");
+            }
+
+            return new AsyncCrimeRepositoryImpl(this);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package za.ac.cput.repository.impl;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.Lock;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy scan over a store guarded by a read-write lock. Matches are read ahead in batches,
+ * each under the read lock, so no lock is held while the caller consumes them. The scan
+ * keeps a position in the store between batches, so a write made in the meantime fails
+ * it with a {@link ConcurrentModificationException} instead of skipping or repeating
+ * crimes.
+ */
+final class BatchedScan<T> implements Iterator<T> {
+
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * Continues the scan from where the previous batch stopped.
+     */
+    interface Source<T> {
+        /**
+         * Adds up to {@code max} matches to {@code batch}; returns false once the store is
+         * exhausted.
+         */
+        boolean fill(List<T> batch, int max);
+    }
+
+    private final Lock readLock;
+    private final IntSupplier modCount;
+    private final int expectedModCount;
+    private final Source<T> source;
+    private final List<T> batch = new ArrayList<T>();
+    private int next;
+    private boolean exhausted;
+
+    /**
+     * {@code expectedModCount} must be read under the read lock, together with whatever
+     * state {@code source} captured.
+     */
+    BatchedScan(Lock readLock, IntSupplier modCount, int expectedModCount, Source<T> source) {
+        this.readLock = readLock;
+        this.modCount = modCount;
+        this.expectedModCount = expectedModCount;
+        this.source = source;
+    }
+
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == batch.size()) {
+            if (exhausted) {
+                return false;
+            }
+            fetch();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return batch.get(next++);
+    }
+
+    private void fetch() {
+        batch.clear();
+        next = 0;
+        readLock.lock();
+        try {
+            if (modCount.getAsInt() != expectedModCount) {
+                throw new ConcurrentModificationException("Repository was written while it was streamed");
+            }
+            exhausted = !source.fill(batch, BATCH_SIZE);
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
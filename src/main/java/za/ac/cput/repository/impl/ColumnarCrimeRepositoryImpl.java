@@ -0,0 +1,885 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeChangeFeed;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeGrouping;
+import za.ac.cput.repository.CrimeHotspots;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.CrimeStatistics;
+import za.ac.cput.repository.Page;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Crime repository with a structure-of-arrays layout. Each field lives in its own
+ * primitive column: UUID IDs as two longs, crime types as byte ordinals, report times
+ * as epoch seconds (UTC) plus nanos, with {@link Long#MIN_VALUE} seconds standing for no
+ * report time, resolution status as a bitset, and locations and reporter IDs as
+ * dictionary codes. Finders run as loops over the relevant column and {@link Crime}
+ * objects are only built for the rows they return. Descriptions are searched through a
+ * {@link RowDescriptionIndex} keyed by row.
+ *
+ * <p>IDs that are not canonical lowercase UUIDs are kept in a side map so every
+ * {@code withId} value still round-trips exactly.
+ *
+ * <p>A read-write lock guards the columns, so growing them or moving a row on delete
+ * never races a reader.
+ */
+public class ColumnarCrimeRepositoryImpl implements CrimeRepository {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final CrimeType[] CRIME_TYPES = CrimeType.values();
+    // Below the epoch second of any LocalDateTime, so range checks exclude it as well
+    private static final long NO_REPORT_TIME = Long.MIN_VALUE;
+
+    private static final ColumnarCrimeRepositoryImpl repository = new ColumnarCrimeRepositoryImpl();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Counts writes, so a stream can tell its position was invalidated between batches
+    private int modCount;
+    private int size;
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private byte[] crimeType = new byte[INITIAL_CAPACITY];
+    private long[] reportedAtSecond = new long[INITIAL_CAPACITY];
+    private int[] reportedAtNano = new int[INITIAL_CAPACITY];
+    private int[] locationCode = new int[INITIAL_CAPACITY];
+    private int[] reporterCode = new int[INITIAL_CAPACITY];
+    private String[] description = new String[INITIAL_CAPACITY];
+    private final BitSet resolved = new BitSet();
+
+    private final UuidRowIndex uuidRows = new UuidRowIndex();
+    private final Map<String, Integer> customIdRows = new HashMap<String, Integer>();
+    private final Map<Integer, String> customIds = new HashMap<Integer, String>();
+    private final StringDictionary locations = new StringDictionary();
+    private final StringDictionary reporters = new StringDictionary();
+    private final CrimeAggregates aggregates = new CrimeAggregates();
+    private final RowDescriptionIndex descriptionIndex = new RowDescriptionIndex(true);
+    private final RollingCrimeCounters hotspots = new RollingCrimeCounters(Clock.systemDefaultZone());
+    private final CrimeChangeLog changes = new CrimeChangeLog(CrimeChangeLog.DEFAULT_CAPACITY, ForkJoinPool.commonPool());
+
+    private ColumnarCrimeRepositoryImpl() {
+    }
+
+    public static ColumnarCrimeRepositoryImpl getRepository() {
+        return repository;
+    }
+
+    // Method for testing purposes
+    public void clearRepository() {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            Arrays.fill(description, null);
+            resolved.clear();
+            uuidRows.clear();
+            customIdRows.clear();
+            customIds.clear();
+            locations.clear();
+            reporters.clear();
+            aggregates.clear();
+            descriptionIndex.clear();
+            hotspots.clear();
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Crime create(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (rowOf(crime.getId()) >= 0) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " already exists");
+            }
+
+            insert(crime);
+            return crime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Crime> read(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            int row = rowOf(id);
+            return row < 0 ? Optional.<Crime>empty() : Optional.of(materialize(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> readAll() {
+        lock.readLock().lock();
+        try {
+            List<Crime> crimes = new ArrayList<Crime>(size);
+            for (int row = 0; row < size; row++) {
+                crimes.add(materialize(row));
+            }
+            return crimes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Crime update(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(crime.getId());
+            if (row < 0) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " does not exist");
+            }
+            overwrite(row, crime);
+            return crime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(id);
+            if (row < 0) {
+                return false;
+            }
+
+            remove(row);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean markResolved(String id, boolean isResolved) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(id);
+            if (row < 0) {
+                return false;
+            }
+            setResolved(row, isResolved);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> markAllResolved(Collection<String> ids, boolean isResolved) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, id -> rowOf(id) >= 0);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    setResolved(rowOf(id), isResolved);
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> createAll(Collection<Crime> crimes) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateCreates(crimes, id -> rowOf(id) >= 0);
+            if (!result.hasFailures()) {
+                ensureCapacity(size + crimes.size());
+                for (Crime crime : crimes) {
+                    insert(crime);
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> updateAll(Collection<Crime> crimes) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateUpdates(crimes, id -> rowOf(id) >= 0);
+            if (!result.hasFailures()) {
+                for (Crime crime : crimes) {
+                    overwrite(rowOf(crime.getId()), crime);
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> deleteAll(Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, id -> rowOf(id) >= 0);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    remove(rowOf(id));
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findByCrimeType(CrimeType crimeType) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            byte ordinal = (byte) crimeType.ordinal();
+            List<Crime> crimesOfType = new ArrayList<Crime>();
+            byte[] types = this.crimeType;
+            for (int row = 0; row < size; row++) {
+                if (types[row] == ordinal) crimesOfType.add(materialize(row));
+            }
+            return crimesOfType;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findByLocation(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            throw new IllegalArgumentException("Location cannot be null or empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            // Match each distinct location once, then filter rows by code
+            String query = location.toLowerCase();
+            BitSet matchingCodes = new BitSet(locations.size());
+            for (int code = 0; code < locations.size(); code++) {
+                if (locations.decode(code).toLowerCase().contains(query)) matchingCodes.set(code);
+            }
+
+            List<Crime> crimesAtLocation = new ArrayList<Crime>();
+            if (matchingCodes.isEmpty()) {
+                return crimesAtLocation;
+            }
+            int[] codes = this.locationCode;
+            for (int row = 0; row < size; row++) {
+                if (matchingCodes.get(codes[row])) crimesAtLocation.add(materialize(row));
+            }
+            return crimesAtLocation;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findByReporterId(String reporterId) {
+        if (reporterId == null || reporterId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Reporter ID cannot be null or empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Crime> crimesByReporter = new ArrayList<Crime>();
+            int code = reporters.codeOf(reporterId);
+            if (code < 0) {
+                return crimesByReporter;
+            }
+            int[] codes = this.reporterCode;
+            for (int row = 0; row < size; row++) {
+                if (codes[row] == code) crimesByReporter.add(materialize(row));
+            }
+            return crimesByReporter;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findByResolutionStatus(boolean isResolved) {
+        lock.readLock().lock();
+        try {
+            List<Crime> crimesByStatus = new ArrayList<Crime>();
+            if (isResolved) {
+                for (int row = resolved.nextSetBit(0); row >= 0 && row < size; row = resolved.nextSetBit(row + 1)) {
+                    crimesByStatus.add(materialize(row));
+                }
+            } else {
+                for (int row = resolved.nextClearBit(0); row < size; row = resolved.nextClearBit(row + 1)) {
+                    crimesByStatus.add(materialize(row));
+                }
+            }
+            return crimesByStatus;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> searchDescriptions(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be null or empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Crime> matches = new ArrayList<Crime>();
+            for (int row : descriptionIndex.search(query, this::idOf)) {
+                matches.add(materialize(row));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findMatching(Predicate<? super Crime> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Crime> matches = new ArrayList<Crime>();
+            for (int row = 0; row < size; row++) {
+                Crime crime = materialize(row);
+                if (predicate.test(crime)) matches.add(crime);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filters column by column and materializes only the matching rows. Reporter and
+     * location criteria are resolved to dictionary codes once, before the row loop.
+     */
+    @Override
+    public List<Crime> find(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            RowFilter filter = new RowFilter(query);
+            List<Crime> matches = new ArrayList<Crime>();
+            for (int row = 0; row < size && !filter.matchesNothing; row++) {
+                if (filter.test(row)) {
+                    matches.add(materialize(row));
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams matching rows lazily, materializing them a batch at a time under the read
+     * lock. A write made while the stream is consumed fails it with a
+     * {@link java.util.ConcurrentModificationException}.
+     */
+    @Override
+    public Stream<Crime> stream(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            RowFilter filter = new RowFilter(query);
+            if (filter.matchesNothing) {
+                return Stream.empty();
+            }
+            return new BatchedScan<Crime>(lock.readLock(), () -> modCount, modCount, new BatchedScan.Source<Crime>() {
+                private int row;
+
+                @Override
+                public boolean fill(List<Crime> batch, int max) {
+                    for (; row < size && batch.size() < max; row++) {
+                        if (filter.test(row)) {
+                            batch.add(materialize(row));
+                        }
+                    }
+                    return row < size;
+                }
+            }).stream();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CrimeHotspots hotspots() {
+        return hotspots;
+    }
+
+    @Override
+    public CrimeChangeFeed changes() {
+        return changes;
+    }
+
+    @Override
+    public CrimeStatistics statistics() {
+        return aggregates;
+    }
+
+    @Override
+    public <K> Map<K, CrimeRollup> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            CrimeGrouping<K> grouping = new CrimeGrouping<K>(key);
+            RowFilter filter = new RowFilter(query);
+            for (int row = 0; row < size && !filter.matchesNothing; row++) {
+                if (filter.test(row)) {
+                    grouping.accept(materialize(row));
+                }
+            }
+            return grouping.toMap();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Crime> findPage(CrimeQuery query, int limit, String continuationToken) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            PageSelector selector = new PageSelector(limit, continuationToken);
+            RowFilter filter = new RowFilter(query);
+            for (int row = 0; row < size && !filter.matchesNothing; row++) {
+                if (filter.test(row) && selector.accepts(reportedAt(row), idOf(row))) {
+                    selector.offer(materialize(row));
+                }
+            }
+            return selector.page();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt));
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt).reversed());
+    }
+
+    private List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to, Comparator<Crime> order) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Time range cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Time range start cannot be after its end");
+        }
+
+        lock.readLock().lock();
+        try {
+            long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+            long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+            List<Crime> crimesInRange = new ArrayList<Crime>();
+            for (int row = 0; row < size; row++) {
+                if (reportedWithin(row, fromSecond, from.getNano(), toSecond, to.getNano())) {
+                    crimesInRange.add(materialize(row));
+                }
+            }
+            crimesInRange.sort(order);
+            return crimesInRange;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean reportedWithin(int row, long fromSecond, int fromNano, long toSecond, int toNano) {
+        long second = reportedAtSecond[row];
+        if (second == NO_REPORT_TIME || second < fromSecond || second > toSecond) {
+            return false;
+        }
+        int nano = reportedAtNano[row];
+        return !(second == fromSecond && nano < fromNano) && !(second == toSecond && nano > toNano);
+    }
+
+    private void insert(Crime crime) {
+        modCount++;
+        ensureCapacity(size + 1);
+        int row = size++;
+        String id = crime.getId();
+        if (isCanonicalUuid(id)) {
+            idHigh[row] = parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18);
+            idLow[row] = parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36);
+            uuidRows.put(idHigh[row], idLow[row], row);
+        } else {
+            customIdRows.put(id, row);
+            customIds.put(row, id);
+        }
+        writeFields(row, crime);
+        aggregates.add(crime);
+        hotspots.record(crime);
+        descriptionIndex.put(row, crime.getDescription());
+        changes.created(crime);
+    }
+
+    private void overwrite(int row, Crime crime) {
+        modCount++;
+        unaggregate(row);
+        if (!description[row].equals(crime.getDescription())) {
+            descriptionIndex.remove(row, description[row]);
+            descriptionIndex.put(row, crime.getDescription());
+        }
+        writeFields(row, crime);
+        aggregates.add(crime);
+        changes.updated(crime);
+    }
+
+    private void remove(int row) {
+        modCount++;
+        changes.deleted(materialize(row));
+        unaggregate(row);
+        descriptionIndex.remove(row, description[row]);
+        removeId(row);
+        int lastRow = size - 1;
+        if (row != lastRow) {
+            moveRow(lastRow, row);
+        }
+        description[lastRow] = null;
+        resolved.clear(lastRow);
+        size--;
+    }
+
+    private void setResolved(int row, boolean isResolved) {
+        if (resolved.get(row) != isResolved) {
+            modCount++;
+            resolved.set(row, isResolved);
+            aggregates.setResolved(CRIME_TYPES[crimeType[row]], isResolved);
+            changes.updated(materialize(row));
+        }
+    }
+
+    private void unaggregate(int row) {
+        aggregates.remove(CRIME_TYPES[crimeType[row]], resolved.get(row), locations.decode(locationCode[row]));
+    }
+
+    private int rowOf(String id) {
+        if (isCanonicalUuid(id)) {
+            return uuidRows.get(parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18),
+                    parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36));
+        }
+        Integer row = customIdRows.get(id);
+        return row == null ? -1 : row;
+    }
+
+    private String idOf(int row) {
+        String customId = customIds.get(row);
+        return customId != null ? customId : new UUID(idHigh[row], idLow[row]).toString();
+    }
+
+    private void removeId(int row) {
+        String customId = customIds.remove(row);
+        if (customId != null) {
+            customIdRows.remove(customId);
+        } else {
+            uuidRows.remove(idHigh[row], idLow[row]);
+        }
+    }
+
+    private void moveRow(int from, int to) {
+        idHigh[to] = idHigh[from];
+        idLow[to] = idLow[from];
+        crimeType[to] = crimeType[from];
+        reportedAtSecond[to] = reportedAtSecond[from];
+        reportedAtNano[to] = reportedAtNano[from];
+        locationCode[to] = locationCode[from];
+        reporterCode[to] = reporterCode[from];
+        description[to] = description[from];
+        resolved.set(to, resolved.get(from));
+        descriptionIndex.move(from, to);
+
+        String customId = customIds.remove(from);
+        if (customId != null) {
+            customIds.put(to, customId);
+            customIdRows.put(customId, to);
+        } else {
+            uuidRows.put(idHigh[to], idLow[to], to);
+        }
+    }
+
+    private void writeFields(int row, Crime crime) {
+        crimeType[row] = (byte) crime.getCrimeType().ordinal();
+        LocalDateTime reportedAt = crime.getReportedAt();
+        reportedAtSecond[row] = reportedAt == null ? NO_REPORT_TIME : reportedAt.toEpochSecond(ZoneOffset.UTC);
+        reportedAtNano[row] = reportedAt == null ? 0 : reportedAt.getNano();
+        locationCode[row] = locations.encode(crime.getLocation());
+        reporterCode[row] = reporters.encode(crime.getReporterId());
+        description[row] = crime.getDescription();
+        resolved.set(row, crime.isResolved());
+    }
+
+    private LocalDateTime reportedAt(int row) {
+        long second = reportedAtSecond[row];
+        return second == NO_REPORT_TIME ? null : LocalDateTime.ofEpochSecond(second, reportedAtNano[row], ZoneOffset.UTC);
+    }
+
+    private Crime materialize(int row) {
+        return new Crime.Builder()
+                .withId(idOf(row))
+                .withDescription(description[row])
+                .withLocation(locations.decode(locationCode[row]))
+                .withReportedAt(reportedAt(row))
+                .withCrimeType(CRIME_TYPES[crimeType[row]])
+                .withReporterId(reporters.decode(reporterCode[row]))
+                .isResolved(resolved.get(row))
+                .build();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= idHigh.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, idHigh.length * 2);
+        idHigh = Arrays.copyOf(idHigh, newCapacity);
+        idLow = Arrays.copyOf(idLow, newCapacity);
+        crimeType = Arrays.copyOf(crimeType, newCapacity);
+        reportedAtSecond = Arrays.copyOf(reportedAtSecond, newCapacity);
+        reportedAtNano = Arrays.copyOf(reportedAtNano, newCapacity);
+        locationCode = Arrays.copyOf(locationCode, newCapacity);
+        reporterCode = Arrays.copyOf(reporterCode, newCapacity);
+        description = Arrays.copyOf(description, newCapacity);
+    }
+
+    /**
+     * True if {@code id} is exactly what {@link UUID#toString()} would produce, so it can
+     * be stored as two longs and rebuilt without loss.
+     */
+    static boolean isCanonicalUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String text, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            value = value << 4 | (c <= '9' ? c - '0' : c - 'a' + 10);
+        }
+        return value;
+    }
+
+    /**
+     * A {@link CrimeQuery} compiled against the columns and dictionaries.
+     */
+    private final class RowFilter {
+        private final int type;
+        private final Boolean status;
+        private final int reporter;
+        private final BitSet locationCodes;
+        private final boolean timeRange;
+        private final long fromSecond;
+        private final int fromNano;
+        private final long toSecond;
+        private final int toNano;
+        private final boolean matchesNothing;
+
+        RowFilter(CrimeQuery query) {
+            type = query.getCrimeType() == null ? -1 : query.getCrimeType().ordinal();
+            status = query.getResolutionStatus();
+            reporter = query.getReporterId() == null ? -1 : reporters.codeOf(query.getReporterId());
+            if (query.getLocation() != null) {
+                String needle = query.getLocation().toLowerCase();
+                locationCodes = new BitSet(locations.size());
+                for (int code = 0; code < locations.size(); code++) {
+                    if (locations.decode(code).toLowerCase().contains(needle)) {
+                        locationCodes.set(code);
+                    }
+                }
+            } else {
+                locationCodes = null;
+            }
+            timeRange = query.hasTimeRange();
+            fromSecond = timeRange ? query.getReportedFrom().toEpochSecond(ZoneOffset.UTC) : 0;
+            fromNano = timeRange ? query.getReportedFrom().getNano() : 0;
+            toSecond = timeRange ? query.getReportedTo().toEpochSecond(ZoneOffset.UTC) : 0;
+            toNano = timeRange ? query.getReportedTo().getNano() : 0;
+            matchesNothing = (query.getReporterId() != null && reporter < 0)
+                    || (locationCodes != null && locationCodes.isEmpty());
+        }
+
+        boolean test(int row) {
+            return (type < 0 || crimeType[row] == type)
+                    && (status == null || resolved.get(row) == status)
+                    && (reporter < 0 || reporterCode[row] == reporter)
+                    && (locationCodes == null || locationCodes.get(locationCode[row]))
+                    && (!timeRange || reportedWithin(row, fromSecond, fromNano, toSecond, toNano));
+        }
+    }
+
+    /**
+     * Open-addressing hash table from a UUID's two longs to a row, with linear probing
+     * and backward-shift deletion so no tombstones are needed.
+     */
+    private static final class UuidRowIndex {
+        private long[] high = new long[INITIAL_CAPACITY * 2];
+        private long[] low = new long[INITIAL_CAPACITY * 2];
+        private int[] rows = new int[INITIAL_CAPACITY * 2];
+        private int count;
+
+        UuidRowIndex() {
+            Arrays.fill(rows, -1);
+        }
+
+        int get(long keyHigh, long keyLow) {
+            int mask = rows.length - 1;
+            for (int slot = slot(keyHigh, keyLow, mask); rows[slot] >= 0; slot = (slot + 1) & mask) {
+                if (high[slot] == keyHigh && low[slot] == keyLow) return rows[slot];
+            }
+            return -1;
+        }
+
+        void put(long keyHigh, long keyLow, int row) {
+            if ((count + 1) * 2 > rows.length) {
+                resize(rows.length * 2);
+            }
+            int mask = rows.length - 1;
+            int slot = slot(keyHigh, keyLow, mask);
+            while (rows[slot] >= 0) {
+                if (high[slot] == keyHigh && low[slot] == keyLow) {
+                    rows[slot] = row;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            high[slot] = keyHigh;
+            low[slot] = keyLow;
+            rows[slot] = row;
+            count++;
+        }
+
+        void remove(long keyHigh, long keyLow) {
+            int mask = rows.length - 1;
+            int slot = slot(keyHigh, keyLow, mask);
+            while (rows[slot] >= 0 && !(high[slot] == keyHigh && low[slot] == keyLow)) {
+                slot = (slot + 1) & mask;
+            }
+            if (rows[slot] < 0) {
+                return;
+            }
+            count--;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; rows[next] >= 0; next = (next + 1) & mask) {
+                int home = slot(high[next], low[next], mask);
+                // Shift back entries whose home slot is not between the hole and their position
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    high[hole] = high[next];
+                    low[hole] = low[next];
+                    rows[hole] = rows[next];
+                    hole = next;
+                }
+            }
+            rows[hole] = -1;
+        }
+
+        void clear() {
+            Arrays.fill(rows, -1);
+            count = 0;
+        }
+
+        private void resize(int capacity) {
+            long[] oldHigh = high;
+            long[] oldLow = low;
+            int[] oldRows = rows;
+            high = new long[capacity];
+            low = new long[capacity];
+            rows = new int[capacity];
+            Arrays.fill(rows, -1);
+            count = 0;
+            for (int i = 0; i < oldRows.length; i++) {
+                if (oldRows[i] >= 0) put(oldHigh[i], oldLow[i], oldRows[i]);
+            }
+        }
+
+        private static int slot(long keyHigh, long keyLow, int mask) {
+            long h = keyHigh * 0x9E3779B97F4A7C15L ^ keyLow;
+            h ^= h >>> 29;
+            h *= 0xBF58476D1CE4E5B9L;
+            return (int) (h ^ h >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,570 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeChangeFeed;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeGrouping;
+import za.ac.cput.repository.CrimeHotspots;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.CrimeStatistics;
+import za.ac.cput.repository.Page;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Crime repository for many concurrent writers and readers. Writes to different IDs
+ * do not contend and reads never block; finders see a weakly consistent view.
+ * Single writes lock one of a fixed set of stripes chosen by the crime's ID, so writers
+ * to different IDs rarely meet on a lock. Batches and clearing lock every stripe, so
+ * a batch waits only for in-flight writes and its validation cannot be invalidated
+ * before it is applied. Statistics are adjusted
+ * after each map operation succeeds; counter updates commute, so they settle on the
+ * map's contents once concurrent writes finish. Changes are published from inside the
+ * map's atomic operation on the key, so the feed orders writes to each ID as applied.
+ *
+ * <p>Descriptions are indexed behind the writes: a writer queues the crime's ID and
+ * applies the queue only if no one else holds the index lock, so writers never wait on
+ * the index. Searches apply whatever is still queued before they run, so they see every
+ * write that finished before them.
+ */
+public class ConcurrentCrimeRepositoryImpl implements CrimeRepository {
+
+    private static final int STRIPES = 64;
+
+    private static final ConcurrentCrimeRepositoryImpl repository = new ConcurrentCrimeRepositoryImpl();
+    private final ConcurrentMap<String, Crime> crimeMap = new ConcurrentHashMap<String, Crime>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final CrimeAggregates aggregates = new CrimeAggregates();
+    private final DescriptionIndex descriptionIndex = new DescriptionIndex(true);
+    private final ReentrantLock indexLock = new ReentrantLock();
+    // IDs written since their description was last indexed
+    private final Set<String> unindexed = ConcurrentHashMap.newKeySet();
+    private final RollingCrimeCounters hotspots = new RollingCrimeCounters(Clock.systemDefaultZone());
+    private final CrimeChangeLog changes = new CrimeChangeLog(CrimeChangeLog.DEFAULT_CAPACITY, ForkJoinPool.commonPool());
+
+    private ConcurrentCrimeRepositoryImpl() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public static ConcurrentCrimeRepositoryImpl getRepository() {
+        return repository;
+    }
+
+    // Method for testing purposes
+    public void clearRepository() {
+        lockAllStripes();
+        try {
+            crimeMap.clear();
+            aggregates.clear();
+            indexLock.lock();
+            try {
+                unindexed.clear();
+                descriptionIndex.clear();
+            } finally {
+                indexLock.unlock();
+            }
+            hotspots.clear();
+        } finally {
+            unlockAllStripes();
+        }
+    }
+
+    @Override
+    public Crime create(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        ReentrantLock stripe = stripeFor(crime.getId());
+        stripe.lock();
+        try {
+            boolean[] created = new boolean[1];
+            crimeMap.computeIfAbsent(crime.getId(), key -> {
+                changes.created(crime);
+                created[0] = true;
+                return crime;
+            });
+            if (!created[0]) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " already exists");
+            }
+            aggregates.add(crime);
+            hotspots.record(crime);
+            reindexDescription(crime.getId());
+            return crime;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Crime> read(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        return Optional.ofNullable(crimeMap.get(id));
+    }
+
+    @Override
+    public List<Crime> readAll() {
+        return new ArrayList<Crime>(crimeMap.values());
+    }
+
+    @Override
+    public Crime update(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        ReentrantLock stripe = stripeFor(crime.getId());
+        stripe.lock();
+        try {
+            Crime[] replaced = new Crime[1];
+            crimeMap.computeIfPresent(crime.getId(), (key, current) -> {
+                replaced[0] = current;
+                changes.updated(crime);
+                return crime;
+            });
+            if (replaced[0] != null) {
+                aggregates.remove(replaced[0]);
+                aggregates.add(crime);
+                reindexDescription(crime.getId());
+                return crime;
+            }
+            throw new IllegalArgumentException("Crime with ID " + crime.getId() + " does not exist");
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Atomically replaces the crime stored under {@code id} with {@code updater}'s result.
+     * Concurrent updates to the same ID are serialized, so none is lost. The updater runs
+     * under the ID's stripe and must not write to this repository.
+     */
+    public Crime update(String id, UnaryOperator<Crime> updater) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+        if (updater == null) {
+            throw new IllegalArgumentException("Updater cannot be null");
+        }
+
+        Crime updated;
+        Crime[] replaced = new Crime[1];
+        ReentrantLock stripe = stripeFor(id);
+        stripe.lock();
+        try {
+            updated = crimeMap.computeIfPresent(id, (key, current) -> {
+                Crime next = updater.apply(current);
+                if (next == null || !key.equals(next.getId())) {
+                    throw new IllegalArgumentException("Updater must return a crime with ID " + key);
+                }
+                replaced[0] = current;
+                changes.updated(next);
+                return next;
+            });
+            if (updated != null) {
+                aggregates.remove(replaced[0]);
+                aggregates.add(updated);
+                reindexDescription(id);
+            }
+        } finally {
+            stripe.unlock();
+        }
+        if (updated == null) {
+            throw new IllegalArgumentException("Crime with ID " + id + " does not exist");
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        ReentrantLock stripe = stripeFor(id);
+        stripe.lock();
+        try {
+            Crime[] removed = new Crime[1];
+            crimeMap.computeIfPresent(id, (key, current) -> {
+                removed[0] = current;
+                changes.deleted(current);
+                return null;
+            });
+            if (removed[0] == null) {
+                return false;
+            }
+            aggregates.remove(removed[0]);
+            reindexDescription(id);
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public boolean markResolved(String id, boolean isResolved) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        Crime[] previous = new Crime[1];
+        ReentrantLock stripe = stripeFor(id);
+        stripe.lock();
+        try {
+            Crime marked = crimeMap.computeIfPresent(id, (key, current) -> {
+                previous[0] = current;
+                Crime next = current.withResolved(isResolved);
+                if (next != current) {
+                    changes.updated(next);
+                }
+                return next;
+            });
+            if (marked == null) {
+                return false;
+            }
+            if (marked != previous[0]) {
+                aggregates.setResolved(marked.getCrimeType(), isResolved);
+            }
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> markAllResolved(Collection<String> ids, boolean isResolved) {
+        lockAllStripes();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, crimeMap::containsKey);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    Crime current = crimeMap.get(id);
+                    Crime marked = current.withResolved(isResolved);
+                    if (marked != current) {
+                        crimeMap.put(id, marked);
+                        aggregates.setResolved(marked.getCrimeType(), isResolved);
+                        changes.updated(marked);
+                    }
+                }
+            }
+            return result.build();
+        } finally {
+            unlockAllStripes();
+        }
+    }
+
+    @Override
+    public BatchResult<String> createAll(Collection<Crime> crimes) {
+        lockAllStripes();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateCreates(crimes, crimeMap::containsKey);
+            if (!result.hasFailures()) {
+                for (Crime crime : crimes) {
+                    crimeMap.put(crime.getId(), crime);
+                    aggregates.add(crime);
+                    hotspots.record(crime);
+                    unindexed.add(crime.getId());
+                    changes.created(crime);
+                }
+                indexDescriptions();
+            }
+            return result.build();
+        } finally {
+            unlockAllStripes();
+        }
+    }
+
+    @Override
+    public BatchResult<String> updateAll(Collection<Crime> crimes) {
+        lockAllStripes();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateUpdates(crimes, crimeMap::containsKey);
+            if (!result.hasFailures()) {
+                for (Crime crime : crimes) {
+                    aggregates.remove(crimeMap.put(crime.getId(), crime));
+                    aggregates.add(crime);
+                    unindexed.add(crime.getId());
+                    changes.updated(crime);
+                }
+                indexDescriptions();
+            }
+            return result.build();
+        } finally {
+            unlockAllStripes();
+        }
+    }
+
+    @Override
+    public BatchResult<String> deleteAll(Collection<String> ids) {
+        lockAllStripes();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, crimeMap::containsKey);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    Crime removed = crimeMap.remove(id);
+                    aggregates.remove(removed);
+                    unindexed.add(id);
+                    changes.deleted(removed);
+                }
+                indexDescriptions();
+            }
+            return result.build();
+        } finally {
+            unlockAllStripes();
+        }
+    }
+
+    @Override
+    public List<Crime> findByCrimeType(CrimeType crimeType) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+
+        List<Crime> crimesOfType = new ArrayList<Crime>();
+        for (Crime c : crimeMap.values()) {
+            if (c.getCrimeType() == crimeType) crimesOfType.add(c);
+        }
+        return crimesOfType;
+    }
+
+    @Override
+    public List<Crime> findByLocation(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            throw new IllegalArgumentException("Location cannot be null or empty");
+        }
+
+        String query = location.toLowerCase();
+        List<Crime> crimesAtLocation = new ArrayList<Crime>();
+        for (Crime c : crimeMap.values()) {
+            if (c.getLocation().toLowerCase().contains(query)) crimesAtLocation.add(c);
+        }
+        return crimesAtLocation;
+    }
+
+    @Override
+    public List<Crime> findByReporterId(String reporterId) {
+        if (reporterId == null || reporterId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Reporter ID cannot be null or empty");
+        }
+
+        List<Crime> crimesByReporter = new ArrayList<Crime>();
+        for (Crime c : crimeMap.values()) {
+            if (c.getReporterId().equals(reporterId)) crimesByReporter.add(c);
+        }
+        return crimesByReporter;
+    }
+
+    @Override
+    public List<Crime> findByResolutionStatus(boolean isResolved) {
+        List<Crime> crimesByStatus = new ArrayList<Crime>();
+        for (Crime c : crimeMap.values()) {
+            if (c.isResolved() == isResolved) crimesByStatus.add(c);
+        }
+        return crimesByStatus;
+    }
+
+    @Override
+    public List<Crime> searchDescriptions(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be null or empty");
+        }
+
+        List<String> ids;
+        indexLock.lock();
+        try {
+            applyUnindexed();
+            ids = descriptionIndex.search(query);
+        } finally {
+            indexLock.unlock();
+        }
+        List<Crime> matches = new ArrayList<Crime>();
+        for (String id : ids) {
+            Crime c = crimeMap.get(id);
+            if (c != null) matches.add(c);
+        }
+        return matches;
+    }
+
+    @Override
+    public List<Crime> findMatching(Predicate<? super Crime> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+
+        List<Crime> matches = new ArrayList<Crime>();
+        for (Crime c : crimeMap.values()) {
+            if (predicate.test(c)) matches.add(c);
+        }
+        return matches;
+    }
+
+    @Override
+    public List<Crime> find(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        List<Crime> matches = new ArrayList<Crime>();
+        for (Crime c : crimeMap.values()) {
+            if (query.matches(c)) matches.add(c);
+        }
+        return matches;
+    }
+
+    @Override
+    public Stream<Crime> stream(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        return crimeMap.values().stream().filter(query::matches);
+    }
+
+    @Override
+    public CrimeHotspots hotspots() {
+        return hotspots;
+    }
+
+    @Override
+    public CrimeChangeFeed changes() {
+        return changes;
+    }
+
+    @Override
+    public CrimeStatistics statistics() {
+        return aggregates;
+    }
+
+    @Override
+    public <K> Map<K, CrimeRollup> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        CrimeGrouping<K> grouping = new CrimeGrouping<K>(key);
+        for (Crime c : crimeMap.values()) {
+            if (query.matches(c)) grouping.accept(c);
+        }
+        return grouping.toMap();
+    }
+
+    @Override
+    public Page<Crime> findPage(CrimeQuery query, int limit, String continuationToken) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        PageSelector selector = new PageSelector(limit, continuationToken);
+        for (Crime c : crimeMap.values()) {
+            if (query.matches(c)) selector.offerIfAccepted(c);
+        }
+        return selector.page();
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt));
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt).reversed());
+    }
+
+    private ReentrantLock stripeFor(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    // Always in index order, so batches never deadlock on each other
+    private void lockAllStripes() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAllStripes() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    private void reindexDescription(String id) {
+        unindexed.add(id);
+        indexDescriptions();
+    }
+
+    /**
+     * Applies the queued IDs unless someone else holds the index lock, in which case the
+     * holder or the next search picks them up.
+     */
+    private void indexDescriptions() {
+        if (indexLock.tryLock()) {
+            try {
+                applyUnindexed();
+            } finally {
+                indexLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Indexes whatever the map holds for each queued ID now. An ID leaves the queue before
+     * its crime is read and writers queue it after writing the map, so a write racing
+     * this always leaves its ID queued for another pass.
+     */
+    private void applyUnindexed() {
+        for (Iterator<String> ids = unindexed.iterator(); ids.hasNext(); ) {
+            String id = ids.next();
+            ids.remove();
+            Crime current = crimeMap.get(id);
+            if (current == null) {
+                descriptionIndex.remove(id);
+            } else {
+                descriptionIndex.put(id, current.getDescription());
+            }
+        }
+    }
+
+    private List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to, Comparator<Crime> order) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Time range cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Time range start cannot be after its end");
+        }
+
+        List<Crime> crimesInRange = new ArrayList<Crime>();
+        for (Crime c : crimeMap.values()) {
+            LocalDateTime reportedAt = c.getReportedAt();
+            if (reportedAt != null && !reportedAt.isBefore(from) && !reportedAt.isAfter(to)) crimesInRange.add(c);
+        }
+        crimesInRange.sort(order);
+        return crimesInRange;
+    }
+}
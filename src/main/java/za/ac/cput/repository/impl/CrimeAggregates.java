@@ -0,0 +1,156 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.CrimeStatistics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters behind {@link CrimeStatistics}, kept current by the repositories on every
+ * write instead of being recomputed from a scan. Totals are sums over the handful of
+ * crime types, so every read stays O(1).
+ */
+final class CrimeAggregates implements CrimeStatistics {
+
+    private static final CrimeType[] TYPES = CrimeType.values();
+
+    private final AtomicLongArray typeCounts = new AtomicLongArray(TYPES.length);
+    private final AtomicLongArray resolvedTypeCounts = new AtomicLongArray(TYPES.length);
+    private final ConcurrentHashMap<String, Long> locationCounts = new ConcurrentHashMap<String, Long>();
+
+    void add(Crime crime) {
+        add(crime.getCrimeType(), crime.isResolved(), crime.getLocation());
+    }
+
+    void remove(Crime crime) {
+        remove(crime.getCrimeType(), crime.isResolved(), crime.getLocation());
+    }
+
+    void add(CrimeType crimeType, boolean resolved, String location) {
+        typeCounts.incrementAndGet(crimeType.ordinal());
+        if (resolved) {
+            resolvedTypeCounts.incrementAndGet(crimeType.ordinal());
+        }
+        locationCounts.merge(location, 1L, CrimeAggregates::sumOrRemove);
+    }
+
+    void remove(CrimeType crimeType, boolean resolved, String location) {
+        typeCounts.decrementAndGet(crimeType.ordinal());
+        if (resolved) {
+            resolvedTypeCounts.decrementAndGet(crimeType.ordinal());
+        }
+        locationCounts.merge(location, -1L, CrimeAggregates::sumOrRemove);
+    }
+
+    /**
+     * Moves one crime of {@code crimeType} to resolved or back to unresolved.
+     */
+    void setResolved(CrimeType crimeType, boolean resolved) {
+        if (resolved) {
+            resolvedTypeCounts.incrementAndGet(crimeType.ordinal());
+        } else {
+            resolvedTypeCounts.decrementAndGet(crimeType.ordinal());
+        }
+    }
+
+    /**
+     * Adds a location count change, dropping the entry once it reaches zero. A racing
+     * remove may arrive before its add and leave a count briefly negative, so the
+     * changes commute and always settle on the right total.
+     */
+    private static Long sumOrRemove(Long count, Long change) {
+        long sum = count + change;
+        return sum == 0 ? null : sum;
+    }
+
+    void clear() {
+        for (int i = 0; i < TYPES.length; i++) {
+            typeCounts.set(i, 0);
+            resolvedTypeCounts.set(i, 0);
+        }
+        locationCounts.clear();
+    }
+
+    @Override
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < TYPES.length; i++) {
+            total += typeCounts.get(i);
+        }
+        return total;
+    }
+
+    @Override
+    public long getCount(CrimeType crimeType) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+        return typeCounts.get(crimeType.ordinal());
+    }
+
+    @Override
+    public long getResolvedCount() {
+        long total = 0;
+        for (int i = 0; i < TYPES.length; i++) {
+            total += resolvedTypeCounts.get(i);
+        }
+        return total;
+    }
+
+    @Override
+    public long getUnresolvedCount() {
+        return getTotalCount() - getResolvedCount();
+    }
+
+    @Override
+    public long getResolvedCount(CrimeType crimeType) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+        return resolvedTypeCounts.get(crimeType.ordinal());
+    }
+
+    @Override
+    public double getResolutionRate(CrimeType crimeType) {
+        long count = getCount(crimeType);
+        return count == 0 ? 0 : (double) getResolvedCount(crimeType) / count;
+    }
+
+    @Override
+    public long getLocationCount(String location) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location cannot be null");
+        }
+        Long count = locationCounts.get(location);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public Map<CrimeType, Long> getCountsByType() {
+        Map<CrimeType, Long> counts = new EnumMap<CrimeType, Long>(CrimeType.class);
+        for (CrimeType crimeType : TYPES) {
+            counts.put(crimeType, typeCounts.get(crimeType.ordinal()));
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public Map<String, Long> getCountsByLocation() {
+        return Collections.unmodifiableMap(new HashMap<String, Long>(locationCounts));
+    }
+
+    @Override
+    public String toString() {
+        return "CrimeStatistics{" +
+                "total=" + getTotalCount() +
+                ", resolved=" + getResolvedCount() +
+                ", byType=" + getCountsByType() +
+                '}';
+    }
+}
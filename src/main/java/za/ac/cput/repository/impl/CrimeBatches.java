@@ -0,0 +1,91 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.repository.BatchResult;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Validation shared by the batch operations of every crime repository. Each method makes
+ * a single pass over the batch, checking nulls, blank IDs, duplicates within the batch
+ * and existence in the store, so the caller can apply the batch without re-checking.
+ */
+final class CrimeBatches {
+
+    private CrimeBatches() {
+    }
+
+    static BatchResult.Builder<String> validateCreates(Collection<Crime> crimes, Predicate<String> exists) {
+        if (crimes == null) {
+            throw new IllegalArgumentException("Crimes cannot be null");
+        }
+
+        BatchResult.Builder<String> result = new BatchResult.Builder<String>();
+        Set<String> batchIds = new HashSet<String>();
+        for (Crime crime : crimes) {
+            if (crime == null) {
+                result.add(null, BatchResult.Status.NULL_ENTITY);
+            } else if (isBlank(crime.getId())) {
+                result.add(crime.getId(), BatchResult.Status.INVALID_ID);
+            } else if (!batchIds.add(crime.getId())) {
+                result.add(crime.getId(), BatchResult.Status.DUPLICATE_IN_BATCH);
+            } else if (exists.test(crime.getId())) {
+                result.add(crime.getId(), BatchResult.Status.ALREADY_EXISTS);
+            } else {
+                result.add(crime.getId(), null);
+            }
+        }
+        return result;
+    }
+
+    static BatchResult.Builder<String> validateUpdates(Collection<Crime> crimes, Predicate<String> exists) {
+        if (crimes == null) {
+            throw new IllegalArgumentException("Crimes cannot be null");
+        }
+
+        BatchResult.Builder<String> result = new BatchResult.Builder<String>();
+        Set<String> batchIds = new HashSet<String>();
+        for (Crime crime : crimes) {
+            if (crime == null) {
+                result.add(null, BatchResult.Status.NULL_ENTITY);
+            } else if (isBlank(crime.getId())) {
+                result.add(crime.getId(), BatchResult.Status.INVALID_ID);
+            } else if (!batchIds.add(crime.getId())) {
+                result.add(crime.getId(), BatchResult.Status.DUPLICATE_IN_BATCH);
+            } else if (!exists.test(crime.getId())) {
+                result.add(crime.getId(), BatchResult.Status.NOT_FOUND);
+            } else {
+                result.add(crime.getId(), null);
+            }
+        }
+        return result;
+    }
+
+    static BatchResult.Builder<String> validateIds(Collection<String> ids, Predicate<String> exists) {
+        if (ids == null) {
+            throw new IllegalArgumentException("IDs cannot be null");
+        }
+
+        BatchResult.Builder<String> result = new BatchResult.Builder<String>();
+        Set<String> batchIds = new HashSet<String>();
+        for (String id : ids) {
+            if (isBlank(id)) {
+                result.add(id, BatchResult.Status.INVALID_ID);
+            } else if (!batchIds.add(id)) {
+                result.add(id, BatchResult.Status.DUPLICATE_IN_BATCH);
+            } else if (!exists.test(id)) {
+                result.add(id, BatchResult.Status.NOT_FOUND);
+            } else {
+                result.add(id, null);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBlank(String id) {
+        return id == null || id.trim().isEmpty();
+    }
+}
@@ -0,0 +1,194 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.repository.CrimeChangeEvent;
+import za.ac.cput.repository.CrimeChangeFeed;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link CrimeChangeFeed} backed by a bounded ring holding the latest events. Publishing
+ * claims a sequence from an atomic counter and stores the event in its slot, so writers
+ * never lock or wait, even when several publish at once. Repositories publish while the
+ * change is still exclusive to them (under their write lock, or inside the map's atomic
+ * update), so sequence order matches the order changes were applied.
+ *
+ * <p>Each subscription drains the ring on the executor, one run at a time, delivering no
+ * more than its subscriber has requested.
+ */
+final class CrimeChangeLog implements CrimeChangeFeed {
+
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final AtomicReferenceArray<CrimeChangeEvent> ring;
+    private final int mask;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final Executor executor;
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<ChangeSubscription>();
+
+    CrimeChangeLog(int capacity, Executor executor) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.ring = new AtomicReferenceArray<CrimeChangeEvent>(capacity);
+        this.mask = capacity - 1;
+        this.executor = executor;
+    }
+
+    void created(Crime crime) {
+        publish(CrimeChangeEvent.Type.CREATED, crime);
+    }
+
+    void updated(Crime crime) {
+        publish(CrimeChangeEvent.Type.UPDATED, crime);
+    }
+
+    void deleted(Crime crime) {
+        publish(CrimeChangeEvent.Type.DELETED, crime);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CrimeChangeEvent> subscriber) {
+        subscribe(subscriber, lastSequence.get() + 1);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CrimeChangeEvent> subscriber, long fromSequence) {
+        Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+        if (fromSequence < 1) {
+            throw new IllegalArgumentException("Sequence must be positive");
+        }
+        if (fromSequence > lastSequence.get() + 1) {
+            throw new IllegalArgumentException("Sequence " + fromSequence + " has not been published");
+        }
+
+        ChangeSubscription subscription = new ChangeSubscription(subscriber, fromSequence);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        if (fromSequence <= lastSequence.get() - ring.length()) {
+            subscription.fail(new MissedChangesException(fromSequence));
+        }
+    }
+
+    @Override
+    public long getLatestSequence() {
+        return lastSequence.get();
+    }
+
+    private void publish(CrimeChangeEvent.Type type, Crime crime) {
+        long sequence = lastSequence.incrementAndGet();
+        CrimeChangeEvent event = new CrimeChangeEvent(sequence, type, crime);
+        int slot = (int) sequence & mask;
+        CrimeChangeEvent previous;
+        do {
+            previous = ring.get(slot);
+            // A publisher a whole ring ahead already reused the slot; readers will see the gap
+            if (previous != null && previous.getSequence() > sequence) {
+                break;
+            }
+        } while (!ring.compareAndSet(slot, previous, event));
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.drain();
+        }
+    }
+
+    private final class ChangeSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super CrimeChangeEvent> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private long next;
+        private volatile Throwable error;
+        private volatile boolean done;
+
+        ChangeSubscription(Flow.Subscriber<? super CrimeChangeEvent> subscriber, long next) {
+            this.subscriber = subscriber;
+            this.next = next;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Request must be positive"));
+                return;
+            }
+            requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Makes the next drain deliver {@code failure} instead of further events.
+         */
+        void fail(Throwable failure) {
+            if (error == null) {
+                error = failure;
+            }
+            drain();
+        }
+
+        void drain() {
+            if (done || work.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                executor.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                cancel();
+            }
+        }
+
+        private void run() {
+            int missed = 1;
+            do {
+                long demand = requested.get();
+                long delivered = 0;
+                while (!done) {
+                    if (error != null) {
+                        cancel();
+                        subscriber.onError(error);
+                        break;
+                    }
+                    if (delivered == demand) {
+                        break;
+                    }
+                    CrimeChangeEvent event = ring.get((int) next & mask);
+                    if (event == null || event.getSequence() < next) {
+                        break;
+                    }
+                    if (event.getSequence() > next) {
+                        error = new MissedChangesException(next);
+                        continue;
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (RuntimeException e) {
+                        error = e;
+                        continue;
+                    }
+                    next++;
+                    delivered++;
+                }
+                if (delivered > 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-delivered);
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
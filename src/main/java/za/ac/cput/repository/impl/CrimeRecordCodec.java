@@ -0,0 +1,211 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.CrimeQuery;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Predicate;
+
+/**
+ * Binary encoding of a {@link Crime} shared by the on-disk and off-heap stores.
+ * Strings are written as an int byte length followed by UTF-8 bytes, the report time as
+ * epoch seconds (UTC) plus nanos, and the crime type as its ordinal. A crime without a
+ * report time is written with nanos of -1, which no real time has.
+ */
+final class CrimeRecordCodec {
+
+    static final int ID = 0;
+    static final int DESCRIPTION = 1;
+    static final int LOCATION = 2;
+    static final int REPORTER_ID = 3;
+    private static final int STRING_FIELDS = 4;
+    private static final int NO_REPORT_TIME = -1;
+
+    private static final CrimeType[] CRIME_TYPES = CrimeType.values();
+
+    private CrimeRecordCodec() {
+    }
+
+    static int encodedSize(Crime crime) {
+        return 4 * Integer.BYTES + Long.BYTES + Integer.BYTES + 2
+                + utf8Length(crime.getId())
+                + utf8Length(crime.getDescription())
+                + utf8Length(crime.getLocation())
+                + utf8Length(crime.getReporterId());
+    }
+
+    static void encode(Crime crime, ByteBuffer buffer) {
+        putString(buffer, crime.getId());
+        putString(buffer, crime.getDescription());
+        putString(buffer, crime.getLocation());
+        putString(buffer, crime.getReporterId());
+        LocalDateTime reportedAt = crime.getReportedAt();
+        if (reportedAt == null) {
+            buffer.putLong(0);
+            buffer.putInt(NO_REPORT_TIME);
+        } else {
+            buffer.putLong(reportedAt.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(reportedAt.getNano());
+        }
+        buffer.put((byte) crime.getCrimeType().ordinal());
+        buffer.put((byte) (crime.isResolved() ? 1 : 0));
+    }
+
+    static Crime decode(ByteBuffer buffer) {
+        String id = getString(buffer);
+        String description = getString(buffer);
+        String location = getString(buffer);
+        String reporterId = getString(buffer);
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        CrimeType crimeType = CRIME_TYPES[buffer.get()];
+        boolean resolved = buffer.get() != 0;
+        return new Crime.Builder()
+                .withId(id)
+                .withDescription(description)
+                .withLocation(location)
+                .withReportedAt(reportedAt(epochSecond, nano))
+                .withCrimeType(crimeType)
+                .withReporterId(reporterId)
+                .isResolved(resolved)
+                .build();
+    }
+
+    /**
+     * Reads the crime type of the record starting at the buffer's position without
+     * decoding its strings or moving the position.
+     */
+    static CrimeType peekCrimeType(ByteBuffer record) {
+        return CRIME_TYPES[record.get(fieldOffset(record, STRING_FIELDS) + Long.BYTES + Integer.BYTES)];
+    }
+
+    static boolean peekResolved(ByteBuffer record) {
+        return record.get(fieldOffset(record, STRING_FIELDS) + Long.BYTES + Integer.BYTES + 1) != 0;
+    }
+
+    /**
+     * Overwrites the resolution status of the record in place; every other byte stays put.
+     */
+    static void putResolved(ByteBuffer record, boolean resolved) {
+        record.put(fieldOffset(record, STRING_FIELDS) + Long.BYTES + Integer.BYTES + 1, (byte) (resolved ? 1 : 0));
+    }
+
+    /**
+     * Returns the report time of the record, or null if the crime has none.
+     */
+    static LocalDateTime peekReportedAt(ByteBuffer record) {
+        int offset = fieldOffset(record, STRING_FIELDS);
+        return reportedAt(record.getLong(offset), record.getInt(offset + Long.BYTES));
+    }
+
+    private static LocalDateTime reportedAt(long epochSecond, int nano) {
+        return nano == NO_REPORT_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns a record test equivalent to {@link CrimeQuery#matches}. Fixed-width fields
+     * are checked before any string is read.
+     */
+    static Predicate<ByteBuffer> matcher(CrimeQuery query) {
+        CrimeType crimeType = query.getCrimeType();
+        Boolean resolutionStatus = query.getResolutionStatus();
+        LocalDateTime from = query.getReportedFrom();
+        LocalDateTime to = query.getReportedTo();
+        byte[] reporterId = query.getReporterId() == null ? null : query.getReporterId().getBytes(StandardCharsets.UTF_8);
+        String location = query.getLocation() == null ? null : query.getLocation().toLowerCase();
+        return record -> {
+            if (crimeType != null && peekCrimeType(record) != crimeType) {
+                return false;
+            }
+            if (resolutionStatus != null && peekResolved(record) != resolutionStatus) {
+                return false;
+            }
+            if (from != null) {
+                LocalDateTime reportedAt = peekReportedAt(record);
+                if (reportedAt == null || reportedAt.isBefore(from) || reportedAt.isAfter(to)) {
+                    return false;
+                }
+            }
+            if (reporterId != null && !peekStringEquals(record, REPORTER_ID, reporterId)) {
+                return false;
+            }
+            return location == null || peekString(record, LOCATION).toLowerCase().contains(location);
+        };
+    }
+
+    static String peekString(ByteBuffer record, int field) {
+        ByteBuffer view = record.duplicate();
+        view.position(fieldOffset(record, field));
+        return getString(view);
+    }
+
+    static boolean peekStringEquals(ByteBuffer record, int field, byte[] utf8) {
+        int offset = fieldOffset(record, field);
+        if (record.getInt(offset) != utf8.length) {
+            return false;
+        }
+        offset += Integer.BYTES;
+        for (int i = 0; i < utf8.length; i++) {
+            if (record.get(offset + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int fieldOffset(ByteBuffer record, int field) {
+        int offset = record.position();
+        for (int i = 0; i < field; i++) {
+            offset += Integer.BYTES + record.getInt(offset);
+        }
+        return offset;
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are encoded as a single '?' by String.getBytes
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += 1;
+                }
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
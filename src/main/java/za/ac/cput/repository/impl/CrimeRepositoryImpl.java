@@ -2,29 +2,114 @@ package za.ac.cput.repository.impl;
 
 import za.ac.cput.domain.Crime;
 import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeChangeFeed;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeGrouping;
+import za.ac.cput.repository.CrimeHotspots;
 import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.CrimeStatistics;
+import za.ac.cput.repository.Page;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class CrimeRepositoryImpl implements CrimeRepository {
     
-    private static CrimeRepositoryImpl repository = null;
-    private List<Crime> crimeList = new ArrayList<Crime>();
+    private enum AccessPath {
+        SCAN, CRIME_TYPE, RESOLUTION_STATUS, REPORTER_ID, REPORTED_AT, BITMAP_INTERSECTION
+    }
+    
+    private static final class QueryPlan {
+        final AccessPath accessPath;
+        final int estimate;
+        
+        QueryPlan(AccessPath accessPath, int estimate) {
+            this.accessPath = accessPath;
+            this.estimate = estimate;
+        }
+        
+        @Override
+        public String toString() {
+            return accessPath + " (" + estimate + " candidates)";
+        }
+    }
+    
+    private static final int STREAM_BATCH_SIZE = 256;
+    private static final CrimeRepositoryImpl repository = new CrimeRepositoryImpl();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Slots in creation order; a deleted crime leaves a null until the next compaction
+    private final List<Crime> crimeList = new ArrayList<Crime>();
+    private int deletedSlots;
+    // Mirrors crimeList; a version of it is published after every write for lock-free readers
+    private final PersistentVector.Transient<Crime> versions = new PersistentVector.Transient<Crime>();
+    private volatile PersistentVector<Crime> published = versions.persistent();
+    private final Map<String, Integer> slotById = new HashMap<String, Integer>();
+    private final Map<CrimeType, BitSet> typeIndex = new EnumMap<CrimeType, BitSet>(CrimeType.class);
+    private final StringInterner locations = new StringInterner();
+    private final StringInterner reporters = new StringInterner();
+    // Reporter slots by reporter code, and the reporter code of every slot
+    private final List<SlotList> reporterIndex = new ArrayList<SlotList>();
+    private final SlotList.Positions reporterPositions = new SlotList.Positions();
+    private int[] reporterCodes = new int[16];
+    private final BitSet resolvedIndex = new BitSet();
+    private final BitSet unresolvedIndex = new BitSet();
+    private final LocationIndex locationIndex = new LocationIndex();
+    private final NavigableMap<LocalDateTime, SlotList> reportedAtIndex = new TreeMap<LocalDateTime, SlotList>();
+    private final SlotList.Positions reportedAtPositions = new SlotList.Positions();
+    // Slots of crimes without a report time, which page after every timed one
+    private final SlotList untimedSlots = new SlotList();
+    private final CrimeAggregates aggregates = new CrimeAggregates();
+    private final RollingCrimeCounters hotspots = new RollingCrimeCounters(Clock.systemDefaultZone());
+    private final CrimeChangeLog changes = new CrimeChangeLog(CrimeChangeLog.DEFAULT_CAPACITY, ForkJoinPool.commonPool());
+    private DescriptionIndex descriptionIndex = new DescriptionIndex(true);
+    private final ParallelScanner scanner = new ParallelScanner(ForkJoinPool.commonPool(), ParallelScanner.DEFAULT_THRESHOLD);
     
     private CrimeRepositoryImpl() {
+        for (CrimeType crimeType : CrimeType.values()) {
+            typeIndex.put(crimeType, new BitSet());
+        }
     }
     
     public static CrimeRepositoryImpl getRepository() {
-        if (repository == null) {
-            repository = new CrimeRepositoryImpl();
-        }
         return repository;
     }
     
     // Method for testing purposes
     public void clearRepository() {
-        crimeList.clear();
+        lock.writeLock().lock();
+        try {
+            crimeList.clear();
+            deletedSlots = 0;
+            versions.clear();
+            slotById.clear();
+            for (BitSet slots : typeIndex.values()) {
+                slots.clear();
+            }
+            reporterIndex.clear();
+            locations.clear();
+            reporters.clear();
+            resolvedIndex.clear();
+            unresolvedIndex.clear();
+            locationIndex.clear();
+            reportedAtIndex.clear();
+            untimedSlots.clear();
+            aggregates.clear();
+            descriptionIndex.clear();
+            hotspots.clear();
+        } finally {
+            publishAndUnlock();
+        }
     }
     
     @Override
@@ -33,14 +118,15 @@ public class CrimeRepositoryImpl implements CrimeRepository {
             throw new IllegalArgumentException("Crime cannot be null");
         }
         
-        for (Crime c : crimeList) {
-            if (c.getId().equals(crime.getId())) {
+        lock.writeLock().lock();
+        try {
+            if (slotById.containsKey(crime.getId())) {
                 throw new IllegalArgumentException("Crime with ID " + crime.getId() + " already exists");
             }
+            return insert(crime);
+        } finally {
+            publishAndUnlock();
         }
-        
-        this.crimeList.add(crime);
-        return crime;
     }
     
     @Override
@@ -49,15 +135,23 @@ public class CrimeRepositoryImpl implements CrimeRepository {
             throw new IllegalArgumentException("ID cannot be null or empty");
         }
         
-        for (Crime c : crimeList) {
-            if (c.getId().equals(id)) return Optional.of(c);
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot == null ? Optional.<Crime>empty() : Optional.of(crimeList.get(slot));
+        } finally {
+            lock.readLock().unlock();
         }
-        return Optional.empty();
     }
     
+    /**
+     * Returns an immutable point-in-time view of every crime in O(1), without locking.
+     * Writes made afterwards never show through, so the view can be iterated while other
+     * threads keep writing.
+     */
     @Override
     public List<Crime> readAll() {
-        return this.crimeList;
+        return published.live();
     }
     
     @Override
@@ -66,13 +160,16 @@ public class CrimeRepositoryImpl implements CrimeRepository {
             throw new IllegalArgumentException("Crime cannot be null");
         }
         
-        Crime toUpdate = read(crime.getId()).orElse(null);
-        if (toUpdate != null) {
-            crimeList.remove(toUpdate);
-            crimeList.add(crime);
-            return crime;
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(crime.getId());
+            if (slot == null) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " does not exist");
+            }
+            return replace(slot, crime);
+        } finally {
+            publishAndUnlock();
         }
-        throw new IllegalArgumentException("Crime with ID " + crime.getId() + " does not exist");
     }
     
     @Override
@@ -81,12 +178,100 @@ public class CrimeRepositoryImpl implements CrimeRepository {
             throw new IllegalArgumentException("ID cannot be null or empty");
         }
         
-        Crime crime = read(id).orElse(null);
-        if (crime != null) {
-            crimeList.remove(crime);
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            if (slot == null) {
+                return false;
+            }
+            remove(slot);
+            return true;
+        } finally {
+            publishAndUnlock();
+        }
+    }
+    
+    @Override
+    public BatchResult<String> createAll(Collection<Crime> crimes) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateCreates(crimes, slotById::containsKey);
+            if (!result.hasFailures()) {
+                for (Crime crime : crimes) {
+                    insert(crime);
+                }
+            }
+            return result.build();
+        } finally {
+            publishAndUnlock();
+        }
+    }
+    
+    @Override
+    public BatchResult<String> updateAll(Collection<Crime> crimes) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateUpdates(crimes, slotById::containsKey);
+            if (!result.hasFailures()) {
+                for (Crime crime : crimes) {
+                    replace(slotById.get(crime.getId()), crime);
+                }
+            }
+            return result.build();
+        } finally {
+            publishAndUnlock();
+        }
+    }
+    
+    @Override
+    public BatchResult<String> deleteAll(Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, slotById::containsKey);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    remove(slotById.get(id));
+                }
+            }
+            return result.build();
+        } finally {
+            publishAndUnlock();
+        }
+    }
+    
+    @Override
+    public boolean markResolved(String id, boolean isResolved) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+        
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            if (slot == null) {
+                return false;
+            }
+            setResolved(slot, isResolved);
             return true;
+        } finally {
+            publishAndUnlock();
+        }
+    }
+    
+    @Override
+    public BatchResult<String> markAllResolved(Collection<String> ids, boolean isResolved) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, slotById::containsKey);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    setResolved(slotById.get(id), isResolved);
+                }
+            }
+            return result.build();
+        } finally {
+            publishAndUnlock();
         }
-        return false;
     }
     
     @Override
@@ -95,11 +280,12 @@ public class CrimeRepositoryImpl implements CrimeRepository {
             throw new IllegalArgumentException("Crime type cannot be null");
         }
         
-        List<Crime> crimesOfType = new ArrayList<Crime>();
-        for (Crime c : crimeList) {
-            if (c.getCrimeType() == crimeType) crimesOfType.add(c);
+        lock.readLock().lock();
+        try {
+            return crimesAt(typeIndex.get(crimeType));
+        } finally {
+            lock.readLock().unlock();
         }
-        return crimesOfType;
     }
     
     @Override
@@ -108,11 +294,12 @@ public class CrimeRepositoryImpl implements CrimeRepository {
             throw new IllegalArgumentException("Location cannot be null or empty");
         }
         
-        List<Crime> crimesAtLocation = new ArrayList<Crime>();
-        for (Crime c : crimeList) {
-            if (c.getLocation().toLowerCase().contains(location.toLowerCase())) crimesAtLocation.add(c);
+        lock.readLock().lock();
+        try {
+            return crimesAt(locationIndex.search(location));
+        } finally {
+            lock.readLock().unlock();
         }
-        return crimesAtLocation;
     }
     
     @Override
@@ -121,19 +308,702 @@ public class CrimeRepositoryImpl implements CrimeRepository {
             throw new IllegalArgumentException("Reporter ID cannot be null or empty");
         }
         
-        List<Crime> crimesByReporter = new ArrayList<Crime>();
-        for (Crime c : crimeList) {
-            if (c.getReporterId().equals(reporterId)) crimesByReporter.add(c);
+        lock.readLock().lock();
+        try {
+            SlotList slots = reporterSlots(reporterId);
+            if (slots == null) {
+                return new ArrayList<Crime>();
+            }
+            List<Crime> crimesByReporter = new ArrayList<Crime>(slots.size());
+            for (int slot : slots.sorted()) {
+                crimesByReporter.add(crimeList.get(slot));
+            }
+            return crimesByReporter;
+        } finally {
+            lock.readLock().unlock();
         }
-        return crimesByReporter;
     }
     
     @Override
     public List<Crime> findByResolutionStatus(boolean isResolved) {
-        List<Crime> crimesByStatus = new ArrayList<Crime>();
-        for (Crime c : crimeList) {
-            if (c.isResolved() == isResolved) crimesByStatus.add(c);
+        lock.readLock().lock();
+        try {
+            return crimesAt(isResolved ? resolvedIndex : unresolvedIndex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, false);
+    }
+    
+    @Override
+    public List<Crime> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, true);
+    }
+    
+    private List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to, boolean newestFirst) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Time range cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Time range start cannot be after its end");
+        }
+        
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDateTime, SlotList> range = reportedAtIndex.subMap(from, true, to, true);
+            if (newestFirst) {
+                range = range.descendingMap();
+            }
+            List<Crime> crimesInRange = new ArrayList<Crime>();
+            for (SlotList slotList : range.values()) {
+                // Crimes reported at the same time keep creation order, reversed for newest first
+                int[] slots = slotList.sorted();
+                for (int i = 0; i < slots.length; i++) {
+                    crimesInRange.add(crimeList.get(slots[newestFirst ? slots.length - 1 - i : i]));
+                }
+            }
+            return crimesInRange;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Sets the store size from which full scans are split across the common
+     * {@link ForkJoinPool}; smaller stores are scanned on the calling thread.
+     */
+    public void setParallelScanThreshold(int threshold) {
+        scanner.setThreshold(threshold);
+    }
+    
+    /**
+     * Turns English stemming of descriptions on or off, reindexing every description.
+     */
+    public void setDescriptionStemming(boolean stemming) {
+        lock.writeLock().lock();
+        try {
+            if (descriptionIndex.isStemming() != stemming) {
+                descriptionIndex = new DescriptionIndex(stemming);
+                for (Crime crime : crimeList) {
+                    if (crime != null) {
+                        descriptionIndex.put(crime.getId(), crime.getDescription());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<Crime> searchDescriptions(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be null or empty");
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<Crime> matches = new ArrayList<Crime>();
+            for (String id : descriptionIndex.search(query)) {
+                matches.add(crimeList.get(slotById.get(id)));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Scans every crime, in parallel once the store reaches the parallel scan threshold.
+     * Matches are returned in the same order as {@link #readAll()}. The scan runs over the
+     * latest published version, so it never blocks writers.
+     */
+    @Override
+    public List<Crime> findMatching(Predicate<? super Crime> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        
+        return scanner.filter(published, crime -> crime != null && predicate.test(crime));
+    }
+    
+    @Override
+    public List<Crime> find(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        
+        lock.readLock().lock();
+        try {
+            return execute(query, plan(query));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Streams matches in page order, fetching them in keyset batches so the read lock is
+     * only held while each batch is found.
+     * Like the concurrent collections, the stream is weakly consistent: it never repeats a
+     * crime, but may miss changes made after traversal passes their position.
+     */
+    @Override
+    public Stream<Crime> stream(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new BatchIterator(query),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    @Override
+    public CrimeHotspots hotspots() {
+        return hotspots;
+    }
+    
+    @Override
+    public CrimeChangeFeed changes() {
+        return changes;
+    }
+
+    @Override
+    public CrimeStatistics statistics() {
+        return aggregates;
+    }
+    
+    @Override
+    public <K> Map<K, CrimeRollup> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        
+        CrimeGrouping<K> grouping = new CrimeGrouping<K>(key);
+        lock.readLock().lock();
+        try {
+            execute(query, plan(query), grouping);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return grouping.toMap();
+    }
+    
+    @Override
+    public Page<Crime> findPage(CrimeQuery query, int limit, String continuationToken) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        
+        PageSelector selector = new PageSelector(limit, continuationToken);
+        lock.readLock().lock();
+        try {
+            return PageSelector.page(pageAfter(query, selector), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Publishes the version left by the write, then releases the write lock.
+     */
+    private void publishAndUnlock() {
+        published = versions.persistent();
+        lock.writeLock().unlock();
+    }
+    
+    // Method for testing purposes
+    String explain(CrimeQuery query) {
+        lock.readLock().lock();
+        try {
+            return plan(query).toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Method for testing purposes
+    int internedStringCount() {
+        lock.readLock().lock();
+        try {
+            return locations.size() + reporters.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Picks the access path with the fewest candidate slots. A candidate list is walked
+     * slot by slot, checking the other criteria on each crime; once it would visit more
+     * slots than intersecting the bitmap indexes word by word, the bitmaps are ANDed instead.
+     */
+    private QueryPlan plan(CrimeQuery query) {
+        AccessPath best = AccessPath.SCAN;
+        int bestEstimate = slotById.size();
+        int criteria = 0;
+        int bitmaps = 0;
+        
+        if (query.getReporterId() != null) {
+            criteria++;
+            SlotList slots = reporterSlots(query.getReporterId());
+            int estimate = slots == null ? 0 : slots.size();
+            if (estimate < bestEstimate) {
+                best = AccessPath.REPORTER_ID;
+                bestEstimate = estimate;
+            }
+        }
+        if (query.getCrimeType() != null) {
+            criteria++;
+            bitmaps++;
+            int estimate = typeIndex.get(query.getCrimeType()).cardinality();
+            if (estimate < bestEstimate) {
+                best = AccessPath.CRIME_TYPE;
+                bestEstimate = estimate;
+            }
+        }
+        if (query.getResolutionStatus() != null) {
+            criteria++;
+            bitmaps++;
+            int estimate = (query.getResolutionStatus() ? resolvedIndex : unresolvedIndex).cardinality();
+            if (estimate < bestEstimate) {
+                best = AccessPath.RESOLUTION_STATUS;
+                bestEstimate = estimate;
+            }
+        }
+        if (query.hasTimeRange()) {
+            criteria++;
+            // Counting stops as soon as the range cannot beat the best path so far
+            int estimate = 0;
+            for (SlotList slots : reportedAtRange(query).values()) {
+                estimate += slots.size();
+                if (estimate >= bestEstimate) {
+                    break;
+                }
+            }
+            if (estimate < bestEstimate) {
+                best = AccessPath.REPORTED_AT;
+                bestEstimate = estimate;
+            }
+        }
+        if (query.getLocation() != null) {
+            criteria++;
+            bitmaps++;
+        }
+        
+        if (query.getLocation() != null && best == AccessPath.SCAN) {
+            return new QueryPlan(AccessPath.BITMAP_INTERSECTION, bestEstimate);
+        }
+        long walkCost = (long) bestEstimate * (criteria - 1);
+        long intersectCost = (long) bitmaps * (crimeList.size() / Long.SIZE + 1);
+        if (bitmaps > 1 && walkCost > intersectCost) {
+            return new QueryPlan(AccessPath.BITMAP_INTERSECTION, bestEstimate);
+        }
+        return new QueryPlan(best, bestEstimate);
+    }
+    
+    private List<Crime> execute(CrimeQuery query, QueryPlan plan) {
+        if (plan.accessPath == AccessPath.SCAN) {
+            return scanner.filter(crimeList, crime -> crime != null && query.matches(crime));
+        }
+        List<Crime> crimes = new ArrayList<Crime>(Math.min(plan.estimate, 1024));
+        execute(query, plan, crimes::add);
+        return crimes;
+    }
+    
+    /**
+     * Feeds every match to {@code crimes} as the plan finds it, so callers that only
+     * aggregate never collect the matches.
+     */
+    private void execute(CrimeQuery query, QueryPlan plan, Consumer<? super Crime> crimes) {
+        switch (plan.accessPath) {
+            case REPORTER_ID:
+                SlotList reporterSlots = reporterSlots(query.getReporterId());
+                if (reporterSlots != null) {
+                    for (int slot : reporterSlots.sorted()) {
+                        addIfMatches(query, crimeList.get(slot), crimes);
+                    }
+                }
+                break;
+            case REPORTED_AT:
+                for (SlotList slots : reportedAtRange(query).values()) {
+                    for (int slot : slots.sorted()) {
+                        addIfMatches(query, crimeList.get(slot), crimes);
+                    }
+                }
+                break;
+            case CRIME_TYPE:
+                addMatches(query, typeIndex.get(query.getCrimeType()), crimes);
+                break;
+            case RESOLUTION_STATUS:
+                addMatches(query, query.getResolutionStatus() ? resolvedIndex : unresolvedIndex, crimes);
+                break;
+            case BITMAP_INTERSECTION:
+                BitSet slots = intersectBitmaps(query);
+                int reporter = query.getReporterId() == null ? -1 : reporters.codeOf(query.getReporterId());
+                for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                    Crime crime = crimeList.get(slot);
+                    // Type, status and location are already satisfied by the intersection
+                    LocalDateTime reportedAt = crime.getReportedAt();
+                    if ((query.getReporterId() == null || reporterCodes[slot] == reporter)
+                            && (!query.hasTimeRange() || (reportedAt != null
+                            && !reportedAt.isBefore(query.getReportedFrom()) && !reportedAt.isAfter(query.getReportedTo())))) {
+                        crimes.accept(crime);
+                    }
+                }
+                break;
+            default:
+                for (Crime crime : crimeList) {
+                    if (crime != null) {
+                        addIfMatches(query, crime, crimes);
+                    }
+                }
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit + 1} matches after the selector's cursor, in page order.
+     * A selective plan is executed and its few matches ordered; otherwise the time index
+     * is walked from the cursor, then the crimes without a report time, stopping as soon
+     * as the page is full. Walking visits about {@code limit * size / matches} slots,
+     * executing about {@code matches}.
+     */
+    private List<Crime> pageAfter(CrimeQuery query, PageSelector selector) {
+        QueryPlan plan = plan(query);
+        if ((long) plan.estimate * plan.estimate <= (long) selector.limit() * slotById.size()) {
+            for (Crime crime : execute(query, plan)) {
+                selector.offerIfAccepted(crime);
+            }
+            return selector.selected();
+        }
+        
+        LocalDateTime from = query.hasTimeRange() ? query.getReportedFrom() : null;
+        LocalDateTime to = query.hasTimeRange() ? query.getReportedTo() : null;
+        if (selector.afterTime() != null && (from == null || selector.afterTime().isAfter(from))) {
+            from = selector.afterTime();
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return new ArrayList<Crime>();
+        }
+        NavigableMap<LocalDateTime, SlotList> range = from == null ? reportedAtIndex : reportedAtIndex.tailMap(from, true);
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+        if (selector.isPastTimed()) {
+            range = Collections.<LocalDateTime, SlotList>emptyNavigableMap();
+        }
+        
+        int wanted = selector.limit() + 1;
+        List<Crime> items = new ArrayList<Crime>(Math.min(wanted, 1024));
+        for (SlotList slots : range.values()) {
+            int start = items.size();
+            for (int i = 0; i < slots.size(); i++) {
+                Crime crime = crimeList.get(slots.get(i));
+                if (query.matches(crime) && selector.isAfterCursor(crime.getReportedAt(), crime.getId())) {
+                    items.add(crime);
+                }
+            }
+            if (items.size() - start > 1) {
+                items.subList(start, items.size()).sort(PageSelector.ORDER);
+            }
+            if (items.size() >= wanted) {
+                return new ArrayList<Crime>(items.subList(0, wanted));
+            }
+        }
+        
+        // No crime without a report time falls in a time range
+        if (!query.hasTimeRange()) {
+            int start = items.size();
+            for (int i = 0; i < untimedSlots.size(); i++) {
+                Crime crime = crimeList.get(untimedSlots.get(i));
+                if (query.matches(crime) && selector.isAfterCursor(null, crime.getId())) {
+                    items.add(crime);
+                }
+            }
+            items.subList(start, items.size()).sort(PageSelector.ORDER);
+            if (items.size() > wanted) {
+                return new ArrayList<Crime>(items.subList(0, wanted));
+            }
+        }
+        return items;
+    }
+    
+    private BitSet intersectBitmaps(CrimeQuery query) {
+        List<BitSet> bitmaps = new ArrayList<BitSet>(3);
+        if (query.getCrimeType() != null) {
+            bitmaps.add(typeIndex.get(query.getCrimeType()));
+        }
+        if (query.getResolutionStatus() != null) {
+            bitmaps.add(query.getResolutionStatus() ? resolvedIndex : unresolvedIndex);
+        }
+        if (query.getLocation() != null) {
+            bitmaps.add(locationIndex.search(query.getLocation()));
+        }
+        bitmaps.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        
+        BitSet result = (BitSet) bitmaps.get(0).clone();
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result.and(bitmaps.get(i));
+        }
+        return result;
+    }
+    
+    private SlotList reporterSlots(String reporterId) {
+        int reporter = reporters.codeOf(reporterId);
+        return reporter < 0 ? null : reporterIndex.get(reporter);
+    }
+    
+    private NavigableMap<LocalDateTime, SlotList> reportedAtRange(CrimeQuery query) {
+        return reportedAtIndex.subMap(query.getReportedFrom(), true, query.getReportedTo(), true);
+    }
+    
+    private void addMatches(CrimeQuery query, BitSet slots, Consumer<? super Crime> crimes) {
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            addIfMatches(query, crimeList.get(slot), crimes);
+        }
+    }
+    
+    private static void addIfMatches(CrimeQuery query, Crime crime, Consumer<? super Crime> crimes) {
+        if (query.matches(crime)) {
+            crimes.accept(crime);
+        }
+    }
+    
+    private List<Crime> crimesAt(BitSet slots) {
+        List<Crime> crimes = new ArrayList<Crime>(slots.cardinality());
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            crimes.add(crimeList.get(slot));
+        }
+        return crimes;
+    }
+    
+    private Crime insert(Crime crime) {
+        int slot = crimeList.size();
+        crime = intern(crime, slot);
+        crimeList.add(crime);
+        versions.add(crime);
+        slotById.put(crime.getId(), slot);
+        index(crime, slot);
+        aggregates.add(crime);
+        hotspots.record(crime);
+        descriptionIndex.put(crime.getId(), crime.getDescription());
+        changes.created(crime);
+        return crime;
+    }
+    
+    private Crime replace(int slot, Crime crime) {
+        Crime replaced = crimeList.get(slot);
+        unindex(replaced, slot);
+        // Released only after interning, so values the crimes share are never evicted
+        int replacedReporter = reporterCodes[slot];
+        crime = intern(crime, slot);
+        release(replaced.getLocation(), replacedReporter);
+        crimeList.set(slot, crime);
+        versions.set(slot, crime);
+        index(crime, slot);
+        aggregates.remove(replaced);
+        aggregates.add(crime);
+        descriptionIndex.put(crime.getId(), crime.getDescription());
+        changes.updated(crime);
+        return crime;
+    }
+    
+    /**
+     * Leaves a null in the freed slot, so no other crime moves and creation order holds.
+     * Once most slots are free they are compacted away, which costs O(1) amortized per delete.
+     */
+    private void remove(int slot) {
+        Crime removed = crimeList.get(slot);
+        slotById.remove(removed.getId());
+        unindex(removed, slot);
+        release(removed.getLocation(), reporterCodes[slot]);
+        aggregates.remove(removed);
+        descriptionIndex.remove(removed.getId());
+        crimeList.set(slot, null);
+        versions.set(slot, null);
+        deletedSlots++;
+        if (deletedSlots * 2 > crimeList.size()) {
+            compact();
+        }
+        changes.deleted(removed);
+    }
+    
+    /**
+     * Renumbers the remaining crimes into dense slots in creation order and rebuilds the
+     * slot-keyed indexes. Interned strings and aggregates are keyed by value, so they stay.
+     */
+    private void compact() {
+        List<Crime> crimes = new ArrayList<Crime>(slotById.size());
+        int[] codes = new int[Math.max(16, slotById.size())];
+        for (int slot = 0; slot < crimeList.size(); slot++) {
+            Crime crime = crimeList.get(slot);
+            if (crime != null) {
+                codes[crimes.size()] = reporterCodes[slot];
+                crimes.add(crime);
+            }
+        }
+        crimeList.clear();
+        versions.clear();
+        deletedSlots = 0;
+        reporterCodes = codes;
+        for (BitSet slots : typeIndex.values()) {
+            slots.clear();
+        }
+        reporterIndex.clear();
+        resolvedIndex.clear();
+        unresolvedIndex.clear();
+        locationIndex.clear();
+        reportedAtIndex.clear();
+        untimedSlots.clear();
+        for (Crime crime : crimes) {
+            int slot = crimeList.size();
+            crimeList.add(crime);
+            versions.add(crime);
+            slotById.put(crime.getId(), slot);
+            index(crime, slot);
+        }
+    }
+    
+    /**
+     * Flips a crime between the status bitmaps in place; no other index depends on the
+     * status, so nothing else is unindexed.
+     */
+    private void setResolved(int slot, boolean isResolved) {
+        Crime crime = crimeList.get(slot);
+        if (crime.isResolved() == isResolved) {
+            return;
+        }
+        Crime marked = crime.withResolved(isResolved);
+        crimeList.set(slot, marked);
+        versions.set(slot, marked);
+        (isResolved ? resolvedIndex : unresolvedIndex).set(slot);
+        (isResolved ? unresolvedIndex : resolvedIndex).clear(slot);
+        aggregates.setResolved(crime.getCrimeType(), isResolved);
+        changes.updated(marked);
+    }
+    
+    /**
+     * Interns the location and reporter ID of a crime about to be stored in {@code slot}
+     * and returns it holding the canonical strings. The crime is only copied when it holds
+     * a different instance of a value that is already stored.
+     */
+    private Crime intern(Crime crime, int slot) {
+        if (slot == reporterCodes.length) {
+            reporterCodes = Arrays.copyOf(reporterCodes, slot * 2);
+        }
+        String location = locations.canonical(locations.intern(crime.getLocation()));
+        int reporter = reporters.intern(crime.getReporterId());
+        reporterCodes[slot] = reporter;
+        String reporterId = reporters.canonical(reporter);
+        if (location == crime.getLocation() && reporterId == crime.getReporterId()) {
+            return crime;
+        }
+        return new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(crime.getDescription())
+                .withLocation(location)
+                .withReportedAt(crime.getReportedAt())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(reporterId)
+                .isResolved(crime.isResolved())
+                .build();
+    }
+    
+    private void release(String location, int reporter) {
+        locations.release(locations.codeOf(location));
+        reporters.release(reporter);
+    }
+    
+    private void index(Crime crime, int slot) {
+        typeIndex.get(crime.getCrimeType()).set(slot);
+        int reporter = reporterCodes[slot];
+        while (reporterIndex.size() <= reporter) {
+            reporterIndex.add(null);
+        }
+        SlotList reporterSlots = reporterIndex.get(reporter);
+        if (reporterSlots == null) {
+            reporterSlots = new SlotList();
+            reporterIndex.set(reporter, reporterSlots);
+        }
+        reporterSlots.add(slot, reporterPositions);
+        (crime.isResolved() ? resolvedIndex : unresolvedIndex).set(slot);
+        locationIndex.add(crime.getLocation(), slot);
+        if (crime.getReportedAt() != null) {
+            SlotList timeSlots = reportedAtIndex.get(crime.getReportedAt());
+            if (timeSlots == null) {
+                timeSlots = new SlotList();
+                reportedAtIndex.put(crime.getReportedAt(), timeSlots);
+            }
+            timeSlots.add(slot, reportedAtPositions);
+        } else {
+            untimedSlots.add(slot, reportedAtPositions);
+        }
+    }
+    
+    private void unindex(Crime crime, int slot) {
+        typeIndex.get(crime.getCrimeType()).clear(slot);
+        SlotList reporterSlots = reporterIndex.get(reporterCodes[slot]);
+        reporterSlots.remove(slot, reporterPositions);
+        if (reporterSlots.isEmpty()) {
+            reporterIndex.set(reporterCodes[slot], null);
+        }
+        (crime.isResolved() ? resolvedIndex : unresolvedIndex).clear(slot);
+        locationIndex.remove(crime.getLocation(), slot);
+        if (crime.getReportedAt() != null) {
+            SlotList timeSlots = reportedAtIndex.get(crime.getReportedAt());
+            timeSlots.remove(slot, reportedAtPositions);
+            if (timeSlots.isEmpty()) {
+                reportedAtIndex.remove(crime.getReportedAt());
+            }
+        } else {
+            untimedSlots.remove(slot, reportedAtPositions);
+        }
+    }
+    
+    private final class BatchIterator implements Iterator<Crime> {
+        private final CrimeQuery query;
+        private List<Crime> batch = Collections.emptyList();
+        private int next;
+        private Crime last;
+        private boolean exhausted;
+        
+        BatchIterator(CrimeQuery query) {
+            this.query = query;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (next == batch.size()) {
+                if (exhausted) {
+                    return false;
+                }
+                fetch();
+            }
+            return true;
+        }
+        
+        @Override
+        public Crime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = batch.get(next++);
+            return last;
+        }
+        
+        private void fetch() {
+            List<Crime> items;
+            lock.readLock().lock();
+            try {
+                items = pageAfter(query, new PageSelector(STREAM_BATCH_SIZE, last));
+            } finally {
+                lock.readLock().unlock();
+            }
+            exhausted = items.size() <= STREAM_BATCH_SIZE;
+            batch = exhausted ? items : items.subList(0, STREAM_BATCH_SIZE);
+            next = 0;
         }
-        return crimesByStatus;
     }
 }
@@ -0,0 +1,322 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, memory-mapped crime snapshot.
+ *
+ * <p>File layout (version 1), all integers big-endian:
+ * <pre>
+ * header   int magic, short version, short 0, long count, long recordsEnd,
+ *          long tableOffset, int tableSlots, padded to 64 bytes
+ * records  [int length][CrimeRecordCodec payload], each padded to 4 bytes and never
+ *          crossing a 1 GiB region; a length of 0 pads to the next region
+ * table    tableSlots x [int idHash][int 0][long recordOffset], open addressing,
+ *          linear probing, recordOffset 0 marks an empty slot
+ * </pre>
+ * The file is mapped in 1 GiB regions so snapshots larger than 2 GiB can be served.
+ */
+final class CrimeSnapshotFile {
+
+    static final int MAGIC = 0x4352534E;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_SIZE = 1L << REGION_SHIFT;
+    private static final int TABLE_ENTRY_SIZE = 16;
+
+    private final MappedByteBuffer[] regions;
+    private final long count;
+    private final long recordsEnd;
+    private final long tableOffset;
+    private final int tableMask;
+
+    private CrimeSnapshotFile(MappedByteBuffer[] regions, long count, long recordsEnd, long tableOffset,
+                              int tableSlots) {
+        this.regions = regions;
+        this.count = count;
+        this.recordsEnd = recordsEnd;
+        this.tableOffset = tableOffset;
+        this.tableMask = tableSlots - 1;
+    }
+
+    static CrimeSnapshotFile empty() {
+        return new CrimeSnapshotFile(new MappedByteBuffer[0], 0, HEADER_SIZE, HEADER_SIZE, 0);
+    }
+
+    static CrimeSnapshotFile map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IllegalStateException("Not a crime snapshot: " + file);
+            }
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + REGION_SIZE - 1) >>> REGION_SHIFT)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = (long) i << REGION_SHIFT;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+            }
+
+            ByteBuffer header = regions[0];
+            if (header.getInt(0) != MAGIC) {
+                throw new IllegalStateException("Not a crime snapshot: " + file);
+            }
+            short version = header.getShort(4);
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported crime snapshot version " + version);
+            }
+            long count = header.getLong(8);
+            long recordsEnd = header.getLong(16);
+            long tableOffset = header.getLong(24);
+            int tableSlots = header.getInt(32);
+            if (tableOffset + (long) tableSlots * TABLE_ENTRY_SIZE > size || Integer.bitCount(tableSlots) != 1) {
+                throw new IllegalStateException("Corrupt crime snapshot: " + file);
+            }
+            return new CrimeSnapshotFile(regions, count, recordsEnd, tableOffset, tableSlots);
+        }
+    }
+
+    /**
+     * Opens a writer for {@code target}. Records go to a temporary file that
+     * {@link Writer#finish()} atomically moves into place, so readers never observe a
+     * partially written snapshot.
+     */
+    static Writer writer(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    static final class Writer implements AutoCloseable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        private long position = HEADER_SIZE;
+        private long[] offsets = new long[1024];
+        private int[] hashes = new int[1024];
+        private int count;
+        private boolean finished;
+
+        private Writer(Path target) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            channel.position(HEADER_SIZE);
+        }
+
+        void append(Crime crime) throws IOException {
+            int payloadSize = CrimeRecordCodec.encodedSize(crime);
+            int recordSize = align(Integer.BYTES + payloadSize);
+            if (recordSize > REGION_SIZE - HEADER_SIZE) {
+                throw new IllegalArgumentException("Crime " + crime.getId() + " is too large for a snapshot");
+            }
+            long regionEnd = ((position >>> REGION_SHIFT) + 1) << REGION_SHIFT;
+            if (position + recordSize > regionEnd) {
+                flush();
+                channel.write(ByteBuffer.allocate(Integer.BYTES));
+                channel.position(regionEnd);
+                position = regionEnd;
+            }
+            if (buffer.remaining() < recordSize) {
+                flush();
+                if (buffer.capacity() < recordSize) {
+                    buffer = ByteBuffer.allocateDirect(recordSize);
+                }
+            }
+
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                hashes = Arrays.copyOf(hashes, count * 2);
+            }
+            offsets[count] = position;
+            hashes[count] = hash(crime.getId());
+            count++;
+
+            buffer.putInt(payloadSize);
+            CrimeRecordCodec.encode(crime, buffer);
+            for (int i = Integer.BYTES + payloadSize; i < recordSize; i++) {
+                buffer.put((byte) 0);
+            }
+            position += recordSize;
+        }
+
+        void finish() throws IOException {
+            flush();
+            long recordsEnd = position;
+            long tableOffset = (recordsEnd + TABLE_ENTRY_SIZE - 1) & -TABLE_ENTRY_SIZE;
+            int tableSlots = tableSlots(count);
+            int mask = tableSlots - 1;
+            long[] tableOffsets = new long[tableSlots];
+            int[] tableHashes = new int[tableSlots];
+            for (int i = 0; i < count; i++) {
+                int slot = hashes[i] & mask;
+                while (tableOffsets[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                tableOffsets[slot] = offsets[i];
+                tableHashes[slot] = hashes[i];
+            }
+
+            channel.position(tableOffset);
+            for (int slot = 0; slot < tableSlots; slot++) {
+                if (buffer.remaining() < TABLE_ENTRY_SIZE) {
+                    flush();
+                }
+                buffer.putInt(tableHashes[slot]).putInt(0).putLong(tableOffsets[slot]);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putLong(count).putLong(recordsEnd).putLong(tableOffset).putInt(tableSlots);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    Crime find(String id) {
+        long offset = offsetOf(id);
+        return offset == 0 ? null : CrimeRecordCodec.decode(record(offset));
+    }
+
+    boolean contains(String id) {
+        return offsetOf(id) != 0;
+    }
+
+    /**
+     * Visits every record in file order. The buffer passed to {@code visitor} is
+     * positioned at the start of the record payload and must not be retained.
+     */
+    void forEachRecord(Consumer<ByteBuffer> visitor) {
+        records().forEachRemaining(visitor);
+    }
+
+    /**
+     * Iterates over the records in file order, lazily; see {@link #forEachRecord}.
+     */
+    Iterator<ByteBuffer> records() {
+        return new Iterator<ByteBuffer>() {
+            private long position = HEADER_SIZE;
+
+            @Override
+            public boolean hasNext() {
+                while (position < recordsEnd) {
+                    ByteBuffer region = regions[(int) (position >>> REGION_SHIFT)];
+                    if (region.getInt((int) (position & (REGION_SIZE - 1))) != 0) {
+                        return true;
+                    }
+                    position = ((position >>> REGION_SHIFT) + 1) << REGION_SHIFT;
+                }
+                return false;
+            }
+
+            @Override
+            public ByteBuffer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ByteBuffer region = regions[(int) (position >>> REGION_SHIFT)];
+                int regionPosition = (int) (position & (REGION_SIZE - 1));
+                int length = region.getInt(regionPosition);
+                position += align(Integer.BYTES + length);
+                return slice(region, regionPosition + Integer.BYTES, length);
+            }
+        };
+    }
+
+    private long offsetOf(String id) {
+        if (count == 0) {
+            return 0;
+        }
+        int hash = hash(id);
+        byte[] key = null;
+        int slot = hash & tableMask;
+        while (true) {
+            long entry = tableOffset + (long) slot * TABLE_ENTRY_SIZE;
+            ByteBuffer region = regions[(int) (entry >>> REGION_SHIFT)];
+            int regionPosition = (int) (entry & (REGION_SIZE - 1));
+            long recordOffset = region.getLong(regionPosition + 8);
+            if (recordOffset == 0) {
+                return 0;
+            }
+            if (region.getInt(regionPosition) == hash) {
+                if (key == null) {
+                    key = id.getBytes(StandardCharsets.UTF_8);
+                }
+                if (CrimeRecordCodec.peekStringEquals(record(recordOffset), CrimeRecordCodec.ID, key)) {
+                    return recordOffset;
+                }
+            }
+            slot = (slot + 1) & tableMask;
+        }
+    }
+
+    private ByteBuffer record(long offset) {
+        ByteBuffer region = regions[(int) (offset >>> REGION_SHIFT)];
+        int regionPosition = (int) (offset & (REGION_SIZE - 1));
+        return slice(region, regionPosition + Integer.BYTES, region.getInt(regionPosition));
+    }
+
+    private static ByteBuffer slice(ByteBuffer region, int position, int length) {
+        ByteBuffer record = region.duplicate();
+        record.limit(position + length).position(position);
+        return record;
+    }
+
+    private static int align(int size) {
+        return (size + 3) & -4;
+    }
+
+    private static int tableSlots(int count) {
+        long wanted = Math.max(2, (long) count * 4 / 3 + 1);
+        long slots = Long.highestOneBit(wanted - 1) << 1;
+        if (slots > (1 << 30)) {
+            throw new IllegalArgumentException("Too many crimes for a single snapshot: " + count);
+        }
+        return (int) slots;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,93 @@
+package za.ac.cput.repository.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RowDescriptionIndex} keyed by crime ID, for stores that keep crimes as objects
+ * rather than in numbered rows. Each ID gets an entry number that serves as its row and
+ * is reused once the crime is removed, like term IDs in {@link LocationIndex}. Entries
+ * hold the indexed description, which the stored crime already references, so the row
+ * index can be told what to unindex.
+ *
+ * <p>All methods are synchronized. {@link #put} replaces whatever the index held for the
+ * ID, so a writer may index a crime's latest state without knowing the previous one.
+ */
+final class DescriptionIndex {
+
+    private final RowDescriptionIndex index;
+    private final Map<String, Integer> entries = new HashMap<String, Integer>();
+    private final Deque<Integer> freeEntries = new ArrayDeque<Integer>();
+    private String[] ids = new String[16];
+    private String[] descriptions = new String[16];
+    private int entryCount;
+
+    DescriptionIndex(boolean stemming) {
+        this.index = new RowDescriptionIndex(stemming);
+    }
+
+    boolean isStemming() {
+        return index.isStemming();
+    }
+
+    synchronized void put(String id, String description) {
+        Integer entry = entries.get(id);
+        if (entry == null) {
+            entry = freeEntries.isEmpty() ? newEntry() : freeEntries.pop();
+            entries.put(id, entry);
+            ids[entry] = id;
+        } else if (descriptions[entry].equals(description)) {
+            return;
+        } else {
+            index.remove(entry, descriptions[entry]);
+        }
+        descriptions[entry] = description;
+        index.put(entry, description);
+    }
+
+    synchronized void remove(String id) {
+        Integer entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        index.remove(entry, descriptions[entry]);
+        ids[entry] = null;
+        descriptions[entry] = null;
+        freeEntries.push(entry);
+    }
+
+    synchronized void clear() {
+        index.clear();
+        entries.clear();
+        freeEntries.clear();
+        Arrays.fill(ids, null);
+        Arrays.fill(descriptions, null);
+        entryCount = 0;
+    }
+
+    /**
+     * Returns the IDs of matching descriptions, best match first; equal scores are
+     * ordered by ID.
+     */
+    synchronized List<String> search(String query) {
+        int[] rows = index.search(query, entry -> ids[entry]);
+        List<String> matches = new ArrayList<String>(rows.length);
+        for (int entry : rows) {
+            matches.add(ids[entry]);
+        }
+        return matches;
+    }
+
+    private int newEntry() {
+        if (entryCount == ids.length) {
+            ids = Arrays.copyOf(ids, entryCount * 2);
+            descriptions = Arrays.copyOf(descriptions, entryCount * 2);
+        }
+        return entryCount++;
+    }
+}
@@ -0,0 +1,127 @@
+package za.ac.cput.repository.impl;
+
+/**
+ * Step 1 of the Porter stemmer: folds plurals and the {@code -ed}, {@code -ing} and
+ * {@code -y} endings, so "stolen cars" finds "car" and "breaking" finds "breaks". The
+ * later Porter steps strip derivational suffixes, which hurts precision on short
+ * narratives more than it helps recall. Expects lowercase ASCII input; other words are
+ * returned unchanged.
+ */
+final class EnglishStemmer {
+
+    private EnglishStemmer() {
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 2) {
+            return word;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) < 'a' || word.charAt(i) > 'z') {
+                return word;
+            }
+        }
+        return step1c(step1b(step1a(word)));
+    }
+
+    private static String step1a(String word) {
+        if (word.endsWith("sses") || word.endsWith("ies")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    private static String step1b(String word) {
+        if (word.endsWith("eed")) {
+            return measure(word, word.length() - 3) > 0 ? word.substring(0, word.length() - 1) : word;
+        }
+        String stem;
+        if (word.endsWith("ed") && hasVowel(word, word.length() - 2)) {
+            stem = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("ing") && hasVowel(word, word.length() - 3)) {
+            stem = word.substring(0, word.length() - 3);
+        } else {
+            return word;
+        }
+        if (stem.endsWith("at") || stem.endsWith("bl") || stem.endsWith("iz")) {
+            return stem + "e";
+        }
+        int end = stem.length();
+        char last = stem.charAt(end - 1);
+        if (end >= 2 && last == stem.charAt(end - 2) && isConsonant(stem, end - 1)
+                && last != 'l' && last != 's' && last != 'z') {
+            return stem.substring(0, end - 1);
+        }
+        if (measure(stem, end) == 1 && endsConsonantVowelConsonant(stem)) {
+            return stem + "e";
+        }
+        return stem;
+    }
+
+    private static String step1c(String word) {
+        if (word.endsWith("y") && hasVowel(word, word.length() - 1)) {
+            return word.substring(0, word.length() - 1) + "i";
+        }
+        return word;
+    }
+
+    private static boolean isConsonant(String word, int i) {
+        switch (word.charAt(i)) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+                return false;
+            case 'y':
+                return i == 0 || !isConsonant(word, i - 1);
+            default:
+                return true;
+        }
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if (!isConsonant(word, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the vowel-consonant sequences in the first {@code end} letters, Porter's m.
+     */
+    private static int measure(String word, int end) {
+        int m = 0;
+        int i = 0;
+        while (i < end && isConsonant(word, i)) {
+            i++;
+        }
+        while (i < end) {
+            while (i < end && !isConsonant(word, i)) {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            m++;
+            while (i < end && isConsonant(word, i)) {
+                i++;
+            }
+        }
+        return m;
+    }
+
+    private static boolean endsConsonantVowelConsonant(String word) {
+        int end = word.length();
+        if (end < 3 || !isConsonant(word, end - 1) || isConsonant(word, end - 2) || !isConsonant(word, end - 3)) {
+            return false;
+        }
+        char last = word.charAt(end - 1);
+        return last != 'w' && last != 'x' && last != 'y';
+    }
+}
@@ -0,0 +1,149 @@
+package za.ac.cput.repository.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram inverted index over lowercased crime locations. Each distinct lowercased
+ * location is stored once as a term; trigrams point at terms and terms point at slots.
+ * A substring query intersects the posting lists of its trigrams to get candidate terms
+ * and verifies each candidate with {@link String#contains}, so results match a
+ * case-insensitive {@code contains} scan exactly.
+ */
+class LocationIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Integer> termIds = new HashMap<String, Integer>();
+    private final List<String> terms = new ArrayList<String>();
+    private final List<SlotList> termSlots = new ArrayList<SlotList>();
+    private final SlotList.Positions slotPositions = new SlotList.Positions();
+    private final Deque<Integer> freeTermIds = new ArrayDeque<Integer>();
+    private final Map<Long, PostingList> gramIndex = new HashMap<Long, PostingList>();
+
+    void add(String location, int slot) {
+        String term = location.toLowerCase();
+        Integer termId = termIds.get(term);
+        if (termId == null) {
+            termId = newTerm(term);
+        }
+        termSlots.get(termId).add(slot, slotPositions);
+    }
+
+    void remove(String location, int slot) {
+        String term = location.toLowerCase();
+        Integer termId = termIds.get(term);
+        if (termId == null) {
+            return;
+        }
+        SlotList slots = termSlots.get(termId);
+        slots.remove(slot, slotPositions);
+        if (slots.isEmpty()) {
+            removeTerm(term, termId);
+        }
+    }
+
+    void clear() {
+        termIds.clear();
+        terms.clear();
+        termSlots.clear();
+        freeTermIds.clear();
+        gramIndex.clear();
+    }
+
+    /**
+     * Returns the slots whose location contains {@code query}, ignoring case.
+     */
+    BitSet search(String query) {
+        String needle = query.toLowerCase();
+        BitSet result = new BitSet();
+        if (needle.length() < GRAM_LENGTH) {
+            for (int termId = 0; termId < terms.size(); termId++) {
+                String term = terms.get(termId);
+                if (term != null && term.contains(needle)) {
+                    addSlots(termId, result);
+                }
+            }
+            return result;
+        }
+
+        List<PostingList> lists = new ArrayList<PostingList>();
+        for (int i = 0; i + GRAM_LENGTH <= needle.length(); i++) {
+            PostingList termsWithGram = gramIndex.get(gram(needle, i));
+            if (termsWithGram == null) {
+                return result;
+            }
+            lists.add(termsWithGram);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        PostingList candidates = lists.get(0);
+        for (int i = 0; i < candidates.size(); i++) {
+            int termId = candidates.get(i);
+            if (containsTerm(lists, termId) && terms.get(termId).contains(needle)) {
+                addSlots(termId, result);
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsTerm(List<PostingList> lists, int termId) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(termId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addSlots(int termId, BitSet result) {
+        SlotList slots = termSlots.get(termId);
+        for (int i = 0; i < slots.size(); i++) {
+            result.set(slots.get(i));
+        }
+    }
+
+    private int newTerm(String term) {
+        int termId;
+        if (freeTermIds.isEmpty()) {
+            termId = terms.size();
+            terms.add(term);
+            termSlots.add(new SlotList());
+        } else {
+            termId = freeTermIds.pop();
+            terms.set(termId, term);
+            termSlots.set(termId, new SlotList());
+        }
+        termIds.put(term, termId);
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            gramIndex.computeIfAbsent(gram(term, i), key -> new PostingList()).add(termId);
+        }
+        return termId;
+    }
+
+    private void removeTerm(String term, int termId) {
+        termIds.remove(term);
+        terms.set(termId, null);
+        termSlots.set(termId, null);
+        freeTermIds.push(termId);
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            Long gram = gram(term, i);
+            PostingList termsWithGram = gramIndex.get(gram);
+            if (termsWithGram != null) {
+                termsWithGram.remove(termId);
+                if (termsWithGram.isEmpty()) {
+                    gramIndex.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,861 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeChangeFeed;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeGrouping;
+import za.ac.cput.repository.CrimeHotspots;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.CrimeStatistics;
+import za.ac.cput.repository.Page;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Crime repository that keeps record payloads off-heap so large stores add almost
+ * nothing to the garbage collector's live set. Records are encoded with
+ * {@link CrimeRecordCodec} and appended to direct {@link ByteBuffer} chunks that are
+ * allocated on demand up to a fixed maximum capacity. The heap holds only a primitive
+ * hash table of record handles ({@code chunk << 32 | offset}) and a
+ * {@link RowDescriptionIndex} keyed by its slots.
+ *
+ * <p>Updates append a new record and mark the old one dead; once dead records take up
+ * more than half of the used space the live records are compacted in place.
+ * Batches reserve their space before applying anything, so running out of capacity
+ * never leaves a batch half applied.
+ *
+ * <p>A read-write lock guards the chunks and the handle table, so compaction and table
+ * growth never race a reader.
+ */
+public class OffHeapCrimeRepositoryImpl implements CrimeRepository {
+
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + 1;
+    private static final byte LIVE = 1;
+    private static final byte DEAD = 0;
+    private static final long EMPTY = -1;
+
+    private static final OffHeapCrimeRepositoryImpl repository = new OffHeapCrimeRepositoryImpl(new Builder());
+
+    private final int chunkSize;
+    private final long maxCapacity;
+    private final int initialChunks;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Counts writes, so a stream can tell its position was invalidated between batches
+    private int modCount;
+    private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+    private int writeChunk;
+    private int writeOffset;
+    private long usedBytes;
+    private long deadBytes;
+
+    private long[] handles;
+    private int[] hashes;
+    private int count;
+    private final CrimeAggregates aggregates = new CrimeAggregates();
+    private final RowDescriptionIndex descriptionIndex = new RowDescriptionIndex(true);
+    private final RollingCrimeCounters hotspots = new RollingCrimeCounters(Clock.systemDefaultZone());
+    private final CrimeChangeLog changes = new CrimeChangeLog(CrimeChangeLog.DEFAULT_CAPACITY, ForkJoinPool.commonPool());
+
+    private OffHeapCrimeRepositoryImpl(Builder builder) {
+        this.chunkSize = builder.chunkSize;
+        this.maxCapacity = builder.maxCapacity;
+        this.initialChunks = (int) Math.max(1, (builder.initialCapacity + chunkSize - 1) / chunkSize);
+        reset();
+    }
+
+    public static OffHeapCrimeRepositoryImpl getRepository() {
+        return repository;
+    }
+
+    // Method for testing purposes
+    public void clearRepository() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes of off-heap memory currently allocated for record storage.
+     */
+    public long allocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) chunks.size() * chunkSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Crime create(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        lock.writeLock().lock();
+        try {
+            byte[] id = crime.getId().getBytes(StandardCharsets.UTF_8);
+            int hash = hash(crime.getId());
+            if (find(id, hash) >= 0) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " already exists");
+            }
+            int slot = insert(hash, append(crime));
+            hotspots.record(crime);
+            descriptionIndex.put(slot, crime.getDescription());
+            changes.created(crime);
+            return crime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Crime> read(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            int slot = find(id.getBytes(StandardCharsets.UTF_8), hash(id));
+            return slot < 0 ? Optional.<Crime>empty() : Optional.of(CrimeRecordCodec.decode(payload(handles[slot])));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> readAll() {
+        return scan(record -> true);
+    }
+
+    @Override
+    public Crime update(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int slot = find(crime.getId().getBytes(StandardCharsets.UTF_8), hash(crime.getId()));
+            if (slot < 0) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " does not exist");
+            }
+            replace(slot, crime);
+            changes.updated(crime);
+            return crime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int slot = find(id.getBytes(StandardCharsets.UTF_8), hash(id));
+            if (slot < 0) {
+                return false;
+            }
+            Crime removed = CrimeRecordCodec.decode(payload(handles[slot]));
+            markDead(handles[slot]);
+            descriptionIndex.remove(slot, removed.getDescription());
+            removeSlot(slot);
+            changes.deleted(removed);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the status byte of the stored record in place, so unlike an update it
+     * appends nothing and leaves no dead record behind.
+     */
+    @Override
+    public boolean markResolved(String id, boolean isResolved) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int slot = find(id.getBytes(StandardCharsets.UTF_8), hash(id));
+            if (slot < 0) {
+                return false;
+            }
+            setResolved(handles[slot], isResolved);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> markAllResolved(Collection<String> ids, boolean isResolved) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, this::contains);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    setResolved(handles[find(id.getBytes(StandardCharsets.UTF_8), hash(id))], isResolved);
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> createAll(Collection<Crime> crimes) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateCreates(crimes, this::contains);
+            if (!result.hasFailures()) {
+                reserve(crimes);
+                for (Crime crime : crimes) {
+                    int slot = insert(hash(crime.getId()), append(crime));
+                    hotspots.record(crime);
+                    descriptionIndex.put(slot, crime.getDescription());
+                    changes.created(crime);
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> updateAll(Collection<Crime> crimes) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateUpdates(crimes, this::contains);
+            if (!result.hasFailures()) {
+                reserve(crimes);
+                for (Crime crime : crimes) {
+                    replace(find(crime.getId().getBytes(StandardCharsets.UTF_8), hash(crime.getId())), crime);
+                    changes.updated(crime);
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult<String> deleteAll(Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, this::contains);
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    int slot = find(id.getBytes(StandardCharsets.UTF_8), hash(id));
+                    Crime removed = CrimeRecordCodec.decode(payload(handles[slot]));
+                    markDead(handles[slot]);
+                    descriptionIndex.remove(slot, removed.getDescription());
+                    removeSlot(slot);
+                    changes.deleted(removed);
+                }
+            }
+            return result.build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findByCrimeType(CrimeType crimeType) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+
+        return scan(record -> CrimeRecordCodec.peekCrimeType(record) == crimeType);
+    }
+
+    @Override
+    public List<Crime> findByLocation(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            throw new IllegalArgumentException("Location cannot be null or empty");
+        }
+
+        String query = location.toLowerCase();
+        return scan(record -> CrimeRecordCodec.peekString(record, CrimeRecordCodec.LOCATION).toLowerCase().contains(query));
+    }
+
+    @Override
+    public List<Crime> findByReporterId(String reporterId) {
+        if (reporterId == null || reporterId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Reporter ID cannot be null or empty");
+        }
+
+        byte[] utf8 = reporterId.getBytes(StandardCharsets.UTF_8);
+        return scan(record -> CrimeRecordCodec.peekStringEquals(record, CrimeRecordCodec.REPORTER_ID, utf8));
+    }
+
+    @Override
+    public List<Crime> findByResolutionStatus(boolean isResolved) {
+        return scan(record -> CrimeRecordCodec.peekResolved(record) == isResolved);
+    }
+
+    @Override
+    public List<Crime> searchDescriptions(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be null or empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Crime> matches = new ArrayList<Crime>();
+            for (int slot : descriptionIndex.search(query, slot -> CrimeRecordCodec.peekString(payload(handles[slot]), CrimeRecordCodec.ID))) {
+                matches.add(CrimeRecordCodec.decode(payload(handles[slot])));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findMatching(Predicate<? super Crime> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Crime> matches = new ArrayList<Crime>();
+            for (Iterator<ByteBuffer> records = liveRecords(); records.hasNext(); ) {
+                Crime crime = CrimeRecordCodec.decode(records.next());
+                if (predicate.test(crime)) {
+                    matches.add(crime);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> find(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        return scan(CrimeRecordCodec.matcher(query));
+    }
+
+    /**
+     * Streams matching records lazily, decoding them a batch at a time under the read
+     * lock. A write made while the stream is consumed fails it with a
+     * {@link java.util.ConcurrentModificationException}.
+     */
+    @Override
+    public Stream<Crime> stream(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        Predicate<ByteBuffer> matcher = CrimeRecordCodec.matcher(query);
+        lock.readLock().lock();
+        try {
+            return new BatchedScan<Crime>(lock.readLock(), () -> modCount, modCount, new BatchedScan.Source<Crime>() {
+                private Iterator<ByteBuffer> records;
+
+                @Override
+                public boolean fill(List<Crime> batch, int max) {
+                    if (records == null) {
+                        records = liveRecords();
+                    }
+                    while (batch.size() < max && records.hasNext()) {
+                        ByteBuffer record = records.next();
+                        if (matcher.test(record)) {
+                            batch.add(CrimeRecordCodec.decode(record));
+                        }
+                    }
+                    return records.hasNext();
+                }
+            }).stream();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CrimeHotspots hotspots() {
+        return hotspots;
+    }
+
+    @Override
+    public CrimeChangeFeed changes() {
+        return changes;
+    }
+
+    @Override
+    public CrimeStatistics statistics() {
+        return aggregates;
+    }
+
+    @Override
+    public <K> Map<K, CrimeRollup> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            CrimeGrouping<K> grouping = new CrimeGrouping<K>(key);
+            Predicate<ByteBuffer> matcher = CrimeRecordCodec.matcher(query);
+            for (Iterator<ByteBuffer> records = liveRecords(); records.hasNext(); ) {
+                ByteBuffer record = records.next();
+                if (matcher.test(record)) {
+                    grouping.accept(CrimeRecordCodec.decode(record));
+                }
+            }
+            return grouping.toMap();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Crime> findPage(CrimeQuery query, int limit, String continuationToken) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            PageSelector selector = new PageSelector(limit, continuationToken);
+            Predicate<ByteBuffer> matcher = CrimeRecordCodec.matcher(query);
+            for (Iterator<ByteBuffer> records = liveRecords(); records.hasNext(); ) {
+                ByteBuffer record = records.next();
+                if (matcher.test(record) && selector.accepts(CrimeRecordCodec.peekReportedAt(record),
+                        CrimeRecordCodec.peekString(record, CrimeRecordCodec.ID))) {
+                    selector.offer(CrimeRecordCodec.decode(record));
+                }
+            }
+            return selector.page();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt));
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt).reversed());
+    }
+
+    private List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to, Comparator<Crime> order) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Time range cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Time range start cannot be after its end");
+        }
+
+        List<Crime> crimesInRange = scan(record -> {
+            LocalDateTime reportedAt = CrimeRecordCodec.peekReportedAt(record);
+            return reportedAt != null && !reportedAt.isBefore(from) && !reportedAt.isAfter(to);
+        });
+        crimesInRange.sort(order);
+        return crimesInRange;
+    }
+
+    private List<Crime> scan(Predicate<ByteBuffer> filter) {
+        lock.readLock().lock();
+        try {
+            List<Crime> crimes = new ArrayList<Crime>();
+            for (Iterator<ByteBuffer> records = liveRecords(); records.hasNext(); ) {
+                ByteBuffer record = records.next();
+                if (filter.test(record)) {
+                    crimes.add(CrimeRecordCodec.decode(record));
+                }
+            }
+            return crimes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Iterates lazily over the live records in storage order. Callers hold the read lock
+     * while iterating.
+     */
+    private Iterator<ByteBuffer> liveRecords() {
+        return new Iterator<ByteBuffer>() {
+            private int chunk;
+            private int offset;
+            private ByteBuffer next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ByteBuffer next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ByteBuffer record = next;
+                next = advance();
+                return record;
+            }
+
+            private ByteBuffer advance() {
+                while (chunk <= writeChunk) {
+                    ByteBuffer buffer = chunks.get(chunk);
+                    int end = chunk == writeChunk ? writeOffset : buffer.capacity();
+                    while (offset + RECORD_HEADER_SIZE <= end) {
+                        int length = buffer.getInt(offset);
+                        if (length == 0) {
+                            break;
+                        }
+                        int recordOffset = offset;
+                        offset += RECORD_HEADER_SIZE + length;
+                        if (buffer.get(recordOffset + Integer.BYTES) == LIVE) {
+                            return slice(buffer, recordOffset + RECORD_HEADER_SIZE, length);
+                        }
+                    }
+                    chunk++;
+                    offset = 0;
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Makes sure {@code crimes} can be appended without exhausting capacity, compacting
+     * first if that frees enough room. Every record may waste up to its own size at the
+     * end of a chunk, so the estimate is conservative.
+     */
+    private void reserve(Collection<Crime> crimes) {
+        long needed = 0;
+        for (Crime crime : crimes) {
+            int recordSize = RECORD_HEADER_SIZE + CrimeRecordCodec.encodedSize(crime);
+            if (recordSize > chunkSize) {
+                throw new IllegalArgumentException("Crime " + crime.getId() + " is larger than the off-heap chunk size");
+            }
+            needed += 2L * recordSize;
+        }
+        if (needed > remainingBytes() && deadBytes > 0) {
+            compact();
+        }
+        if (needed > remainingBytes()) {
+            throw new IllegalStateException("Off-heap capacity of " + maxCapacity + " bytes exhausted");
+        }
+    }
+
+    private long remainingBytes() {
+        long allocatable = (maxCapacity / chunkSize - writeChunk - 1) * chunkSize;
+        return allocatable + chunkSize - writeOffset;
+    }
+
+    private boolean contains(String id) {
+        return find(id.getBytes(StandardCharsets.UTF_8), hash(id)) >= 0;
+    }
+
+    private long append(Crime crime) {
+        modCount++;
+        int length = CrimeRecordCodec.encodedSize(crime);
+        int recordSize = RECORD_HEADER_SIZE + length;
+        if (recordSize > chunkSize) {
+            throw new IllegalArgumentException("Crime " + crime.getId() + " is larger than the off-heap chunk size");
+        }
+        if (deadBytes > usedBytes / 2 && deadBytes > chunkSize) {
+            compact();
+        }
+        if (writeOffset + recordSize > chunkSize) {
+            nextChunk();
+        }
+
+        ByteBuffer buffer = chunks.get(writeChunk);
+        long handle = (long) writeChunk << 32 | writeOffset;
+        buffer.putInt(writeOffset, length);
+        buffer.put(writeOffset + Integer.BYTES, LIVE);
+        ByteBuffer target = buffer.duplicate();
+        target.position(writeOffset + RECORD_HEADER_SIZE);
+        CrimeRecordCodec.encode(crime, target);
+        writeOffset += recordSize;
+        usedBytes += recordSize;
+        if (writeOffset + RECORD_HEADER_SIZE <= chunkSize) {
+            buffer.putInt(writeOffset, 0);
+        }
+        aggregates.add(crime);
+        return handle;
+    }
+
+    private void nextChunk() {
+        if (writeChunk + 1 == chunks.size()) {
+            if ((long) (chunks.size() + 1) * chunkSize > maxCapacity) {
+                throw new IllegalStateException("Off-heap capacity of " + maxCapacity + " bytes exhausted");
+            }
+            chunks.add(ByteBuffer.allocateDirect(chunkSize));
+        }
+        // Zero length marks the unused tail of a chunk
+        if (writeOffset + Integer.BYTES <= chunkSize) {
+            chunks.get(writeChunk).putInt(writeOffset, 0);
+        }
+        usedBytes += chunkSize - writeOffset;
+        deadBytes += chunkSize - writeOffset;
+        writeChunk++;
+        writeOffset = 0;
+    }
+
+    /**
+     * Slides every live record down over the dead ones, in storage order, so compaction
+     * reuses the chunks it already has and never allocates past the maximum capacity.
+     * Records only ever move towards the start, so none is overwritten before it moved.
+     */
+    private void compact() {
+        long[] order = new long[count];
+        int live = 0;
+        for (long handle : handles) {
+            if (handle != EMPTY) {
+                order[live++] = handle;
+            }
+        }
+        Arrays.sort(order);
+        long[] moved = new long[count];
+        byte[] scratch = new byte[0];
+        writeChunk = 0;
+        writeOffset = 0;
+        usedBytes = 0;
+        deadBytes = 0;
+
+        for (int i = 0; i < order.length; i++) {
+            ByteBuffer source = chunks.get((int) (order[i] >>> 32));
+            int offset = (int) order[i];
+            int recordSize = RECORD_HEADER_SIZE + source.getInt(offset);
+            if (writeOffset + recordSize > chunkSize) {
+                nextChunk();
+            }
+            if (scratch.length < recordSize) {
+                scratch = new byte[Math.max(recordSize, scratch.length * 2)];
+            }
+            // The source and target may overlap within a chunk, so copy through the heap
+            slice(source, offset, recordSize).get(scratch, 0, recordSize);
+            ByteBuffer target = chunks.get(writeChunk).duplicate();
+            target.position(writeOffset);
+            target.put(scratch, 0, recordSize);
+            moved[i] = (long) writeChunk << 32 | writeOffset;
+            writeOffset += recordSize;
+            usedBytes += recordSize;
+        }
+        if (writeOffset + RECORD_HEADER_SIZE <= chunkSize) {
+            chunks.get(writeChunk).putInt(writeOffset, 0);
+        }
+        for (int slot = 0; slot < handles.length; slot++) {
+            if (handles[slot] != EMPTY) {
+                handles[slot] = moved[Arrays.binarySearch(order, handles[slot])];
+            }
+        }
+        // Release the emptied tail, keeping the chunks the store started with
+        chunks.subList(Math.max(writeChunk + 1, initialChunks), chunks.size()).clear();
+    }
+
+    /**
+     * Appends {@code crime} as the new record of {@code slot}. Compaction inside append
+     * moves records but never changes table slots.
+     */
+    private void replace(int slot, Crime crime) {
+        String previous = CrimeRecordCodec.peekString(payload(handles[slot]), CrimeRecordCodec.DESCRIPTION);
+        long newHandle = append(crime);
+        markDead(handles[slot]);
+        handles[slot] = newHandle;
+        if (!previous.equals(crime.getDescription())) {
+            descriptionIndex.remove(slot, previous);
+            descriptionIndex.put(slot, crime.getDescription());
+        }
+    }
+
+    private void setResolved(long handle, boolean isResolved) {
+        ByteBuffer record = payload(handle);
+        if (CrimeRecordCodec.peekResolved(record) != isResolved) {
+            modCount++;
+            CrimeRecordCodec.putResolved(record, isResolved);
+            aggregates.setResolved(CrimeRecordCodec.peekCrimeType(record), isResolved);
+            changes.updated(CrimeRecordCodec.decode(record));
+        }
+    }
+
+    private void markDead(long handle) {
+        modCount++;
+        ByteBuffer record = payload(handle);
+        aggregates.remove(CrimeRecordCodec.peekCrimeType(record), CrimeRecordCodec.peekResolved(record),
+                CrimeRecordCodec.peekString(record, CrimeRecordCodec.LOCATION));
+        ByteBuffer buffer = chunks.get((int) (handle >>> 32));
+        int offset = (int) handle;
+        buffer.put(offset + Integer.BYTES, DEAD);
+        deadBytes += RECORD_HEADER_SIZE + buffer.getInt(offset);
+    }
+
+    private ByteBuffer payload(long handle) {
+        ByteBuffer buffer = chunks.get((int) (handle >>> 32));
+        int offset = (int) handle;
+        return slice(buffer, offset + RECORD_HEADER_SIZE, buffer.getInt(offset));
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer record = buffer.duplicate();
+        record.limit(position + length).position(position);
+        return record;
+    }
+
+    private int find(byte[] id, int hash) {
+        int mask = handles.length - 1;
+        for (int slot = hash & mask; handles[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && CrimeRecordCodec.peekStringEquals(payload(handles[slot]), CrimeRecordCodec.ID, id)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int insert(int hash, long handle) {
+        if ((count + 1) * 2 > handles.length) {
+            long[] oldHandles = handles;
+            int[] oldHashes = hashes;
+            handles = new long[oldHandles.length * 2];
+            hashes = new int[oldHandles.length * 2];
+            Arrays.fill(handles, EMPTY);
+            int[] newSlots = new int[oldHandles.length];
+            for (int i = 0; i < oldHandles.length; i++) {
+                if (oldHandles[i] != EMPTY) newSlots[i] = place(oldHashes[i], oldHandles[i]);
+            }
+            descriptionIndex.moveAll(newSlots);
+        }
+        count++;
+        return place(hash, handle);
+    }
+
+    private int place(int hash, long handle) {
+        int mask = handles.length - 1;
+        int slot = hash & mask;
+        while (handles[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        handles[slot] = handle;
+        hashes[slot] = hash;
+        return slot;
+    }
+
+    private void removeSlot(int slot) {
+        int mask = handles.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; handles[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                handles[hole] = handles[next];
+                hashes[hole] = hashes[next];
+                descriptionIndex.move(next, hole);
+                hole = next;
+            }
+        }
+        handles[hole] = EMPTY;
+        count--;
+    }
+
+    private void reset() {
+        modCount++;
+        chunks.clear();
+        for (int i = 0; i < initialChunks; i++) {
+            chunks.add(ByteBuffer.allocateDirect(chunkSize));
+        }
+        writeChunk = 0;
+        writeOffset = 0;
+        usedBytes = 0;
+        deadBytes = 0;
+        chunks.get(0).putInt(0, 0);
+        handles = new long[1024];
+        hashes = new int[1024];
+        Arrays.fill(handles, EMPTY);
+        count = 0;
+        aggregates.clear();
+        descriptionIndex.clear();
+        hotspots.clear();
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    public static class Builder {
+        private int chunkSize;
+        private long initialCapacity;
+        private long maxCapacity;
+
+        public Builder() {
+            this.chunkSize = 16 << 20;
+            this.initialCapacity = 16 << 20;
+            this.maxCapacity = Long.MAX_VALUE;
+        }
+
+        public Builder withChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        public Builder withInitialCapacity(long initialCapacity) {
+            this.initialCapacity = initialCapacity;
+            return this;
+        }
+
+        public Builder withMaxCapacity(long maxCapacity) {
+            this.maxCapacity = maxCapacity;
+            return this;
+        }
+
+        public OffHeapCrimeRepositoryImpl build() {
+            if (chunkSize < 1024) {
+                throw new IllegalStateException("Chunk size must be at least 1024 bytes");
+            }
+            if (initialCapacity < 0 || initialCapacity > maxCapacity) {
+                throw new IllegalStateException("Initial capacity must be between 0 and the maximum capacity");
+            }
+            if (maxCapacity < chunkSize) {
+                throw new IllegalStateException("Maximum capacity must hold at least one chunk");
+            }
+
+            return new OffHeapCrimeRepositoryImpl(this);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.repository.Page;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keyset pagination shared by the crime repositories. Pages are ordered by report time,
+ * with crimes that have none last, then ID, and a continuation token encodes the key of
+ * the last crime returned; a missing report time is encoded as a sentinel second. A
+ * selector keeps only the {@code limit + 1} smallest candidates after the token in a
+ * bounded heap, so a page costs O(limit) memory however many crimes are offered.
+ */
+final class PageSelector {
+
+    static final Comparator<Crime> ORDER = Comparator.comparing(Crime::getReportedAt,
+            Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())).thenComparing(Crime::getId);
+    // Epoch second standing for no report time; no LocalDateTime has it
+    private static final long UNTIMED = Long.MIN_VALUE;
+
+    private final int limit;
+    private final LocalDateTime afterTime;
+    private final String afterId;
+    private final PriorityQueue<Crime> heap;
+
+    PageSelector(int limit, String continuationToken) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        this.limit = limit;
+        if (continuationToken == null) {
+            this.afterTime = null;
+            this.afterId = null;
+        } else {
+            LocalDateTime time;
+            String id;
+            try {
+                ByteBuffer key = ByteBuffer.wrap(Base64.getUrlDecoder().decode(continuationToken));
+                long second = key.getLong();
+                int nano = key.getInt();
+                time = second == UNTIMED ? null : LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC);
+                id = StandardCharsets.UTF_8.decode(key).toString();
+            } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+                throw new IllegalArgumentException("Invalid continuation token", e);
+            }
+            this.afterTime = time;
+            this.afterId = id;
+        }
+        this.heap = new PriorityQueue<Crime>(Math.min(limit + 1, 1024), ORDER.reversed());
+    }
+
+    /**
+     * Starts after {@code last}, or at the beginning if it is null.
+     */
+    PageSelector(int limit, Crime last) {
+        this.limit = limit;
+        this.afterTime = last == null ? null : last.getReportedAt();
+        this.afterId = last == null ? null : last.getId();
+        this.heap = new PriorityQueue<Crime>(Math.min(limit + 1, 1024), ORDER.reversed());
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    LocalDateTime afterTime() {
+        return afterTime;
+    }
+
+    /**
+     * Tells whether the cursor is past every crime with a report time.
+     */
+    boolean isPastTimed() {
+        return afterId != null && afterTime == null;
+    }
+
+    String afterId() {
+        return afterId;
+    }
+
+    /**
+     * Tells whether a crime with this key would make the page, so callers can skip
+     * decoding or materializing crimes that would not.
+     */
+    boolean accepts(LocalDateTime reportedAt, String id) {
+        if (!isAfterCursor(reportedAt, id)) {
+            return false;
+        }
+        if (heap.size() <= limit) {
+            return true;
+        }
+        Crime largest = heap.peek();
+        return compare(reportedAt, id, largest.getReportedAt(), largest.getId()) < 0;
+    }
+
+    boolean isAfterCursor(LocalDateTime reportedAt, String id) {
+        return afterId == null || compare(reportedAt, id, afterTime, afterId) > 0;
+    }
+
+    // Same order as ORDER, on keys
+    private static int compare(LocalDateTime reportedAt, String id, LocalDateTime otherReportedAt, String otherId) {
+        if (reportedAt == null || otherReportedAt == null) {
+            if (reportedAt != otherReportedAt) {
+                return reportedAt == null ? 1 : -1;
+            }
+        } else {
+            int byTime = reportedAt.compareTo(otherReportedAt);
+            if (byTime != 0) {
+                return byTime;
+            }
+        }
+        return id.compareTo(otherId);
+    }
+
+    void offer(Crime crime) {
+        heap.add(crime);
+        if (heap.size() > limit + 1) {
+            heap.poll();
+        }
+    }
+
+    void offerIfAccepted(Crime crime) {
+        if (accepts(crime.getReportedAt(), crime.getId())) {
+            offer(crime);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit + 1} selected crimes in page order.
+     */
+    List<Crime> selected() {
+        List<Crime> items = new ArrayList<Crime>(heap);
+        items.sort(ORDER);
+        return items;
+    }
+
+    Page<Crime> page() {
+        return page(selected(), limit);
+    }
+
+    /**
+     * Builds a page from up to {@code limit + 1} crimes already in page order; the extra
+     * crime only signals that another page exists.
+     */
+    static Page<Crime> page(List<Crime> items, int limit) {
+        if (items.size() <= limit) {
+            return new Page<Crime>(items, null);
+        }
+        List<Crime> pageItems = new ArrayList<Crime>(items.subList(0, limit));
+        return new Page<Crime>(pageItems, token(pageItems.get(limit - 1)));
+    }
+
+    static String token(Crime last) {
+        byte[] id = last.getId().getBytes(StandardCharsets.UTF_8);
+        LocalDateTime reportedAt = last.getReportedAt();
+        ByteBuffer key = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + id.length);
+        key.putLong(reportedAt == null ? UNTIMED : reportedAt.toEpochSecond(ZoneOffset.UTC));
+        key.putInt(reportedAt == null ? 0 : reportedAt.getNano());
+        key.put(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.array());
+    }
+}
@@ -0,0 +1,93 @@
+package za.ac.cput.repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Filters a list on a {@link ForkJoinPool} once it reaches a size threshold. The list is
+ * split in halves down to chunks sized for the pool's parallelism, each chunk is filtered
+ * on its own, and results are joined left before right, so matches come back in list
+ * order exactly as a sequential scan would produce them. Smaller lists are filtered on
+ * the calling thread.
+ *
+ * <p>The list must not change while it is filtered: either it is immutable, like a
+ * published {@link PersistentVector} version, or the caller holds a lock that keeps
+ * writers out until the scan returns.
+ */
+final class ParallelScanner {
+
+    static final int DEFAULT_THRESHOLD = 32768;
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final ForkJoinPool pool;
+    private volatile int threshold;
+
+    ParallelScanner(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        setThreshold(threshold);
+    }
+
+    int getThreshold() {
+        return threshold;
+    }
+
+    void setThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Parallel scan threshold must be positive");
+        }
+        this.threshold = threshold;
+    }
+
+    <T> List<T> filter(List<T> items, Predicate<? super T> predicate) {
+        if (items.size() < threshold) {
+            return filter(items, 0, items.size(), predicate);
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, items.size() / (pool.getParallelism() * 4));
+        return pool.invoke(new ScanTask<T>(items, 0, items.size(), chunkSize, predicate));
+    }
+
+    private static <T> List<T> filter(List<T> items, int from, int to, Predicate<? super T> predicate) {
+        List<T> matches = new ArrayList<T>();
+        for (int i = from; i < to; i++) {
+            T item = items.get(i);
+            if (predicate.test(item)) {
+                matches.add(item);
+            }
+        }
+        return matches;
+    }
+
+    private static final class ScanTask<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Predicate<? super T> predicate;
+
+        ScanTask(List<T> items, int from, int to, int chunkSize, Predicate<? super T> predicate) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= chunkSize) {
+                return filter(items, from, to, predicate);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask<T> right = new ScanTask<T>(items, middle, to, chunkSize, predicate);
+            right.fork();
+            List<T> matches = new ScanTask<T>(items, from, middle, chunkSize, predicate).compute();
+            matches.addAll(right.join());
+            return matches;
+        }
+    }
+}
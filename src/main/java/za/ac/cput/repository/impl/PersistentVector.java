@@ -0,0 +1,224 @@
+package za.ac.cput.repository.impl;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list stored as a 32-way trie, so versions share every node they have in
+ * common. A version is taken from a {@link Transient} in O(1) and stays unchanged however
+ * the transient is edited afterwards; it is reclaimed by the garbage collector once its
+ * last reader drops it.
+ * <p>
+ * A {@code null} element is a hole left where an element was removed without shifting the
+ * rest; {@link #live()} views a version without its holes.
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * A trie node. A transient changes nodes carrying its current edit token in place
+     * and copies any other node first, so nodes reachable from a published version are
+     * never changed. {@code count} is the number of non-null elements below the node.
+     */
+    private static final class Node {
+        final Object edit;
+        final Object[] array;
+        int count;
+
+        Node(Object edit, Object[] array, int count) {
+            this.edit = edit;
+            this.array = array;
+            this.count = count;
+        }
+    }
+
+    private final int size;
+    private final int shift;
+    private final Node root;
+
+    private PersistentVector(int size, int shift, Node root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return elementAt(root, shift, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns this version without its holes, in the same order. Indexing costs O(log n)
+     * once the version has holes; iterating costs O(1) per element.
+     */
+    List<E> live() {
+        return new Live();
+    }
+
+    private final class Live extends AbstractList<E> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int rank) {
+            Objects.checkIndex(rank, root.count);
+            if (root.count == size) {
+                return elementAt(root, shift, rank);
+            }
+            Node node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                for (int child = 0; ; child++) {
+                    Node next = (Node) node.array[child];
+                    int count = next == null ? 0 : next.count;
+                    if (rank < count) {
+                        node = next;
+                        break;
+                    }
+                    rank -= count;
+                }
+            }
+            for (Object element : node.array) {
+                if (element != null && rank-- == 0) {
+                    return (E) element;
+                }
+            }
+            throw new IllegalStateException("Node counts are inconsistent");
+        }
+
+        @Override
+        public int size() {
+            return root.count;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int index;
+                private int remaining = root.count;
+                private Object[] leaf;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if (remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    while (true) {
+                        if (leaf == null || (index & MASK) == 0) {
+                            leaf = leafAt(root, shift, index);
+                        }
+                        Object element = leaf[index++ & MASK];
+                        if (element != null) {
+                            remaining--;
+                            return (E) element;
+                        }
+                    }
+                }
+            };
+        }
+    }
+
+    private static Object[] leafAt(Node root, int shift, int index) {
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return node.array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E elementAt(Node root, int shift, int index) {
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return (E) node.array[index & MASK];
+    }
+
+    /**
+     * Mutable list whose edits copy each shared node once and then change the copy in
+     * place until the next {@link #persistent()}. Not thread-safe; readers use published
+     * versions instead.
+     */
+    static final class Transient<E> {
+        private Object edit = new Object();
+        private int size;
+        private int shift;
+        private Node root = new Node(edit, new Object[WIDTH], 0);
+
+        E get(int index) {
+            Objects.checkIndex(index, size);
+            return elementAt(root, shift, index);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void set(int index, E element) {
+            Objects.checkIndex(index, size);
+            root = assoc(root, shift, index, element, liveDelta(get(index), element));
+        }
+
+        void add(E element) {
+            if (size == 1 << (shift + BITS)) {
+                Object[] array = new Object[WIDTH];
+                array[0] = root;
+                root = new Node(edit, array, root.count);
+                shift += BITS;
+            }
+            root = assoc(root, shift, size, element, liveDelta(null, element));
+            size++;
+        }
+
+        void clear() {
+            edit = new Object();
+            size = 0;
+            shift = 0;
+            root = new Node(edit, new Object[WIDTH], 0);
+        }
+
+        /**
+         * Returns the current contents as an immutable version; later edits copy whatever
+         * they touch, so the version never changes.
+         */
+        PersistentVector<E> persistent() {
+            edit = new Object();
+            return new PersistentVector<E>(size, shift, root);
+        }
+
+        private static int liveDelta(Object before, Object after) {
+            return (after == null ? 0 : 1) - (before == null ? 0 : 1);
+        }
+
+        private Node assoc(Node node, int level, int index, Object value, int delta) {
+            Node owned = node == null ? new Node(edit, new Object[WIDTH], 0)
+                    : node.edit == edit ? node : new Node(edit, node.array.clone(), node.count);
+            owned.count += delta;
+            if (level == 0) {
+                owned.array[index & MASK] = value;
+            } else {
+                int child = (index >>> level) & MASK;
+                owned.array[child] = assoc((Node) owned.array[child], level - BITS, index, value, delta);
+            }
+            return owned;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.CrimeHotspots;
+import za.ac.cput.repository.Hotspot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring buffers of one-minute buckets behind {@link CrimeHotspots}. Each location owns
+ * {@value #BUCKETS} buckets indexed by epoch minute modulo the ring size; a bucket still
+ * holding an older minute is reset when reused, so nothing has to slide. Locations with
+ * no crimes in the last hour are dropped once a minute, which bounds memory by the
+ * number of recently active locations, and top-K queries keep only K candidates.
+ */
+final class RollingCrimeCounters implements CrimeHotspots {
+
+    static final int BUCKETS = 60;
+    private static final CrimeType[] TYPES = CrimeType.values();
+    private static final Comparator<Hotspot> HOTTEST_FIRST =
+            Comparator.comparingLong(Hotspot::getCount).reversed().thenComparing(Hotspot::getLocation);
+
+    private static final class LocationCounter {
+        private final long[] minutes = new long[BUCKETS];
+        private final int[][] counts = new int[BUCKETS][TYPES.length];
+        private long newestMinute = Long.MIN_VALUE;
+
+        LocationCounter() {
+            Arrays.fill(minutes, Long.MIN_VALUE);
+        }
+
+        synchronized void add(long minute, int type) {
+            int bucket = (int) Math.floorMod(minute, (long) BUCKETS);
+            if (minutes[bucket] != minute) {
+                minutes[bucket] = minute;
+                Arrays.fill(counts[bucket], 0);
+            }
+            counts[bucket][type]++;
+            newestMinute = Math.max(newestMinute, minute);
+        }
+
+        // A negative type counts every crime type
+        synchronized long count(long fromMinute, long toMinute, int type) {
+            long total = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                if (minutes[bucket] < fromMinute || minutes[bucket] > toMinute) {
+                    continue;
+                }
+                if (type >= 0) {
+                    total += counts[bucket][type];
+                } else {
+                    for (int count : counts[bucket]) {
+                        total += count;
+                    }
+                }
+            }
+            return total;
+        }
+
+        synchronized boolean isStale(long horizon) {
+            return newestMinute <= horizon;
+        }
+    }
+
+    private final Clock clock;
+    private final Map<String, LocationCounter> counters = new ConcurrentHashMap<String, LocationCounter>();
+    private final AtomicLong sweptMinute = new AtomicLong(Long.MIN_VALUE);
+
+    RollingCrimeCounters(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Counts a newly created crime. Crimes reported more than an hour ago are ignored and
+     * crimes reported in the future count towards the current minute.
+     */
+    void record(Crime crime) {
+        if (crime.getReportedAt() == null) {
+            return;
+        }
+        long now = currentMinute();
+        long minute = Math.min(minuteOf(crime.getReportedAt()), now);
+        if (minute <= now - BUCKETS) {
+            return;
+        }
+        sweep(now);
+        int type = crime.getCrimeType().ordinal();
+        counters.compute(crime.getLocation(), (location, counter) -> {
+            LocationCounter target = counter != null ? counter : new LocationCounter();
+            target.add(minute, type);
+            return target;
+        });
+    }
+
+    void clear() {
+        counters.clear();
+    }
+
+    @Override
+    public long getCount(String location, Duration window) {
+        return count(location, -1, window);
+    }
+
+    @Override
+    public long getCount(String location, CrimeType crimeType, Duration window) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+        return count(location, crimeType.ordinal(), window);
+    }
+
+    @Override
+    public List<Hotspot> getHottestLocations(int limit, Duration window) {
+        return hottest(limit, -1, window);
+    }
+
+    @Override
+    public List<Hotspot> getHottestLocations(int limit, CrimeType crimeType, Duration window) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+        return hottest(limit, crimeType.ordinal(), window);
+    }
+
+    private long count(String location, int type, Duration window) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location cannot be null");
+        }
+        int minutes = minutesOf(window);
+        long now = currentMinute();
+        LocationCounter counter = counters.get(location);
+        return counter == null ? 0 : counter.count(now - minutes + 1, now, type);
+    }
+
+    private List<Hotspot> hottest(int limit, int type, Duration window) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int minutes = minutesOf(window);
+        long now = currentMinute();
+        PriorityQueue<Hotspot> coolest = new PriorityQueue<Hotspot>(Math.min(limit + 1, 1024), HOTTEST_FIRST.reversed());
+        for (Map.Entry<String, LocationCounter> entry : counters.entrySet()) {
+            long count = entry.getValue().count(now - minutes + 1, now, type);
+            if (count > 0) {
+                coolest.add(new Hotspot(entry.getKey(), count));
+                if (coolest.size() > limit) {
+                    coolest.poll();
+                }
+            }
+        }
+        List<Hotspot> hotspots = new ArrayList<Hotspot>(coolest);
+        hotspots.sort(HOTTEST_FIRST);
+        return hotspots;
+    }
+
+    /**
+     * Drops locations whose newest crime has left the ring, at most once per minute.
+     */
+    private void sweep(long now) {
+        long swept = sweptMinute.get();
+        if (swept >= now || !sweptMinute.compareAndSet(swept, now)) {
+            return;
+        }
+        long horizon = now - BUCKETS;
+        for (String location : counters.keySet()) {
+            counters.computeIfPresent(location, (key, counter) -> counter.isStale(horizon) ? null : counter);
+        }
+    }
+
+    private long currentMinute() {
+        return minuteOf(LocalDateTime.now(clock));
+    }
+
+    private static long minuteOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    private static int minutesOf(Duration window) {
+        if (window == null || window.isNegative() || window.isZero()
+                || window.getSeconds() % 60 != 0 || window.getNano() != 0 || window.toMinutes() > BUCKETS) {
+            throw new IllegalArgumentException("Window must be a whole number of minutes from 1 to " + BUCKETS);
+        }
+        return (int) window.toMinutes();
+    }
+}
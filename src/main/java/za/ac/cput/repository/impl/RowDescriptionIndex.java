@@ -0,0 +1,437 @@
+package za.ac.cput.repository.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Inverted index over crime descriptions, keyed by the int row a store keeps each crime
+ * at, such as a column row or a hash table slot. Descriptions are split on anything that
+ * is not a letter or digit, lowercased and optionally stemmed with {@link EnglishStemmer};
+ * each term maps to the positions it occurs at in every description, which phrase
+ * queries need.
+ *
+ * <p>Queries are terms and double-quoted phrases. Adjacent items must all match, and
+ * {@code OR} separates alternatives, binding looser than the implicit {@code AND}, so
+ * {@code knife OR gun "red car"} finds descriptions with "knife", or with both "gun" and
+ * the phrase "red car". Matches are ranked by BM25 over every query term.
+ *
+ * <p>The index keeps no descriptions. Every term is held once, as a key of the term map,
+ * and its occurrences are appended to primitive arrays under an internal document number.
+ * Document numbers only grow, so those arrays stay sorted by document. Callers pass the
+ * indexed description back to {@link #remove}, which re-analyzes it to settle the term
+ * counts and leaves the occurrences behind as garbage; once removed documents outnumber
+ * live ones the arrays are rewritten without them and the documents renumbered.
+ *
+ * <p>Not thread-safe: callers guard it with the lock of the store whose rows it indexes.
+ */
+final class RowDescriptionIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NONE = -1;
+    // Removed documents tolerated before a purge is worth rewriting every term
+    private static final int MIN_PURGE = 1024;
+
+    /**
+     * Occurrences of one term: the documents holding it in ascending order, each with the
+     * start of its run in {@code positions}.
+     */
+    private static final class Postings {
+        int[] documents = new int[2];
+        int[] starts = new int[2];
+        int[] positions = new int[2];
+        int size;
+        int positionCount;
+        // Live documents holding the term
+        int live;
+
+        void add(int document, List<Integer> termPositions) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+            }
+            if (positionCount + termPositions.size() > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, positionCount + termPositions.size()));
+            }
+            documents[size] = document;
+            starts[size++] = positionCount;
+            for (int position : termPositions) {
+                positions[positionCount++] = position;
+            }
+            live++;
+        }
+
+        int find(int document) {
+            return Arrays.binarySearch(documents, 0, size, document);
+        }
+
+        int end(int entry) {
+            return entry + 1 < size ? starts[entry + 1] : positionCount;
+        }
+
+        /**
+         * Drops the entries of removed documents and renumbers the rest; {@code renumbered}
+         * preserves order, so the entries stay sorted.
+         */
+        void purge(int[] renumbered) {
+            int kept = 0;
+            int keptPositions = 0;
+            for (int entry = 0; entry < size; entry++) {
+                int document = renumbered[documents[entry]];
+                if (document == NONE) {
+                    continue;
+                }
+                int start = starts[entry];
+                int length = end(entry) - start;
+                System.arraycopy(positions, start, positions, keptPositions, length);
+                documents[kept] = document;
+                starts[kept++] = keptPositions;
+                keptPositions += length;
+            }
+            size = kept;
+            positionCount = keptPositions;
+            documents = Arrays.copyOf(documents, Math.max(2, size));
+            starts = Arrays.copyOf(starts, Math.max(2, size));
+            positions = Arrays.copyOf(positions, Math.max(2, positionCount));
+        }
+    }
+
+    private static final class Scored {
+        final int row;
+        final String id;
+        final double score;
+
+        Scored(int row, String id, double score) {
+            this.row = row;
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private final boolean stemming;
+    private final Map<String, Postings> postings = new HashMap<String, Postings>();
+    private int[] documentOfRow = new int[0];
+    private int[] rowOfDocument = new int[16];
+    private int[] lengths = new int[16];
+    private int documents;
+    private int removedDocuments;
+    private long totalLength;
+
+    RowDescriptionIndex(boolean stemming) {
+        this.stemming = stemming;
+    }
+
+    boolean isStemming() {
+        return stemming;
+    }
+
+    /**
+     * Indexes {@code description} under {@code row}, which must not hold one already.
+     */
+    void put(int row, String description) {
+        List<String> tokens = analyze(description);
+        Map<String, List<Integer>> termPositions = new LinkedHashMap<String, List<Integer>>();
+        for (int i = 0; i < tokens.size(); i++) {
+            termPositions.computeIfAbsent(tokens.get(i), term -> new ArrayList<Integer>()).add(i);
+        }
+
+        if (documents == rowOfDocument.length) {
+            rowOfDocument = Arrays.copyOf(rowOfDocument, documents * 2);
+            lengths = Arrays.copyOf(lengths, documents * 2);
+        }
+        int document = documents++;
+        rowOfDocument[document] = row;
+        lengths[document] = tokens.size();
+        setDocument(row, document);
+        totalLength += tokens.size();
+        for (Map.Entry<String, List<Integer>> entry : termPositions.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(document, entry.getValue());
+        }
+    }
+
+    /**
+     * Unindexes {@code row}, given the description it was indexed with.
+     */
+    void remove(int row, String description) {
+        int document = documentOfRow[row];
+        documentOfRow[row] = NONE;
+        rowOfDocument[document] = NONE;
+        for (String term : new LinkedHashSet<String>(analyze(description))) {
+            postings.get(term).live--;
+        }
+        totalLength -= lengths[document];
+        removedDocuments++;
+        if (removedDocuments > MIN_PURGE && removedDocuments > documents - removedDocuments) {
+            purge();
+        }
+    }
+
+    /**
+     * Follows the store moving the crime at {@code from} to the free row {@code to}.
+     */
+    void move(int from, int to) {
+        int document = documentOfRow[from];
+        documentOfRow[from] = NONE;
+        setDocument(to, document);
+        rowOfDocument[document] = to;
+    }
+
+    /**
+     * Follows the store moving every crime at once, e.g. when a hash table is rebuilt;
+     * the crime at row {@code r} is now at {@code newRows[r]}.
+     */
+    void moveAll(int[] newRows) {
+        Arrays.fill(documentOfRow, NONE);
+        for (int document = 0; document < documents; document++) {
+            if (rowOfDocument[document] != NONE) {
+                rowOfDocument[document] = newRows[rowOfDocument[document]];
+                setDocument(rowOfDocument[document], document);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        documentOfRow = new int[0];
+        rowOfDocument = new int[16];
+        lengths = new int[16];
+        documents = 0;
+        removedDocuments = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Returns the rows of matching descriptions, best match first; equal scores are
+     * ordered by the ID {@code idOf} gives each row.
+     */
+    int[] search(String query, IntFunction<String> idOf) {
+        List<List<String[]>> alternatives = parse(query);
+        BitSet matches = new BitSet();
+        Set<String> queryTerms = new LinkedHashSet<String>();
+        for (List<String[]> clause : alternatives) {
+            matches.or(match(clause));
+            for (String[] phrase : clause) {
+                queryTerms.addAll(Arrays.asList(phrase));
+            }
+        }
+
+        int liveDocuments = documents - removedDocuments;
+        double averageLength = liveDocuments == 0 ? 0 : (double) totalLength / liveDocuments;
+        List<Scored> scored = new ArrayList<Scored>(matches.cardinality());
+        for (int document = matches.nextSetBit(0); document >= 0; document = matches.nextSetBit(document + 1)) {
+            double score = 0;
+            double lengthNorm = K1 * (1 - B + B * lengths[document] / averageLength);
+            for (String term : queryTerms) {
+                Postings termPostings = postings.get(term);
+                int entry = termPostings == null ? -1 : termPostings.find(document);
+                if (entry >= 0) {
+                    int frequency = termPostings.end(entry) - termPostings.starts[entry];
+                    double idf = Math.log(1 + (liveDocuments - termPostings.live + 0.5) / (termPostings.live + 0.5));
+                    score += idf * frequency * (K1 + 1) / (frequency + lengthNorm);
+                }
+            }
+            int row = rowOfDocument[document];
+            scored.add(new Scored(row, idOf.apply(row), score));
+        }
+        scored.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : a.id.compareTo(b.id));
+
+        int[] rows = new int[scored.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = scored.get(i).row;
+        }
+        return rows;
+    }
+
+    private void setDocument(int row, int document) {
+        if (row >= documentOfRow.length) {
+            int length = documentOfRow.length;
+            documentOfRow = Arrays.copyOf(documentOfRow, Math.max(row + 1, length * 2));
+            Arrays.fill(documentOfRow, length, documentOfRow.length, NONE);
+        }
+        documentOfRow[row] = document;
+    }
+
+    /**
+     * Rewrites every term without the removed documents and numbers the live ones
+     * densely, in their existing order.
+     */
+    private void purge() {
+        int[] renumbered = new int[documents];
+        int live = 0;
+        for (int document = 0; document < documents; document++) {
+            int row = rowOfDocument[document];
+            if (row == NONE) {
+                renumbered[document] = NONE;
+                continue;
+            }
+            renumbered[document] = live;
+            rowOfDocument[live] = row;
+            lengths[live] = lengths[document];
+            documentOfRow[row] = live++;
+        }
+        for (Iterator<Postings> terms = postings.values().iterator(); terms.hasNext(); ) {
+            Postings termPostings = terms.next();
+            if (termPostings.live == 0) {
+                terms.remove();
+            } else {
+                termPostings.purge(renumbered);
+            }
+        }
+        documents = live;
+        removedDocuments = 0;
+    }
+
+    /**
+     * Returns the documents matching every phrase of a clause, starting from the rarest one.
+     */
+    private BitSet match(List<String[]> clause) {
+        List<String[]> phrases = new ArrayList<String[]>(clause);
+        phrases.sort((a, b) -> Integer.compare(rarest(a), rarest(b)));
+        BitSet result = null;
+        for (String[] phrase : phrases) {
+            BitSet next = new BitSet();
+            if (result == null) {
+                Postings smallest = smallest(phrase);
+                for (int entry = 0; smallest != null && entry < smallest.size; entry++) {
+                    int document = smallest.documents[entry];
+                    if (rowOfDocument[document] != NONE && containsPhrase(document, phrase)) {
+                        next.set(document);
+                    }
+                }
+            } else {
+                for (int document = result.nextSetBit(0); document >= 0; document = result.nextSetBit(document + 1)) {
+                    if (containsPhrase(document, phrase)) {
+                        next.set(document);
+                    }
+                }
+            }
+            result = next;
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int rarest(String[] phrase) {
+        int rarest = Integer.MAX_VALUE;
+        for (String term : phrase) {
+            Postings termPostings = postings.get(term);
+            rarest = Math.min(rarest, termPostings == null ? 0 : termPostings.live);
+        }
+        return rarest;
+    }
+
+    private Postings smallest(String[] phrase) {
+        Postings smallest = null;
+        for (String term : phrase) {
+            Postings termPostings = postings.get(term);
+            if (termPostings == null) {
+                return null;
+            }
+            if (smallest == null || termPostings.size < smallest.size) {
+                smallest = termPostings;
+            }
+        }
+        return smallest;
+    }
+
+    private boolean containsPhrase(int document, String[] phrase) {
+        Postings[] terms = new Postings[phrase.length];
+        int[] entries = new int[phrase.length];
+        for (int i = 0; i < phrase.length; i++) {
+            terms[i] = postings.get(phrase[i]);
+            entries[i] = terms[i] == null ? -1 : terms[i].find(document);
+            if (entries[i] < 0) {
+                return false;
+            }
+        }
+        for (int p = terms[0].starts[entries[0]]; p < terms[0].end(entries[0]); p++) {
+            int start = terms[0].positions[p];
+            boolean found = true;
+            for (int i = 1; i < phrase.length && found; i++) {
+                found = Arrays.binarySearch(terms[i].positions, terms[i].starts[entries[i]], terms[i].end(entries[i]), start + i) >= 0;
+            }
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a query into alternatives of phrases; a single term is a phrase of one.
+     */
+    private List<List<String[]>> parse(String query) {
+        List<List<String[]>> alternatives = new ArrayList<List<String[]>>();
+        List<String[]> clause = new ArrayList<String[]>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int end;
+            String text;
+            if (c == '"') {
+                int close = query.indexOf('"', i + 1);
+                end = close < 0 ? query.length() : close + 1;
+                text = query.substring(i + 1, close < 0 ? query.length() : close);
+            } else {
+                end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                    end++;
+                }
+                text = query.substring(i, end);
+                if (text.equals("OR")) {
+                    if (!clause.isEmpty()) {
+                        alternatives.add(clause);
+                        clause = new ArrayList<String[]>();
+                    }
+                    i = end;
+                    continue;
+                }
+                if (text.equals("AND")) {
+                    i = end;
+                    continue;
+                }
+            }
+            List<String> terms = analyze(text);
+            if (!terms.isEmpty()) {
+                clause.add(terms.toArray(new String[0]));
+            }
+            i = end;
+        }
+        if (!clause.isEmpty()) {
+            alternatives.add(clause);
+        }
+        return alternatives;
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<String>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                terms.add(stemming ? EnglishStemmer.stem(term) : term);
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
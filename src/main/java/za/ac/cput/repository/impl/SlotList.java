@@ -0,0 +1,74 @@
+package za.ac.cput.repository.impl;
+
+import java.util.Arrays;
+
+/**
+ * Unordered list of repository slots with O(1) add and remove. Each slot sits in at most
+ * one list of an index, whose {@link Positions} remember where, so a removal moves the
+ * list's last slot into the freed position instead of shifting the rest.
+ */
+final class SlotList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int size;
+
+    void add(int slot, Positions positions) {
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        positions.set(slot, size);
+        slots[size++] = slot;
+    }
+
+    void remove(int slot, Positions positions) {
+        int position = positions.get(slot);
+        int last = slots[--size];
+        slots[position] = last;
+        positions.set(last, position);
+    }
+
+    int get(int index) {
+        return slots[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the slots in ascending order, which is the order their crimes were created.
+     */
+    int[] sorted() {
+        int[] sorted = Arrays.copyOf(slots, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Position of every slot within the one list of an index that holds it.
+     */
+    static final class Positions {
+        private int[] positions = new int[16];
+
+        int get(int slot) {
+            return positions[slot];
+        }
+
+        void set(int slot, int position) {
+            if (slot >= positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(slot + 1, positions.length * 2));
+            }
+            positions[slot] = position;
+        }
+    }
+}
@@ -0,0 +1,651 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeChangeFeed;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeGrouping;
+import za.ac.cput.repository.CrimeHotspots;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.CrimeStatistics;
+import za.ac.cput.repository.Page;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Crime repository served from a memory-mapped snapshot file. Opening maps the file and
+ * validates its header without parsing any records, and {@link #read(String)} looks IDs up
+ * in the mapped hash table, decoding only the matching record. Changes since the snapshot
+ * are kept in an in-memory overlay until {@link #writeSnapshot()} folds them into a new file.
+ *
+ * <p>Writing a snapshot freezes the current overlay and starts a fresh one, so reads and
+ * writes continue while the file is written; the new mapping replaces the old one only
+ * once it is complete.
+ *
+ * <p>Statistics and the description index are built from a full scan the first time
+ * they are used, so opening stays cheap, and are then maintained by every write.
+ */
+public class SnapshotCrimeRepositoryImpl implements CrimeRepository {
+
+    private static final class State {
+        final CrimeSnapshotFile base;
+        final Map<String, Crime> frozenUpserts;
+        final Set<String> frozenDeletes;
+        final Map<String, Crime> upserts;
+        final Set<String> deletes;
+
+        State(CrimeSnapshotFile base, Map<String, Crime> frozenUpserts, Set<String> frozenDeletes,
+              Map<String, Crime> upserts, Set<String> deletes) {
+            this.base = base;
+            this.frozenUpserts = frozenUpserts;
+            this.frozenDeletes = frozenDeletes;
+            this.upserts = upserts;
+            this.deletes = deletes;
+        }
+    }
+
+    private final Path snapshotFile;
+    private final Object writeLock = new Object();
+    private final Object snapshotLock = new Object();
+    private volatile State state;
+    private volatile CrimeAggregates aggregates;
+    private volatile DescriptionIndex descriptionIndex;
+    private final RollingCrimeCounters hotspots = new RollingCrimeCounters(Clock.systemDefaultZone());
+    private final CrimeChangeLog changes = new CrimeChangeLog(CrimeChangeLog.DEFAULT_CAPACITY, ForkJoinPool.commonPool());
+
+    private SnapshotCrimeRepositoryImpl(Path snapshotFile, CrimeSnapshotFile base) {
+        this.snapshotFile = snapshotFile;
+        this.state = new State(base, Map.of(), Set.of(),
+                new ConcurrentHashMap<String, Crime>(), ConcurrentHashMap.<String>newKeySet());
+    }
+
+    public static SnapshotCrimeRepositoryImpl open(Path snapshotFile) {
+        if (snapshotFile == null) {
+            throw new IllegalArgumentException("Snapshot file cannot be null");
+        }
+
+        try {
+            CrimeSnapshotFile base = Files.exists(snapshotFile)
+                    ? CrimeSnapshotFile.map(snapshotFile)
+                    : CrimeSnapshotFile.empty();
+            return new SnapshotCrimeRepositoryImpl(snapshotFile, base);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Writes every crime to a new snapshot file and switches reads over to it.
+     */
+    public void writeSnapshot() {
+        synchronized (snapshotLock) {
+            State frozen;
+            synchronized (writeLock) {
+                State current = state;
+                frozen = new State(current.base, current.upserts, current.deletes,
+                        new ConcurrentHashMap<String, Crime>(), ConcurrentHashMap.<String>newKeySet());
+                state = frozen;
+            }
+
+            // Until the new file is switched in, any failure must merge the frozen overlay back
+            boolean switched = false;
+            try (CrimeSnapshotFile.Writer writer = CrimeSnapshotFile.writer(snapshotFile)) {
+                IOException[] failure = new IOException[1];
+                frozen.base.forEachRecord(record -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    Crime crime = CrimeRecordCodec.decode(record);
+                    if (!frozen.frozenUpserts.containsKey(crime.getId())
+                            && !frozen.frozenDeletes.contains(crime.getId())) {
+                        try {
+                            writer.append(crime);
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                for (Crime crime : frozen.frozenUpserts.values()) {
+                    writer.append(crime);
+                }
+                writer.finish();
+                CrimeSnapshotFile written = CrimeSnapshotFile.map(snapshotFile);
+                synchronized (writeLock) {
+                    State current = state;
+                    state = new State(written, Map.of(), Set.of(), current.upserts, current.deletes);
+                }
+                switched = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write snapshot " + snapshotFile, e);
+            } finally {
+                if (!switched) {
+                    synchronized (writeLock) {
+                        State current = state;
+                        state = new State(current.base, Map.of(), Set.of(),
+                                mergeUpserts(frozen, current), mergeDeletes(frozen, current));
+                    }
+                }
+            }
+        }
+    }
+
+    // Method for testing purposes
+    public void clearRepository() {
+        synchronized (snapshotLock) {
+            synchronized (writeLock) {
+                state = new State(CrimeSnapshotFile.empty(), Map.of(), Set.of(),
+                        new ConcurrentHashMap<String, Crime>(), ConcurrentHashMap.<String>newKeySet());
+                aggregates = null;
+                descriptionIndex = null;
+                hotspots.clear();
+            }
+        }
+    }
+
+    @Override
+    public Crime create(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        synchronized (writeLock) {
+            State current = state;
+            if (exists(current, crime.getId())) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " already exists");
+            }
+            current.upserts.put(crime.getId(), crime);
+            current.deletes.remove(crime.getId());
+            trackWrite(crime);
+            hotspots.record(crime);
+            changes.created(crime);
+            return crime;
+        }
+    }
+
+    @Override
+    public Optional<Crime> read(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        State current = state;
+        if (current.deletes.contains(id)) {
+            return Optional.empty();
+        }
+        Crime crime = current.upserts.get(id);
+        if (crime != null) {
+            return Optional.of(crime);
+        }
+        if (current.frozenDeletes.contains(id)) {
+            return Optional.empty();
+        }
+        crime = current.frozenUpserts.get(id);
+        if (crime != null) {
+            return Optional.of(crime);
+        }
+        return Optional.ofNullable(current.base.find(id));
+    }
+
+    @Override
+    public List<Crime> readAll() {
+        return scan(record -> true, crime -> true);
+    }
+
+    @Override
+    public Crime update(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        synchronized (writeLock) {
+            State current = state;
+            if (!exists(current, crime.getId())) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " does not exist");
+            }
+            trackRemoval(crime.getId());
+            current.upserts.put(crime.getId(), crime);
+            trackWrite(crime);
+            changes.updated(crime);
+            return crime;
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        synchronized (writeLock) {
+            State current = state;
+            if (!exists(current, id)) {
+                return false;
+            }
+            Crime removed = read(id).get();
+            trackRemoval(id);
+            remove(current, id);
+            changes.deleted(removed);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean markResolved(String id, boolean isResolved) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        synchronized (writeLock) {
+            Optional<Crime> crime = read(id);
+            if (!crime.isPresent()) {
+                return false;
+            }
+            setResolved(state, crime.get(), isResolved);
+            return true;
+        }
+    }
+
+    @Override
+    public BatchResult<String> markAllResolved(Collection<String> ids, boolean isResolved) {
+        synchronized (writeLock) {
+            State current = state;
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, id -> exists(current, id));
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    setResolved(current, read(id).get(), isResolved);
+                }
+            }
+            return result.build();
+        }
+    }
+
+    @Override
+    public BatchResult<String> createAll(Collection<Crime> crimes) {
+        synchronized (writeLock) {
+            State current = state;
+            BatchResult.Builder<String> result = CrimeBatches.validateCreates(crimes, id -> exists(current, id));
+            if (!result.hasFailures()) {
+                for (Crime crime : crimes) {
+                    current.upserts.put(crime.getId(), crime);
+                    current.deletes.remove(crime.getId());
+                    trackWrite(crime);
+                    hotspots.record(crime);
+                    changes.created(crime);
+                }
+            }
+            return result.build();
+        }
+    }
+
+    @Override
+    public BatchResult<String> updateAll(Collection<Crime> crimes) {
+        synchronized (writeLock) {
+            State current = state;
+            BatchResult.Builder<String> result = CrimeBatches.validateUpdates(crimes, id -> exists(current, id));
+            if (!result.hasFailures()) {
+                for (Crime crime : crimes) {
+                    trackRemoval(crime.getId());
+                    current.upserts.put(crime.getId(), crime);
+                    trackWrite(crime);
+                    changes.updated(crime);
+                }
+            }
+            return result.build();
+        }
+    }
+
+    @Override
+    public BatchResult<String> deleteAll(Collection<String> ids) {
+        synchronized (writeLock) {
+            State current = state;
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, id -> exists(current, id));
+            if (!result.hasFailures()) {
+                for (String id : ids) {
+                    Crime removed = read(id).get();
+                    trackRemoval(id);
+                    remove(current, id);
+                    changes.deleted(removed);
+                }
+            }
+            return result.build();
+        }
+    }
+
+    @Override
+    public List<Crime> findByCrimeType(CrimeType crimeType) {
+        if (crimeType == null) {
+            throw new IllegalArgumentException("Crime type cannot be null");
+        }
+
+        return scan(record -> CrimeRecordCodec.peekCrimeType(record) == crimeType,
+                crime -> crime.getCrimeType() == crimeType);
+    }
+
+    @Override
+    public List<Crime> findByLocation(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            throw new IllegalArgumentException("Location cannot be null or empty");
+        }
+
+        String query = location.toLowerCase();
+        return scan(record -> CrimeRecordCodec.peekString(record, CrimeRecordCodec.LOCATION).toLowerCase().contains(query),
+                crime -> crime.getLocation().toLowerCase().contains(query));
+    }
+
+    @Override
+    public List<Crime> findByReporterId(String reporterId) {
+        if (reporterId == null || reporterId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Reporter ID cannot be null or empty");
+        }
+
+        byte[] utf8 = reporterId.getBytes(StandardCharsets.UTF_8);
+        return scan(record -> CrimeRecordCodec.peekStringEquals(record, CrimeRecordCodec.REPORTER_ID, utf8),
+                crime -> crime.getReporterId().equals(reporterId));
+    }
+
+    @Override
+    public List<Crime> findByResolutionStatus(boolean isResolved) {
+        return scan(record -> CrimeRecordCodec.peekResolved(record) == isResolved,
+                crime -> crime.isResolved() == isResolved);
+    }
+
+    @Override
+    public List<Crime> searchDescriptions(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query cannot be null or empty");
+        }
+
+        DescriptionIndex index = descriptionIndex;
+        if (index == null) {
+            synchronized (writeLock) {
+                if (descriptionIndex == null) {
+                    DescriptionIndex built = new DescriptionIndex(true);
+                    for (Crime crime : readAll()) {
+                        built.put(crime.getId(), crime.getDescription());
+                    }
+                    descriptionIndex = built;
+                }
+                index = descriptionIndex;
+            }
+        }
+        List<Crime> matches = new ArrayList<Crime>();
+        for (String id : index.search(query)) {
+            read(id).ifPresent(matches::add);
+        }
+        return matches;
+    }
+
+    @Override
+    public List<Crime> findMatching(Predicate<? super Crime> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+
+        List<Crime> matches = new ArrayList<Crime>();
+        for (Crime crime : readAll()) {
+            if (predicate.test(crime)) {
+                matches.add(crime);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public List<Crime> find(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        return scan(CrimeRecordCodec.matcher(query), query::matches);
+    }
+
+    /**
+     * Streams from the state current when this is called: mapped records first, then the
+     * overlay. Records are decoded only as the stream is consumed.
+     */
+    @Override
+    public Stream<Crime> stream(CrimeQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        State current = state;
+        Predicate<ByteBuffer> matcher = CrimeRecordCodec.matcher(query);
+        Stream<Crime> base = StreamSupport.stream(Spliterators.spliteratorUnknownSize(current.base.records(),
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .filter(matcher)
+                .map(CrimeRecordCodec::decode)
+                .filter(crime -> !shadowed(current, crime.getId()));
+        Stream<Crime> frozen = current.frozenUpserts.values().stream()
+                .filter(crime -> !current.upserts.containsKey(crime.getId()) && !current.deletes.contains(crime.getId())
+                        && query.matches(crime));
+        Stream<Crime> overlay = current.upserts.values().stream().filter(query::matches);
+        return Stream.concat(Stream.concat(base, frozen), overlay);
+    }
+
+    @Override
+    public CrimeHotspots hotspots() {
+        return hotspots;
+    }
+
+    @Override
+    public CrimeChangeFeed changes() {
+        return changes;
+    }
+
+    @Override
+    public CrimeStatistics statistics() {
+        CrimeAggregates counts = aggregates;
+        if (counts != null) {
+            return counts;
+        }
+        synchronized (writeLock) {
+            if (aggregates == null) {
+                counts = new CrimeAggregates();
+                for (Crime crime : readAll()) {
+                    counts.add(crime);
+                }
+                aggregates = counts;
+            }
+            return aggregates;
+        }
+    }
+
+    @Override
+    public <K> Map<K, CrimeRollup> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        CrimeGrouping<K> grouping = new CrimeGrouping<K>(key);
+        stream(query).forEach(grouping);
+        return grouping.toMap();
+    }
+
+    @Override
+    public Page<Crime> findPage(CrimeQuery query, int limit, String continuationToken) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+
+        PageSelector selector = new PageSelector(limit, continuationToken);
+        Predicate<ByteBuffer> matcher = CrimeRecordCodec.matcher(query);
+        State current = state;
+        current.base.forEachRecord(record -> {
+            if (matcher.test(record) && selector.accepts(CrimeRecordCodec.peekReportedAt(record),
+                    CrimeRecordCodec.peekString(record, CrimeRecordCodec.ID))) {
+                Crime crime = CrimeRecordCodec.decode(record);
+                if (!shadowed(current, crime.getId())) {
+                    selector.offer(crime);
+                }
+            }
+        });
+        for (Crime crime : current.frozenUpserts.values()) {
+            if (!current.upserts.containsKey(crime.getId()) && !current.deletes.contains(crime.getId())
+                    && query.matches(crime)) {
+                selector.offerIfAccepted(crime);
+            }
+        }
+        for (Crime crime : current.upserts.values()) {
+            if (query.matches(crime)) {
+                selector.offerIfAccepted(crime);
+            }
+        }
+        return selector.page();
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt));
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to) {
+        return findByReportedAtBetween(from, to, Comparator.comparing(Crime::getReportedAt).reversed());
+    }
+
+    private List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to, Comparator<Crime> order) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Time range cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Time range start cannot be after its end");
+        }
+
+        List<Crime> crimesInRange = scan(record -> inRange(CrimeRecordCodec.peekReportedAt(record), from, to),
+                crime -> inRange(crime.getReportedAt(), from, to));
+        crimesInRange.sort(order);
+        return crimesInRange;
+    }
+
+    // Crimes without a report time fall in no range
+    private static boolean inRange(LocalDateTime reportedAt, LocalDateTime from, LocalDateTime to) {
+        return reportedAt != null && !reportedAt.isBefore(from) && !reportedAt.isAfter(to);
+    }
+
+    private List<Crime> scan(Predicate<ByteBuffer> recordFilter, Predicate<Crime> crimeFilter) {
+        State current = state;
+        List<Crime> crimes = new ArrayList<Crime>();
+        current.base.forEachRecord(record -> {
+            if (recordFilter.test(record)) {
+                Crime crime = CrimeRecordCodec.decode(record);
+                if (!shadowed(current, crime.getId())) {
+                    crimes.add(crime);
+                }
+            }
+        });
+        for (Crime crime : current.frozenUpserts.values()) {
+            if (!current.upserts.containsKey(crime.getId()) && !current.deletes.contains(crime.getId())
+                    && crimeFilter.test(crime)) {
+                crimes.add(crime);
+            }
+        }
+        for (Crime crime : current.upserts.values()) {
+            if (crimeFilter.test(crime)) {
+                crimes.add(crime);
+            }
+        }
+        return crimes;
+    }
+
+    // Only maintained once built by first use; callers hold the write lock
+    private void trackWrite(Crime crime) {
+        if (aggregates != null) {
+            aggregates.add(crime);
+        }
+        if (descriptionIndex != null) {
+            descriptionIndex.put(crime.getId(), crime.getDescription());
+        }
+    }
+
+    private void trackRemoval(String id) {
+        if (aggregates != null) {
+            aggregates.remove(read(id).get());
+        }
+        if (descriptionIndex != null) {
+            descriptionIndex.remove(id);
+        }
+    }
+
+    // The description index does not depend on the status, so only statistics are tracked
+    private void setResolved(State state, Crime crime, boolean isResolved) {
+        Crime marked = crime.withResolved(isResolved);
+        if (marked != crime) {
+            state.upserts.put(crime.getId(), marked);
+            if (aggregates != null) {
+                aggregates.setResolved(crime.getCrimeType(), isResolved);
+            }
+            changes.updated(marked);
+        }
+    }
+
+    private static void remove(State state, String id) {
+        if (existsBelowOverlay(state, id)) {
+            state.deletes.add(id);
+        }
+        state.upserts.remove(id);
+    }
+
+    private static boolean shadowed(State state, String id) {
+        return state.upserts.containsKey(id) || state.deletes.contains(id)
+                || state.frozenUpserts.containsKey(id) || state.frozenDeletes.contains(id);
+    }
+
+    private static boolean exists(State state, String id) {
+        if (state.deletes.contains(id)) {
+            return false;
+        }
+        return state.upserts.containsKey(id) || existsBelowOverlay(state, id);
+    }
+
+    private static boolean existsBelowOverlay(State state, String id) {
+        if (state.frozenDeletes.contains(id)) {
+            return false;
+        }
+        return state.frozenUpserts.containsKey(id) || state.base.contains(id);
+    }
+
+    private static Map<String, Crime> mergeUpserts(State frozen, State current) {
+        Map<String, Crime> merged = new ConcurrentHashMap<String, Crime>(frozen.frozenUpserts);
+        for (String id : current.deletes) {
+            merged.remove(id);
+        }
+        merged.putAll(current.upserts);
+        return merged;
+    }
+
+    private static Set<String> mergeDeletes(State frozen, State current) {
+        Set<String> merged = ConcurrentHashMap.newKeySet();
+        merged.addAll(frozen.frozenDeletes);
+        merged.addAll(current.deletes);
+        merged.removeAll(current.upserts.keySet());
+        return merged;
+    }
+}
@@ -0,0 +1,87 @@
+package za.ac.cput.repository.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference-counted dictionary of canonical strings with dense int codes. Each interned
+ * value counts the stored crimes holding it and is evicted when the last one is
+ * released, so the dictionary never outgrows the distinct values in the store. Codes of
+ * evicted values are reused, like term IDs in {@link LocationIndex}.
+ */
+class StringInterner {
+
+    private static final class Entry {
+        final String value;
+        final int code;
+        int references;
+
+        Entry(String value, int code) {
+            this.value = value;
+            this.code = code;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private final List<Entry> byCode = new ArrayList<Entry>();
+    private final Deque<Integer> freeCodes = new ArrayDeque<Integer>();
+
+    /**
+     * Adds a reference to {@code value}, making it canonical if it is new, and returns its code.
+     */
+    int intern(String value) {
+        Entry entry = entries.get(value);
+        if (entry == null) {
+            int code;
+            if (freeCodes.isEmpty()) {
+                code = byCode.size();
+                byCode.add(null);
+            } else {
+                code = freeCodes.pop();
+            }
+            entry = new Entry(value, code);
+            entries.put(value, entry);
+            byCode.set(code, entry);
+        }
+        entry.references++;
+        return entry.code;
+    }
+
+    /**
+     * Drops a reference taken by {@link #intern(String)}, evicting the value after its last one.
+     */
+    void release(int code) {
+        Entry entry = byCode.get(code);
+        if (--entry.references == 0) {
+            entries.remove(entry.value);
+            byCode.set(code, null);
+            freeCodes.push(code);
+        }
+    }
+
+    /**
+     * Returns the code of {@code value}, or -1 if it is not interned.
+     */
+    int codeOf(String value) {
+        Entry entry = entries.get(value);
+        return entry == null ? -1 : entry.code;
+    }
+
+    String canonical(int code) {
+        return byCode.get(code).value;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+        byCode.clear();
+        freeCodes.clear();
+    }
+}
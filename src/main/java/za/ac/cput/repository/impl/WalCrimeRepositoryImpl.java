@@ -0,0 +1,818 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeChangeFeed;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeHotspots;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.CrimeStatistics;
+import za.ac.cput.repository.Page;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable crime repository. Every create, update, delete and status change is applied to
+ * an in-memory delegate and then appended to a binary write-ahead log, and the log is
+ * replayed into the delegate when the repository is opened. An operation the delegate
+ * rejects is never logged, so replay never meets one it cannot apply. Reads go straight
+ * to the delegate.
+ *
+ * <p>Log layout: a header (magic, version) followed by records of
+ * {@code [int length][int crc32][byte op][payload]}. A torn record at the tail, left by a
+ * crash mid-write, is detected by its length or checksum and truncated on replay.
+ * A batch is logged as one record holding every item, so it is replayed all or nothing.
+ *
+ * <p>Once a write or fsync fails, earlier acknowledged writes may not be durable, so every
+ * later write, {@link #sync()} and {@link #close()} fails with that error instead.
+ */
+public class WalCrimeRepositoryImpl implements CrimeRepository, Closeable {
+
+    public enum FsyncPolicy {
+        /** Force the log to disk before every write returns. */
+        EVERY_OPERATION,
+        /**
+         * Force the log from a background thread, once for every record written while the
+         * previous force ran. A write returns once a force covers its record.
+         */
+        GROUP_COMMIT,
+        /** Leave flushing to the operating system. */
+        OS_MANAGED
+    }
+
+    static final int MAGIC = 0x43524C47;
+    static final short VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES + 1;
+
+    private static final byte OP_CREATE = 1;
+    private static final byte OP_UPDATE = 2;
+    private static final byte OP_DELETE = 3;
+    private static final byte OP_CREATE_ALL = 4;
+    private static final byte OP_UPDATE_ALL = 5;
+    private static final byte OP_DELETE_ALL = 6;
+    private static final byte OP_MARK_RESOLVED = 7;
+
+    private final CrimeRepository delegate;
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final Thread flusher;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer recordBuffer = ByteBuffer.allocate(4096);
+    // Records are numbered as they are written; a writer waits until a force covers its number
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition written = commitLock.newCondition();
+    private final Condition committed = commitLock.newCondition();
+    private long writtenTicket;
+    private long committedTicket;
+    private volatile boolean closed;
+    // First failed group commit; writes acknowledged before it may be lost, so it fails everything after
+    private volatile IOException syncFailure;
+
+    private WalCrimeRepositoryImpl(Builder builder) throws IOException {
+        this.delegate = builder.delegate;
+        this.fsyncPolicy = builder.fsyncPolicy;
+        this.channel = builder.channelOpener.open(builder.logFile);
+        try {
+            replay();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        if (fsyncPolicy == FsyncPolicy.GROUP_COMMIT) {
+            this.flusher = new Thread(this::groupCommit, "crime-wal-group-commit");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    @Override
+    public Crime create(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        Crime created;
+        long ticket;
+        writeLock.lock();
+        try {
+            if (delegate.read(crime.getId()).isPresent()) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " already exists");
+            }
+            checkWritable();
+            created = delegate.create(crime);
+            ticket = append(OP_CREATE, crime, null);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return created;
+    }
+
+    @Override
+    public Optional<Crime> read(String id) {
+        return delegate.read(id);
+    }
+
+    @Override
+    public List<Crime> readAll() {
+        return delegate.readAll();
+    }
+
+    @Override
+    public Crime update(Crime crime) {
+        if (crime == null) {
+            throw new IllegalArgumentException("Crime cannot be null");
+        }
+
+        Crime updated;
+        long ticket;
+        writeLock.lock();
+        try {
+            if (!delegate.read(crime.getId()).isPresent()) {
+                throw new IllegalArgumentException("Crime with ID " + crime.getId() + " does not exist");
+            }
+            checkWritable();
+            updated = delegate.update(crime);
+            ticket = append(OP_UPDATE, crime, null);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return updated;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        boolean deleted;
+        long ticket;
+        writeLock.lock();
+        try {
+            if (!delegate.read(id).isPresent()) {
+                return false;
+            }
+            checkWritable();
+            deleted = delegate.delete(id);
+            ticket = deleted ? append(OP_DELETE, null, id) : 0;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return deleted;
+    }
+
+    @Override
+    public BatchResult<String> createAll(Collection<Crime> crimes) {
+        BatchResult<String> applied;
+        long ticket;
+        writeLock.lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateCreates(crimes, id -> delegate.read(id).isPresent());
+            if (result.hasFailures()) {
+                return result.build();
+            }
+            checkWritable();
+            applied = delegate.createAll(crimes);
+            ticket = applied.isApplied() ? appendBatch(OP_CREATE_ALL, crimes, null) : 0;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return applied;
+    }
+
+    @Override
+    public BatchResult<String> updateAll(Collection<Crime> crimes) {
+        BatchResult<String> applied;
+        long ticket;
+        writeLock.lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateUpdates(crimes, id -> delegate.read(id).isPresent());
+            if (result.hasFailures()) {
+                return result.build();
+            }
+            checkWritable();
+            applied = delegate.updateAll(crimes);
+            ticket = applied.isApplied() ? appendBatch(OP_UPDATE_ALL, crimes, null) : 0;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return applied;
+    }
+
+    @Override
+    public BatchResult<String> deleteAll(Collection<String> ids) {
+        BatchResult<String> applied;
+        long ticket;
+        writeLock.lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, id -> delegate.read(id).isPresent());
+            if (result.hasFailures()) {
+                return result.build();
+            }
+            checkWritable();
+            applied = delegate.deleteAll(ids);
+            ticket = applied.isApplied() ? appendBatch(OP_DELETE_ALL, null, ids) : 0;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return applied;
+    }
+
+    @Override
+    public boolean markResolved(String id, boolean isResolved) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID cannot be null or empty");
+        }
+
+        boolean marked;
+        long ticket;
+        writeLock.lock();
+        try {
+            if (!delegate.read(id).isPresent()) {
+                return false;
+            }
+            checkWritable();
+            marked = delegate.markResolved(id, isResolved);
+            ticket = marked ? appendResolution(isResolved, Collections.singletonList(id)) : 0;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return marked;
+    }
+
+    @Override
+    public BatchResult<String> markAllResolved(Collection<String> ids, boolean isResolved) {
+        BatchResult<String> applied;
+        long ticket;
+        writeLock.lock();
+        try {
+            BatchResult.Builder<String> result = CrimeBatches.validateIds(ids, id -> delegate.read(id).isPresent());
+            if (result.hasFailures()) {
+                return result.build();
+            }
+            checkWritable();
+            applied = delegate.markAllResolved(ids, isResolved);
+            ticket = applied.isApplied() ? appendResolution(isResolved, ids) : 0;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(ticket);
+        return applied;
+    }
+
+    @Override
+    public List<Crime> findByCrimeType(CrimeType crimeType) {
+        return delegate.findByCrimeType(crimeType);
+    }
+
+    @Override
+    public List<Crime> findByLocation(String location) {
+        return delegate.findByLocation(location);
+    }
+
+    @Override
+    public List<Crime> findByReporterId(String reporterId) {
+        return delegate.findByReporterId(reporterId);
+    }
+
+    @Override
+    public List<Crime> findByResolutionStatus(boolean isResolved) {
+        return delegate.findByResolutionStatus(isResolved);
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.findByReportedAtBetween(from, to);
+    }
+
+    @Override
+    public List<Crime> findByReportedAtBetweenOrderByReportedAtDesc(LocalDateTime from, LocalDateTime to) {
+        return delegate.findByReportedAtBetweenOrderByReportedAtDesc(from, to);
+    }
+
+    @Override
+    public List<Crime> searchDescriptions(String query) {
+        return delegate.searchDescriptions(query);
+    }
+
+    @Override
+    public List<Crime> findMatching(Predicate<? super Crime> predicate) {
+        return delegate.findMatching(predicate);
+    }
+
+    @Override
+    public List<Crime> find(CrimeQuery query) {
+        return delegate.find(query);
+    }
+
+    @Override
+    public Stream<Crime> stream(CrimeQuery query) {
+        return delegate.stream(query);
+    }
+
+    @Override
+    public Page<Crime> findPage(CrimeQuery query, int limit, String continuationToken) {
+        return delegate.findPage(query, limit, continuationToken);
+    }
+
+    @Override
+    public CrimeHotspots hotspots() {
+        return delegate.hotspots();
+    }
+
+    /**
+     * Returns the delegate's feed. Changes replayed from the log when the repository is
+     * opened are applied to the delegate, so they are published like any other change.
+     */
+    @Override
+    public CrimeChangeFeed changes() {
+        return delegate.changes();
+    }
+
+    @Override
+    public CrimeStatistics statistics() {
+        return delegate.statistics();
+    }
+
+    @Override
+    public <K> Map<K, CrimeRollup> groupBy(CrimeQuery query, Function<? super Crime, ? extends K> key) {
+        return delegate.groupBy(query, key);
+    }
+
+    /**
+     * Forces every record written so far to disk, regardless of the fsync policy.
+     */
+    public void sync() {
+        checkSynced();
+        try {
+            forceThrough(currentTicket());
+        } catch (IOException e) {
+            recordSyncFailure(e);
+            throw new UncheckedIOException("Failed to sync write-ahead log", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (flusher != null) {
+                stopFlusher();
+            }
+            try {
+                if (syncFailure == null && fsyncPolicy != FsyncPolicy.OS_MANAGED) {
+                    forceThrough(currentTicket());
+                }
+            } catch (IOException e) {
+                recordSyncFailure(e);
+                throw e;
+            } finally {
+                channel.close();
+            }
+            if (syncFailure != null) {
+                throw new IOException("Write-ahead log failed to sync; acknowledged writes may be lost", syncFailure);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long append(byte op, Crime crime, String id) {
+        int payloadSize = crime != null
+                ? CrimeRecordCodec.encodedSize(crime)
+                : Integer.BYTES + CrimeRecordCodec.utf8Length(id);
+        ByteBuffer buffer = beginRecord(op, payloadSize);
+        if (crime != null) {
+            CrimeRecordCodec.encode(crime, buffer);
+        } else {
+            CrimeRecordCodec.putString(buffer, id);
+        }
+        return writeRecord(buffer, payloadSize);
+    }
+
+    private long appendBatch(byte op, Collection<Crime> crimes, Collection<String> ids) {
+        int payloadSize = Integer.BYTES;
+        if (crimes != null) {
+            for (Crime crime : crimes) {
+                payloadSize += CrimeRecordCodec.encodedSize(crime);
+            }
+        } else {
+            for (String id : ids) {
+                payloadSize += Integer.BYTES + CrimeRecordCodec.utf8Length(id);
+            }
+        }
+        ByteBuffer buffer = beginRecord(op, payloadSize);
+        if (crimes != null) {
+            buffer.putInt(crimes.size());
+            for (Crime crime : crimes) {
+                CrimeRecordCodec.encode(crime, buffer);
+            }
+        } else {
+            buffer.putInt(ids.size());
+            for (String id : ids) {
+                CrimeRecordCodec.putString(buffer, id);
+            }
+        }
+        return writeRecord(buffer, payloadSize);
+    }
+
+    /**
+     * Logs only the new status and the IDs, never the crimes themselves. Single and batch
+     * status changes share one record type, since both replay as a batch.
+     */
+    private long appendResolution(boolean isResolved, Collection<String> ids) {
+        int payloadSize = 1 + Integer.BYTES;
+        for (String id : ids) {
+            payloadSize += Integer.BYTES + CrimeRecordCodec.utf8Length(id);
+        }
+        ByteBuffer buffer = beginRecord(OP_MARK_RESOLVED, payloadSize);
+        buffer.put((byte) (isResolved ? 1 : 0));
+        buffer.putInt(ids.size());
+        for (String id : ids) {
+            CrimeRecordCodec.putString(buffer, id);
+        }
+        return writeRecord(buffer, payloadSize);
+    }
+
+    /**
+     * Fails a write before it reaches the delegate once the log cannot take its record.
+     */
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        checkSynced();
+    }
+
+    private ByteBuffer beginRecord(byte op, int payloadSize) {
+        int recordSize = RECORD_HEADER_SIZE + payloadSize;
+        if (recordBuffer.capacity() < recordSize) {
+            recordBuffer = ByteBuffer.allocate(Math.max(recordSize, recordBuffer.capacity() * 2));
+        }
+
+        ByteBuffer buffer = recordBuffer;
+        buffer.clear();
+        buffer.putInt(payloadSize);
+        buffer.putInt(0);
+        buffer.put(op);
+        return buffer;
+    }
+
+    /**
+     * Writes a finished record and returns its ticket, the number a group commit writer
+     * waits on.
+     */
+    private long writeRecord(ByteBuffer buffer, int payloadSize) {
+        crc.reset();
+        crc.update(buffer.array(), 2 * Integer.BYTES, 1 + payloadSize);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsyncPolicy == FsyncPolicy.EVERY_OPERATION) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            recordSyncFailure(e);
+            throw new UncheckedIOException("Failed to append to write-ahead log", e);
+        }
+
+        commitLock.lock();
+        try {
+            written.signal();
+            return ++writtenTicket;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Runs on the flusher thread: forces the log once records are waiting, so every record
+     * written during one force is covered by the next.
+     */
+    private void groupCommit() {
+        while (true) {
+            long ticket;
+            commitLock.lock();
+            try {
+                while (!closed && syncFailure == null && writtenTicket == committedTicket) {
+                    written.awaitUninterruptibly();
+                }
+                if (closed || syncFailure != null) {
+                    return;
+                }
+                ticket = writtenTicket;
+            } finally {
+                commitLock.unlock();
+            }
+            try {
+                forceThrough(ticket);
+            } catch (IOException e) {
+                // A later force succeeding would not bring back pages the failed one dropped
+                recordSyncFailure(e);
+                return;
+            }
+        }
+    }
+
+    private void stopFlusher() {
+        commitLock.lock();
+        try {
+            written.signal();
+        } finally {
+            commitLock.unlock();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long currentTicket() {
+        commitLock.lock();
+        try {
+            return writtenTicket;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the log and releases every writer waiting on {@code ticket} or earlier.
+     */
+    private void forceThrough(long ticket) throws IOException {
+        channel.force(false);
+        commitLock.lock();
+        try {
+            if (ticket > committedTicket) {
+                committedTicket = ticket;
+            }
+            committed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks a group commit writer until a force covers its record, or fails once a
+     * write or force has.
+     */
+    private void awaitCommit(long ticket) {
+        if (fsyncPolicy != FsyncPolicy.GROUP_COMMIT) {
+            return;
+        }
+        commitLock.lock();
+        try {
+            while (committedTicket < ticket && syncFailure == null) {
+                committed.awaitUninterruptibly();
+            }
+            if (committedTicket >= ticket) {
+                return;
+            }
+        } finally {
+            commitLock.unlock();
+        }
+        checkSynced();
+    }
+
+    private void recordSyncFailure(IOException e) {
+        commitLock.lock();
+        try {
+            if (syncFailure == null) {
+                syncFailure = e;
+            }
+            committed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void checkSynced() {
+        IOException failure = syncFailure;
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed to sync; acknowledged writes may be lost", failure);
+        }
+    }
+
+    private void replay() throws IOException {
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(false);
+            return;
+        }
+
+        channel.position(0);
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+        DataInputStream data = new DataInputStream(in);
+        if (channel.size() < HEADER_SIZE || data.readInt() != MAGIC) {
+            throw new IllegalStateException("Not a crime write-ahead log");
+        }
+        short version = data.readShort();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported write-ahead log version " + version);
+        }
+
+        long validEnd = HEADER_SIZE;
+        long fileSize = channel.size();
+        CRC32 checksum = new CRC32();
+        byte[] payload = new byte[4096];
+        while (validEnd + RECORD_HEADER_SIZE <= fileSize) {
+            int payloadSize;
+            int expectedCrc;
+            byte op;
+            try {
+                payloadSize = data.readInt();
+                expectedCrc = data.readInt();
+                op = data.readByte();
+                if (payloadSize < 0 || validEnd + RECORD_HEADER_SIZE + payloadSize > fileSize) {
+                    break;
+                }
+                if (payload.length < payloadSize) {
+                    payload = new byte[Math.max(payloadSize, payload.length * 2)];
+                }
+                data.readFully(payload, 0, payloadSize);
+            } catch (EOFException e) {
+                break;
+            }
+
+            checksum.reset();
+            checksum.update(op);
+            checksum.update(payload, 0, payloadSize);
+            if ((int) checksum.getValue() != expectedCrc) {
+                break;
+            }
+            apply(op, ByteBuffer.wrap(payload, 0, payloadSize));
+            validEnd += RECORD_HEADER_SIZE + payloadSize;
+        }
+
+        if (validEnd < fileSize) {
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+    }
+
+    private void apply(byte op, ByteBuffer payload) {
+        switch (op) {
+            case OP_CREATE:
+                delegate.create(CrimeRecordCodec.decode(payload));
+                break;
+            case OP_UPDATE:
+                delegate.update(CrimeRecordCodec.decode(payload));
+                break;
+            case OP_DELETE:
+                delegate.delete(CrimeRecordCodec.getString(payload));
+                break;
+            case OP_CREATE_ALL:
+                delegate.createAll(decodeCrimes(payload));
+                break;
+            case OP_UPDATE_ALL:
+                delegate.updateAll(decodeCrimes(payload));
+                break;
+            case OP_DELETE_ALL:
+                delegate.deleteAll(decodeIds(payload));
+                break;
+            case OP_MARK_RESOLVED:
+                boolean isResolved = payload.get() != 0;
+                delegate.markAllResolved(decodeIds(payload), isResolved);
+                break;
+            default:
+                throw new IllegalStateException("Unknown write-ahead log operation " + op);
+        }
+    }
+
+    private static List<Crime> decodeCrimes(ByteBuffer payload) {
+        int count = payload.getInt();
+        List<Crime> crimes = new ArrayList<Crime>(count);
+        for (int i = 0; i < count; i++) {
+            crimes.add(CrimeRecordCodec.decode(payload));
+        }
+        return crimes;
+    }
+
+    private static List<String> decodeIds(ByteBuffer payload) {
+        int count = payload.getInt();
+        List<String> ids = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(CrimeRecordCodec.getString(payload));
+        }
+        return ids;
+    }
+
+    /**
+     * Opens the log file's channel; tests substitute one that controls when forces finish.
+     */
+    interface ChannelOpener {
+        FileChannel open(Path logFile) throws IOException;
+    }
+
+    public static class Builder {
+        private Path logFile;
+        private CrimeRepository delegate;
+        private FsyncPolicy fsyncPolicy;
+        private ChannelOpener channelOpener = logFile -> FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        public Builder() {
+            this.fsyncPolicy = FsyncPolicy.GROUP_COMMIT;
+        }
+
+        public Builder withLogFile(Path logFile) {
+            this.logFile = logFile;
+            return this;
+        }
+
+        /**
+         * Sets the in-memory repository the log is replayed into and writes are applied to.
+         * Required; the log should own it, so it is never shared with other writers.
+         */
+        public Builder withDelegate(CrimeRepository delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        public Builder withFsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+            return this;
+        }
+
+        // Method for testing purposes
+        Builder withChannelOpener(ChannelOpener channelOpener) {
+            this.channelOpener = channelOpener;
+            return this;
+        }
+
+        public WalCrimeRepositoryImpl build() {
+            if (logFile == null) {
+                throw new IllegalStateException("Log file cannot be null");
+            }
+            if (delegate == null) {
+                throw new IllegalStateException("Delegate repository cannot be null");
+            }
+            if (fsyncPolicy == null) {
+                throw new IllegalStateException("Fsync policy cannot be null");
+            }
+
+            try {
+                return new WalCrimeRepositoryImpl(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open write-ahead log " + logFile, e);
+            }
+        }
+    }
+}
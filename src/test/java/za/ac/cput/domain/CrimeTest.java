@@ -4,6 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -191,6 +197,8 @@ public class CrimeTest {
 
         assertEquals(crime1, crime2);
         assertEquals(crime1.hashCode(), crime2.hashCode());
+        assertEquals(Objects.hash(id, description, location, reportedAt, crimeType, reporterId, false),
+                crime1.hashCode(), "Cached hash should keep the Objects.hash value");
     }
 
     @Test
@@ -216,4 +224,122 @@ public class CrimeTest {
 
         assertNotEquals(crime1, crime2);
     }
+
+    @Test
+    public void testTimeOrderedIds_withVariousReportTimes_shouldSortByReportTime(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+
+        System.out.println("STEP: Generating IDs for report times out of order, many sharing a millisecond");
+        CrimeIdGenerator generator = CrimeIdGenerator.timeOrdered();
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 0);
+        List<LocalDateTime> times = new ArrayList<LocalDateTime>();
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime reportedAt = start.plusSeconds((i * 7919L) % 600);
+            times.add(reportedAt);
+            ids.add(generator.nextId(reportedAt));
+        }
+
+        System.out.println("STEP: Verifying IDs are unique version 7 UUIDs ordered by report time");
+        Set<String> unique = new HashSet<String>(ids);
+        assertEquals(ids.size(), unique.size(), "IDs should be unique");
+        for (int i = 0; i < ids.size(); i++) {
+            UUID uuid = UUID.fromString(ids.get(i));
+            assertEquals(7, uuid.version(), "ID should be a version 7 UUID");
+            assertEquals(2, uuid.variant(), "ID should use the RFC variant");
+            assertEquals(uuid.toString(), ids.get(i), "ID should be canonical");
+            for (int j = i + 1; j < Math.min(ids.size(), i + 50); j++) {
+                int byTime = times.get(i).compareTo(times.get(j));
+                int byId = ids.get(i).compareTo(ids.get(j));
+                assertEquals(Integer.signum(byTime), Integer.signum(byId), "IDs should sort by report time");
+            }
+        }
+        String previous = generator.nextId(start);
+        for (int i = 0; i < 1000; i++) {
+            String next = generator.nextId(start);
+            assertTrue(previous.compareTo(next) < 0, "IDs for the same time should increase");
+            previous = next;
+        }
+        assertNotNull(generator.nextId(null), "Crime without a report time should still get an ID");
+
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testCrimeBuilder_withIdGenerators_shouldGenerateLazily(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+
+        System.out.println("STEP: Building with an explicit ID (generator should not run)");
+        int[] calls = new int[1];
+        CrimeIdGenerator counting = reportedAt -> "generated-" + ++calls[0];
+        Crime withId = new Crime.Builder()
+                .withIdGenerator(counting)
+                .withId("crime-123")
+                .withDescription("Stolen laptop")
+                .withLocation("Library")
+                .withCrimeType(CrimeType.THEFT)
+                .withReporterId("citizen123")
+                .build();
+        assertEquals("crime-123", withId.getId(), "Explicit ID should be kept");
+        assertEquals(0, calls[0], "Generator should not run when an ID is given");
+
+        System.out.println("STEP: Building with a per-builder generator, then with a new default");
+        Crime generated = new Crime.Builder()
+                .withIdGenerator(counting)
+                .withDescription("Stolen laptop")
+                .withLocation("Library")
+                .withCrimeType(CrimeType.THEFT)
+                .withReporterId("citizen123")
+                .build();
+        assertEquals("generated-1", generated.getId(), "Builder generator should be used");
+        CrimeIdGenerator previous = Crime.Builder.getDefaultIdGenerator();
+        try {
+            Crime.Builder.setDefaultIdGenerator(CrimeIdGenerator.randomUuid());
+            Crime random = new Crime.Builder()
+                    .withDescription("Broken window")
+                    .withLocation("Library")
+                    .withCrimeType(CrimeType.VANDALISM)
+                    .withReporterId("citizen456")
+                    .build();
+            assertEquals(4, UUID.fromString(random.getId()).version(), "Default generator should be used");
+        } finally {
+            Crime.Builder.setDefaultIdGenerator(previous);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Crime.Builder.setDefaultIdGenerator(null));
+
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testCrimeOf_shouldValidateLikeBuilderAndShareReportTimes(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+
+        System.out.println("STEP: Creating a crime without a builder");
+        LocalDateTime reportedAt = LocalDateTime.of(2024, 3, 1, 9, 30);
+        Crime crime = Crime.of("Stolen laptop", "Library", CrimeType.THEFT, "citizen123", reportedAt, true);
+        assertNotNull(crime.getId(), "Crime should get a generated ID");
+        assertEquals(reportedAt, crime.getReportedAt(), "Report time should be kept");
+        assertTrue(crime.isResolved(), "Resolution status should be kept");
+
+        System.out.println("STEP: Rejecting blank fields, including whitespace-only ones");
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> Crime.of(" \t\n", "Library", CrimeType.THEFT, "citizen123", reportedAt, false));
+        assertEquals("Description cannot be empty", exception.getMessage());
+        exception = assertThrows(IllegalStateException.class,
+                () -> new Crime.Builder()
+                        .withDescription("Stolen laptop")
+                        .withLocation("Library")
+                        .withCrimeType(CrimeType.THEFT)
+                        .withReporterId("  ")
+                        .build());
+        assertEquals("Reporter ID cannot be empty", exception.getMessage());
+
+        System.out.println("STEP: Reading the report clock twice in quick succession");
+        LocalDateTime first = ReportClock.now();
+        LocalDateTime second = ReportClock.now();
+        assertFalse(second.isBefore(first), "Report clock should not go backwards");
+        assertEquals(0, first.getNano() % 1_000_000, "Report times should be whole milliseconds");
+
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
 }
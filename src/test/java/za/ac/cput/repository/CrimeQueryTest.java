@@ -0,0 +1,62 @@
+package za.ac.cput.repository;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrimeQueryTest {
+
+    @Test
+    public void testMatches_withEveryCriterion_shouldRequireAllOfThem(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+
+        System.out.println("STEP: Preparing a crime and a query matching it on every criterion");
+        LocalDateTime reportedAt = LocalDateTime.of(2025, 3, 28, 10, 15);
+        Crime burglary = CrimeFactory.createCrimeWithTime("Break-in", "Woodstock Main Rd", CrimeType.BURGLARY,
+                "citizen123", reportedAt);
+        CrimeQuery query = new CrimeQuery.Builder()
+                .withCrimeType(CrimeType.BURGLARY)
+                .withLocation("WOODSTOCK")
+                .withReporterId("citizen123")
+                .isResolved(false)
+                .withReportedAtBetween(reportedAt.minusDays(7), reportedAt)
+                .build();
+        System.out.println("Query: " + query);
+
+        System.out.println("STEP: Verifying the crime matches");
+        assertTrue(query.matches(burglary), "Crime should match every criterion");
+
+        System.out.println("STEP: Verifying each criterion on its own can reject the crime");
+        assertFalse(new CrimeQuery.Builder().withCrimeType(CrimeType.THEFT).build().matches(burglary));
+        assertFalse(new CrimeQuery.Builder().withLocation("Sea Point").build().matches(burglary));
+        assertFalse(new CrimeQuery.Builder().withReporterId("citizen456").build().matches(burglary));
+        assertFalse(new CrimeQuery.Builder().isResolved(true).build().matches(burglary));
+        assertFalse(new CrimeQuery.Builder().withReportedAtBetween(reportedAt.plusSeconds(1), reportedAt.plusDays(1))
+                .build().matches(burglary));
+        assertTrue(new CrimeQuery.Builder().build().matches(burglary), "Empty query should match every crime");
+
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testBuild_withInvalidCriteria_shouldThrowException(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+        LocalDateTime now = LocalDateTime.now();
+
+        System.out.println("STEP: Building queries with blank strings or a bad time range (should throw exception)");
+        assertThrows(IllegalStateException.class, () -> new CrimeQuery.Builder().withLocation(" ").build());
+        assertThrows(IllegalStateException.class, () -> new CrimeQuery.Builder().withReporterId("").build());
+        assertThrows(IllegalStateException.class,
+                () -> new CrimeQuery.Builder().withReportedAtBetween(now, null).build());
+        assertThrows(IllegalStateException.class,
+                () -> new CrimeQuery.Builder().withReportedAtBetween(now, now.minusDays(1)).build());
+
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+}
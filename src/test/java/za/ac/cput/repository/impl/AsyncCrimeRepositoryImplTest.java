@@ -0,0 +1,133 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+import za.ac.cput.repository.CrimeQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncCrimeRepositoryImplTest {
+
+    private CrimeRepositoryImpl delegate;
+
+    @BeforeEach
+    public void setUp(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+        delegate = CrimeRepositoryImpl.getRepository();
+        delegate.clearRepository();
+        System.out.println("Repository cleared for clean test environment");
+    }
+
+    @AfterEach
+    public void tearDown(TestInfo testInfo) {
+        delegate.clearRepository();
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testCreate_withManyInFlight_shouldCoalesceIntoOneWriterTask(TestInfo testInfo) {
+        Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+        AsyncCrimeRepositoryImpl repository = new AsyncCrimeRepositoryImpl.Builder()
+                .withDelegate(delegate)
+                .withExecutor(tasks::add)
+                .withMaxBatchSize(64)
+                .build();
+
+        System.out.println("STEP: Issuing creates before the executor runs anything");
+        List<Crime> crimes = new ArrayList<Crime>();
+        List<CompletableFuture<Crime>> futures = new ArrayList<CompletableFuture<Crime>>();
+        for (int i = 0; i < 100; i++) {
+            Crime crime = CrimeFactory.createCrime("Theft " + i, "Location " + (i % 7), CrimeType.THEFT, "reporter" + i);
+            crimes.add(crime);
+            futures.add(repository.create(crime));
+        }
+        assertEquals(1, tasks.size(), "Queued creates should share one writer task");
+        assertTrue(futures.stream().noneMatch(CompletableFuture::isDone), "Nothing should be written yet");
+
+        System.out.println("STEP: Running the writer task");
+        tasks.poll().run();
+        assertTrue(tasks.isEmpty(), "The writer should have drained the queue");
+        for (int i = 0; i < crimes.size(); i++) {
+            assertEquals(crimes.get(i), futures.get(i).join(), "Create " + i + " should complete with its crime");
+        }
+        assertEquals(100, delegate.readAll().size(), "Every create should be applied");
+
+        System.out.println("STEP: Creating again once the writer is idle");
+        CompletableFuture<Crime> later = repository.create(CrimeFactory.createCrime("Late theft", "Station",
+                CrimeType.THEFT, "reporter"));
+        assertEquals(1, tasks.size(), "An idle writer should be scheduled again");
+        tasks.poll().run();
+        assertTrue(later.isDone(), "Create should complete");
+    }
+
+    @Test
+    public void testCreate_withFailingItemInBatch_shouldFailOnlyThatCreate(TestInfo testInfo) {
+        Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+        AsyncCrimeRepositoryImpl repository = new AsyncCrimeRepositoryImpl.Builder()
+                .withDelegate(delegate)
+                .withExecutor(tasks::add)
+                .build();
+        Crime existing = delegate.create(CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123"));
+        Crime fraud = CrimeFactory.createCrime("Card fraud", "Online shop", CrimeType.FRAUD, "citizen456");
+        Crime graffiti = CrimeFactory.createCrime("Graffiti", "Station", CrimeType.VANDALISM, "citizen789");
+
+        System.out.println("STEP: Coalescing a duplicate with two new crimes");
+        CompletableFuture<Crime> first = repository.create(fraud);
+        CompletableFuture<Crime> duplicate = repository.create(existing);
+        CompletableFuture<Crime> last = repository.create(graffiti);
+        tasks.poll().run();
+
+        System.out.println("STEP: Verifying each create got its own outcome");
+        assertEquals(fraud, first.join());
+        assertEquals(graffiti, last.join());
+        ExecutionException failure = assertThrows(ExecutionException.class, duplicate::get);
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause(), "Duplicate should fail like a lone create");
+        assertEquals(3, delegate.readAll().size(), "Both new crimes should be applied");
+    }
+
+    @Test
+    public void testOperations_onDefaultExecutor_shouldCompleteWithSynchronousResults(TestInfo testInfo) throws Exception {
+        AsyncCrimeRepositoryImpl repository = new AsyncCrimeRepositoryImpl.Builder().withDelegate(delegate).build();
+        Crime theft = CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123");
+
+        System.out.println("STEP: Chaining writes and reads");
+        Crime created = repository.create(theft).get(5, TimeUnit.SECONDS);
+        assertEquals(theft, created);
+        assertEquals(theft, repository.read(theft.getId()).get(5, TimeUnit.SECONDS).orElse(null));
+        assertTrue(repository.markResolved(theft.getId(), true).get(5, TimeUnit.SECONDS));
+        List<Crime> resolved = repository.find(new CrimeQuery.Builder().isResolved(true).build()).get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(theft.withResolved(true)), resolved, "Resolved crime should be found");
+        assertTrue(repository.delete(theft.getId()).get(5, TimeUnit.SECONDS));
+        assertTrue(repository.readAll().get(5, TimeUnit.SECONDS).isEmpty());
+        assertSame(delegate, repository.blocking());
+
+        System.out.println("STEP: Failing invalid and post-close operations through their futures");
+        assertInstanceOf(IllegalArgumentException.class,
+                assertThrows(ExecutionException.class, () -> repository.create(null).get()).getCause());
+        assertInstanceOf(IllegalArgumentException.class,
+                assertThrows(ExecutionException.class, () -> repository.read(" ").get(5, TimeUnit.SECONDS)).getCause());
+        repository.close();
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, () -> repository.create(theft).get()).getCause());
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, () -> repository.readAll().get()).getCause());
+        assertThrows(IllegalStateException.class, () -> new AsyncCrimeRepositoryImpl.Builder()
+                .withDelegate(delegate).withMaxBatchSize(0).build());
+        assertThrows(IllegalStateException.class, () -> new AsyncCrimeRepositoryImpl.Builder().build(),
+                "A delegate should be required");
+    }
+}
@@ -0,0 +1,292 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+import za.ac.cput.repository.CrimeQuery;
+import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.Page;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarCrimeRepositoryImplTest {
+
+    private ColumnarCrimeRepositoryImpl repository;
+    private CrimeRepositoryImpl reference;
+
+    @BeforeEach
+    public void setUp(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+        repository = ColumnarCrimeRepositoryImpl.getRepository();
+        repository.clearRepository();
+        reference = CrimeRepositoryImpl.getRepository();
+        reference.clearRepository();
+        System.out.println("Repositories cleared for clean test environment");
+    }
+
+    @AfterEach
+    public void tearDown(TestInfo testInfo) {
+        repository.clearRepository();
+        reference.clearRepository();
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testCreateAndRead_withUuidAndCustomIds_shouldRoundTripExactly(TestInfo testInfo) {
+        System.out.println("STEP: Creating crimes with a generated UUID, an uppercase UUID and a custom ID");
+        Crime generated = CrimeFactory.createCrimeWithTime("Bike theft", "City park", CrimeType.THEFT, "citizen123",
+                LocalDateTime.of(2025, 3, 28, 10, 15, 30, 123456789));
+        Crime uppercase = withId(generated, generated.getId().toUpperCase());
+        Crime custom = withId(generated, "case-0042");
+        repository.create(generated);
+        repository.create(uppercase);
+        repository.create(custom);
+
+        System.out.println("STEP: Reading every crime back by ID");
+        assertEquals(generated, repository.read(generated.getId()).orElse(null), "UUID crime should round-trip");
+        assertEquals(uppercase, repository.read(uppercase.getId()).orElse(null), "Uppercase ID should round-trip");
+        assertEquals(custom, repository.read("case-0042").orElse(null), "Custom ID should round-trip");
+        assertFalse(repository.read("non-existing-id").isPresent(), "Unknown ID should not be found");
+
+        System.out.println("STEP: Creating a duplicate (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.create(generated));
+        assertThrows(IllegalArgumentException.class, () -> repository.create(custom));
+
+        System.out.println("STEP: Deleting the first crime so the last one moves into its row");
+        assertTrue(repository.delete(generated.getId()), "Delete should return true");
+        assertFalse(repository.read(generated.getId()).isPresent(), "Deleted crime should not be found");
+        assertEquals(custom, repository.read("case-0042").orElse(null), "Moved crime should still be found");
+        assertEquals(2, repository.readAll().size(), "Two crimes should remain");
+    }
+
+    @Test
+    public void testFinders_afterRandomOperations_shouldMatchObjectRepository(TestInfo testInfo) {
+        System.out.println("STEP: Applying the same 5000 random operations to both repositories");
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || ids.isEmpty()) {
+                Crime crime = randomCrime(random, null);
+                repository.create(crime);
+                reference.create(crime);
+                ids.add(crime.getId());
+            } else if (operation < 8) {
+                Crime crime = randomCrime(random, ids.get(random.nextInt(ids.size())));
+                repository.update(crime);
+                reference.update(crime);
+            } else {
+                String id = ids.remove(random.nextInt(ids.size()));
+                assertEquals(reference.delete(id), repository.delete(id), "Delete results should match");
+            }
+        }
+
+        System.out.println("STEP: Comparing every finder with the object repository");
+        assertSameCrimes(reference.readAll(), repository.readAll());
+        for (CrimeType crimeType : CrimeType.values()) {
+            assertSameCrimes(reference.findByCrimeType(crimeType), repository.findByCrimeType(crimeType));
+        }
+        for (String location : new String[]{"cbd", "Point", "wood", "x"}) {
+            assertSameCrimes(reference.findByLocation(location), repository.findByLocation(location));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertSameCrimes(reference.findByReporterId("officer" + i), repository.findByReporterId("officer" + i));
+        }
+        assertSameCrimes(reference.findByResolutionStatus(true), repository.findByResolutionStatus(true));
+        assertSameCrimes(reference.findByResolutionStatus(false), repository.findByResolutionStatus(false));
+        LocalDateTime start = LocalDateTime.of(2025, 1, 3, 0, 0);
+        assertSameCrimes(reference.findByReportedAtBetween(start, start.plusDays(2)),
+                repository.findByReportedAtBetween(start, start.plusDays(2)));
+        CrimeQuery query = new CrimeQuery.Builder()
+                .withCrimeType(CrimeType.BURGLARY)
+                .withLocation("point")
+                .isResolved(false)
+                .withReportedAtBetween(start, start.plusDays(5))
+                .build();
+        assertSameCrimes(reference.find(query), repository.find(query));
+        CrimeQuery byReporter = new CrimeQuery.Builder().withReporterId("officer3").isResolved(true).build();
+        assertSameCrimes(reference.find(byReporter), repository.find(byReporter));
+        assertSameCrimes(reference.find(query), repository.stream(query).collect(Collectors.toList()));
+        assertSamePages(reference, repository, new CrimeQuery.Builder().withLocation("point").build());
+        assertSameCrimes(reference.findMatching(crime -> crime.getDescription().endsWith("7")),
+                repository.findMatching(crime -> crime.getDescription().endsWith("7")));
+        CrimeRepositoryImplTest.assertSameStatistics(reference.readAll(), repository.statistics());
+        for (String search : new String[]{"Crime 7 OR \"Crime 12\"", "crime", "\"crime 999\" OR 5 OR 42"}) {
+            assertEquals(reference.searchDescriptions(search), repository.searchDescriptions(search),
+                    "Search results should match in rank order");
+        }
+        assertSameRollups(reference.groupBy(byReporter, Crime::getLocation), repository.groupBy(byReporter, Crime::getLocation));
+        for (String id : ids) {
+            assertEquals(reference.read(id), repository.read(id), "Read by ID should match");
+        }
+    }
+
+    @Test
+    public void testCreate_withoutReportTime_shouldMatchObjectRepository(TestInfo testInfo) {
+        Crime untimed = CrimeFixtures.untimedCrime();
+        Crime timed = CrimeFixtures.timedCrime();
+
+        System.out.println("STEP: Storing crimes with and without a report time in both repositories");
+        for (CrimeRepository target : List.<CrimeRepository>of(repository, reference)) {
+            target.create(untimed);
+            target.create(timed);
+        }
+        assertEquals(untimed, repository.read(untimed.getId()).orElse(null), "Null time should round-trip");
+
+        System.out.println("STEP: Comparing time queries and pages");
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 12, 31, 0, 0);
+        assertEquals(reference.findByReportedAtBetween(from, to), repository.findByReportedAtBetween(from, to));
+        CrimeQuery inRange = new CrimeQuery.Builder().withReportedAtBetween(from, to).build();
+        assertEquals(reference.find(inRange), repository.find(inRange), "Untimed crime should be out of range");
+        assertSamePages(reference, repository, new CrimeQuery.Builder().build());
+        assertEquals(2, repository.find(new CrimeQuery.Builder().build()).size(), "Open query should match both");
+    }
+
+    static void assertSamePages(CrimeRepository expected, CrimeRepository actual, CrimeQuery query) {
+        String expectedToken = null;
+        String actualToken = null;
+        do {
+            Page<Crime> expectedPage = expected.findPage(query, 25, expectedToken);
+            Page<Crime> actualPage = actual.findPage(query, 25, actualToken);
+            assertEquals(expectedPage.getItems(), actualPage.getItems(), "Pages should match");
+            expectedToken = expectedPage.getContinuationToken();
+            actualToken = actualPage.getContinuationToken();
+        } while (expectedToken != null && actualToken != null);
+        assertNull(expectedToken, "Both repositories should run out of pages together");
+        assertNull(actualToken, "Both repositories should run out of pages together");
+    }
+
+    static <K> void assertSameRollups(Map<K, CrimeRollup> expected, Map<K, CrimeRollup> actual) {
+        assertEquals(expected.keySet(), actual.keySet(), "Groups should match");
+        for (K key : expected.keySet()) {
+            assertEquals(expected.get(key).toString(), actual.get(key).toString(), "Rollup of " + key + " should match");
+        }
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites_shouldNeverObserveMovingStorage(TestInfo testInfo) throws Exception {
+        System.out.println("STEP: Running writers that grow the columns alongside readers");
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Thread> readers = new ArrayList<Thread>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (writing.get()) {
+                        for (Crime crime : repository.readAll()) {
+                            assertNotNull(crime.getId());
+                        }
+                        repository.find(new CrimeQuery.Builder().withCrimeType(CrimeType.THEFT).build());
+                        repository.findByReporterId("writer0");
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        List<Thread> writers = new ArrayList<Thread>();
+        for (int w = 0; w < 2; w++) {
+            String reporter = "writer" + w;
+            writers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        Crime crime = repository.create(CrimeFactory.createCrime("Crime " + i, "Location " + (i % 50),
+                                CrimeType.values()[i % CrimeType.values().length], reporter));
+                        if (i % 2 == 0) {
+                            repository.update(withDescription(crime, "Updated " + i));
+                        } else {
+                            repository.delete(crime.getId());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        System.out.println("STEP: Verifying no thread failed and every write landed");
+        assertNull(failure.get(), () -> "No reader or writer should fail: " + failure.get());
+        assertEquals(2000, repository.readAll().size(), "Half of the created crimes should remain");
+
+        System.out.println("STEP: Writing while a stream is consumed (should throw exception)");
+        Iterator<Crime> streamed = repository.stream(new CrimeQuery.Builder().build()).iterator();
+        streamed.next();
+        repository.create(CrimeFactory.createCrime("Late", "Station", CrimeType.OTHER, "late"));
+        assertThrows(ConcurrentModificationException.class, () -> {
+            while (streamed.hasNext()) {
+                streamed.next();
+            }
+        });
+    }
+
+    private static void assertSameCrimes(List<Crime> expected, List<Crime> actual) {
+        assertEquals(expected.size(), actual.size(), "Result sizes should match");
+        assertEquals(new HashSet<Crime>(expected), new HashSet<Crime>(actual), "Results should match");
+    }
+
+    private static Crime randomCrime(Random random, String id) {
+        String[] locations = {"Cape Town CBD", "Woodstock", "Sea Point", "Green Point", "Observatory"};
+        Crime.Builder builder = new Crime.Builder()
+                .withDescription("Crime " + random.nextInt(1000))
+                .withLocation(locations[random.nextInt(locations.length)])
+                .withCrimeType(CrimeType.values()[random.nextInt(CrimeType.values().length)])
+                .withReporterId("officer" + random.nextInt(20))
+                .withReportedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(random.nextInt(1_000_000)))
+                .isResolved(random.nextBoolean());
+        if (id != null) {
+            builder.withId(id);
+        }
+        return builder.build();
+    }
+
+    private static Crime withId(Crime crime, String id) {
+        return new Crime.Builder()
+                .withId(id)
+                .withDescription(crime.getDescription())
+                .withLocation(crime.getLocation())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .withReportedAt(crime.getReportedAt())
+                .isResolved(crime.isResolved())
+                .build();
+    }
+
+    private static Crime withDescription(Crime crime, String description) {
+        return new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(description)
+                .withLocation(crime.getLocation())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .withReportedAt(crime.getReportedAt())
+                .isResolved(crime.isResolved())
+                .build();
+    }
+}
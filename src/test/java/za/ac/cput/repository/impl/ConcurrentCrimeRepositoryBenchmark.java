@@ -0,0 +1,89 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark for {@link ConcurrentCrimeRepositoryImpl} with 1 to 32 threads.
+ * Each thread runs a mix of 10% creates, 10% updates and 80% reads against a pre-loaded
+ * store and the scaling factor relative to a single thread is printed per thread count.
+ * Run with: {@code java -cp target/classes:target/test-classes za.ac.cput.repository.impl.ConcurrentCrimeRepositoryBenchmark}
+ */
+public class ConcurrentCrimeRepositoryBenchmark {
+
+    private static final int PRELOADED_CRIMES = 100_000;
+    private static final long MEASUREMENT_MILLIS = 2_000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentCrimeRepositoryImpl repository = ConcurrentCrimeRepositoryImpl.getRepository();
+        repository.clearRepository();
+        List<String> ids = new ArrayList<String>(PRELOADED_CRIMES);
+        for (int i = 0; i < PRELOADED_CRIMES; i++) {
+            Crime crime = CrimeFactory.createCrime("Crime " + i, "Location " + (i % 1000),
+                    CrimeType.values()[i % CrimeType.values().length], "reporter" + (i % 5000));
+            repository.create(crime);
+            ids.add(crime.getId());
+        }
+        String[] idArray = ids.toArray(new String[0]);
+
+        System.out.println("threads,ops_per_second,scaling");
+        double singleThreadThroughput = 0;
+        for (int threads : THREAD_COUNTS) {
+            double throughput = measure(repository, idArray, threads);
+            if (threads == 1) {
+                singleThreadThroughput = throughput;
+            }
+            System.out.printf("%d,%.0f,%.2f%n", threads, throughput, throughput / singleThreadThroughput);
+        }
+        repository.clearRepository();
+    }
+
+    private static double measure(ConcurrentCrimeRepositoryImpl repository, String[] ids, int threads)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while (System.nanoTime() < deadline[0]) {
+                    int dice = random.nextInt(10);
+                    String id = ids[random.nextInt(ids.length)];
+                    if (dice == 0) {
+                        repository.create(CrimeFactory.createCrime("Benchmark crime", "Benchmark location",
+                                CrimeType.OTHER, "benchmark"));
+                    } else if (dice == 1) {
+                        repository.update(id, c -> c);
+                    } else {
+                        repository.read(id);
+                    }
+                    done++;
+                }
+                operations.add(done);
+            });
+            workers[t].start();
+        }
+        deadline[0] = System.nanoTime() + MEASUREMENT_MILLIS * 1_000_000L;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() * 1000.0 / MEASUREMENT_MILLIS;
+    }
+}
@@ -0,0 +1,263 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentCrimeRepositoryImplTest {
+
+    private static final int THREADS = 8;
+    private static final int CRIMES_PER_THREAD = 500;
+
+    private ConcurrentCrimeRepositoryImpl repository;
+    private Crime testCrime;
+
+    @BeforeEach
+    public void setUp(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+        repository = ConcurrentCrimeRepositoryImpl.getRepository();
+        repository.clearRepository();
+        System.out.println("Repository cleared for clean test environment");
+        testCrime = CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123");
+        System.out.println("Created test crime: " + testCrime.toString());
+    }
+
+    @AfterEach
+    public void tearDown(TestInfo testInfo) {
+        repository.clearRepository();
+        System.out.println("Repository cleared after test");
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testCreateReadUpdateDelete_withValidCrime_shouldFollowRepositoryContract(TestInfo testInfo) {
+        System.out.println("STEP: Creating a valid crime");
+        repository.create(testCrime);
+        assertEquals(testCrime, repository.read(testCrime.getId()).orElse(null), "Crime should be found by ID");
+
+        System.out.println("STEP: Creating a duplicate crime (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.create(testCrime));
+
+        System.out.println("STEP: Updating the crime to resolved");
+        Crime resolved = resolvedCopyOf(testCrime);
+        assertEquals(resolved, repository.update(resolved), "Update should return the new crime");
+        assertTrue(repository.read(testCrime.getId()).get().isResolved(), "Crime should be resolved");
+
+        System.out.println("STEP: Updating a non-existing crime (should throw exception)");
+        Crime nonExisting = CrimeFactory.createCrime("Unknown", "Nowhere", CrimeType.OTHER, "unknown");
+        assertThrows(IllegalArgumentException.class, () -> repository.update(nonExisting));
+
+        System.out.println("STEP: Deleting the crime");
+        assertTrue(repository.delete(testCrime.getId()), "Delete should return true");
+        assertFalse(repository.delete(testCrime.getId()), "Second delete should return false");
+        assertTrue(repository.readAll().isEmpty(), "Repository should be empty after deletion");
+    }
+
+    @Test
+    public void testUpdateById_withUpdater_shouldReplaceCrimeAtomically(TestInfo testInfo) {
+        System.out.println("STEP: Creating a crime and resolving it through the updater");
+        repository.create(testCrime);
+        Crime updated = repository.update(testCrime.getId(), ConcurrentCrimeRepositoryImplTest::resolvedCopyOf);
+        System.out.println("Updated crime: " + updated);
+        assertTrue(updated.isResolved(), "Updated crime should be resolved");
+
+        System.out.println("STEP: Updater returning a different ID (should throw exception)");
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.update(testCrime.getId(), c -> CrimeFactory.createCrime(
+                        c.getDescription(), c.getLocation(), c.getCrimeType(), c.getReporterId())));
+        assertEquals(updated, repository.read(testCrime.getId()).get(), "Failed update should leave crime unchanged");
+
+        System.out.println("STEP: Updating a missing ID (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.update("missing-id", c -> c));
+    }
+
+    @Test
+    public void testCreate_fromManyThreads_shouldKeepEveryCrime(TestInfo testInfo) throws Exception {
+        System.out.println("STEP: Creating " + THREADS * CRIMES_PER_THREAD + " crimes from " + THREADS + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Crime>>> futures = new ArrayList<Future<List<Crime>>>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Crime> created = new ArrayList<Crime>();
+                for (int i = 0; i < CRIMES_PER_THREAD; i++) {
+                    created.add(repository.create(CrimeFactory.createCrime(
+                            "Crime " + i, "Location " + i, CrimeType.THEFT, "reporter" + thread)));
+                }
+                return created;
+            }));
+        }
+        start.countDown();
+
+        List<Crime> allCreated = new ArrayList<Crime>();
+        for (Future<List<Crime>> future : futures) {
+            allCreated.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        System.out.println("STEP: Verifying no writes were lost");
+        assertEquals(THREADS * CRIMES_PER_THREAD, repository.readAll().size(), "Every crime should be stored");
+        for (Crime crime : allCreated) {
+            Optional<Crime> found = repository.read(crime.getId());
+            assertTrue(found.isPresent(), "Crime " + crime.getId() + " should be found");
+        }
+        assertEquals(CRIMES_PER_THREAD, repository.findByReporterId("reporter0").size(),
+                "Each reporter should have their own crimes");
+        CrimeRepositoryImplTest.assertSameStatistics(repository.readAll(), repository.statistics());
+    }
+
+    @Test
+    public void testUpdateById_fromManyThreads_shouldNotLoseUpdates(TestInfo testInfo) throws Exception {
+        System.out.println("STEP: Appending to one crime's description from " + THREADS + " threads");
+        repository.create(testCrime);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    repository.update(testCrime.getId(), c -> new Crime.Builder()
+                            .withId(c.getId())
+                            .withDescription(c.getDescription() + "+")
+                            .withLocation(c.getLocation())
+                            .withCrimeType(c.getCrimeType())
+                            .withReporterId(c.getReporterId())
+                            .withReportedAt(c.getReportedAt())
+                            .build());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        System.out.println("STEP: Verifying every update was applied");
+        String description = repository.read(testCrime.getId()).get().getDescription();
+        assertEquals(testCrime.getDescription().length() + THREADS * 100, description.length(),
+                "Every update should have been applied exactly once");
+        CrimeRepositoryImplTest.assertSameStatistics(repository.readAll(), repository.statistics());
+    }
+
+    @Test
+    public void testBatchesAndSingleWrites_fromManyThreads_shouldStayConsistent(TestInfo testInfo) throws Exception {
+        System.out.println("STEP: Running batches and single writes side by side from " + THREADS + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < THREADS; t++) {
+            final boolean batches = t % 2 == 0;
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (batches) {
+                        List<Crime> batch = new ArrayList<Crime>();
+                        List<String> ids = new ArrayList<String>();
+                        for (int j = 0; j < 10; j++) {
+                            Crime crime = CrimeFactory.createCrime("Batch " + i, "Location " + j, CrimeType.FRAUD, "reporter" + thread);
+                            batch.add(crime);
+                            ids.add(crime.getId());
+                        }
+                        assertTrue(repository.createAll(batch).isApplied(), "Batch create should apply");
+                        assertTrue(repository.markAllResolved(ids, true).isApplied(), "Batch resolve should apply");
+                        assertTrue(repository.deleteAll(ids).isApplied(), "Batch delete should apply");
+                    } else {
+                        Crime crime = repository.create(CrimeFactory.createCrime(
+                                "Single " + i, "Location " + i, CrimeType.THEFT, "reporter" + thread));
+                        assertTrue(repository.markResolved(crime.getId(), true), "Crime should be markable");
+                        assertTrue(repository.delete(crime.getId()), "Crime should be deletable");
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        System.out.println("STEP: Verifying every write was undone");
+        assertTrue(repository.readAll().isEmpty(), "Every crime should have been deleted");
+        CrimeRepositoryImplTest.assertSameStatistics(repository.readAll(), repository.statistics());
+    }
+
+    @Test
+    public void testSearchDescriptions_whileManyThreadsRewriteThem_shouldSeeFinalDescriptions(TestInfo testInfo) throws Exception {
+        System.out.println("STEP: Rewriting descriptions from " + THREADS + " threads while searching");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<Future<?>>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    Crime crime = repository.create(CrimeFactory.createCrime(
+                            "Draft report", "Location " + i, CrimeType.THEFT, "reporter" + thread));
+                    for (int revision = 0; revision < 10; revision++) {
+                        String description = revision == 9 ? "Final report" : "Draft report revision " + revision;
+                        repository.update(crime.getId(), c -> new Crime.Builder()
+                                .withId(c.getId())
+                                .withDescription(description)
+                                .withLocation(c.getLocation())
+                                .withCrimeType(c.getCrimeType())
+                                .withReporterId(c.getReporterId())
+                                .withReportedAt(c.getReportedAt())
+                                .build());
+                    }
+                }
+                return null;
+            }));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Future<?> searcher = executor.submit(() -> {
+            start.await();
+            while (writing.get()) {
+                repository.searchDescriptions("report OR revision");
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        searcher.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        System.out.println("STEP: Verifying search sees every final description");
+        assertEquals(THREADS * 50, repository.searchDescriptions("final").size(), "Every final description should be indexed");
+        assertTrue(repository.searchDescriptions("draft OR revision").isEmpty(), "No draft should remain indexed");
+    }
+
+    private static Crime resolvedCopyOf(Crime crime) {
+        return new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(crime.getDescription())
+                .withLocation(crime.getLocation())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .withReportedAt(crime.getReportedAt())
+                .isResolved(true)
+                .build();
+    }
+}
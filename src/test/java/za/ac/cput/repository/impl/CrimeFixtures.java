@@ -0,0 +1,35 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Crimes shared by the backend tests that check crimes with and without a report time.
+ */
+final class CrimeFixtures {
+
+    private CrimeFixtures() {
+    }
+
+    static Crime untimedCrime() {
+        return untimedCrime("Bike theft");
+    }
+
+    static Crime untimedCrime(String description) {
+        return new Crime.Builder()
+                .withDescription(description)
+                .withLocation("City park")
+                .withCrimeType(CrimeType.THEFT)
+                .withReporterId("citizen123")
+                .withReportedAt(null)
+                .build();
+    }
+
+    static Crime timedCrime() {
+        return CrimeFactory.createCrimeWithTime("Card fraud", "Online shop", CrimeType.FRAUD, "citizen456",
+                LocalDateTime.of(2025, 3, 28, 10, 15));
+    }
+}
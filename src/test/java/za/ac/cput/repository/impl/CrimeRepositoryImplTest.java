@@ -3,14 +3,38 @@ package za.ac.cput.repository.impl;
 import za.ac.cput.domain.Crime;
 import za.ac.cput.domain.CrimeType;
 import za.ac.cput.factory.CrimeFactory;
+import za.ac.cput.repository.BatchResult;
+import za.ac.cput.repository.CrimeChangeEvent;
+import za.ac.cput.repository.CrimeChangeFeed;
+import za.ac.cput.repository.CrimeHotspots;
+import za.ac.cput.repository.CrimeQuery;
 import za.ac.cput.repository.CrimeRepository;
+import za.ac.cput.repository.CrimeRollup;
+import za.ac.cput.repository.CrimeStatistics;
+import za.ac.cput.repository.Hotspot;
+import za.ac.cput.repository.Page;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -521,4 +545,1015 @@ public class CrimeRepositoryImplTest {
         System.out.println("STEP: Verifying second unresolved crime is in result list");
         assertTrue(unresolvedCrimes.contains(unresolvedCrime2), "Second unresolved crime should be in result list");
     }
+
+    @Test
+    public void testCreate_withManyCrimes_shouldReadEachById(TestInfo testInfo) {
+        System.out.println("STEP: Creating 1000 crimes");
+        List<Crime> created = new ArrayList<Crime>();
+        for (int i = 0; i < 1000; i++) {
+            created.add(repository.create(CrimeFactory.createCrime(
+                    "Crime " + i,
+                    "Location " + (i % 10),
+                    CrimeType.values()[i % CrimeType.values().length],
+                    "reporter" + (i % 50)
+            )));
+        }
+        System.out.println("Repository now contains " + repository.readAll().size() + " crime(s)");
+        assertEquals(1000, repository.readAll().size(), "Repository should contain 1000 crimes");
+
+        System.out.println("STEP: Reading every crime back by ID");
+        for (Crime crime : created) {
+            assertEquals(crime, repository.read(crime.getId()).orElse(null), "Each crime should be found by its ID");
+        }
+
+        System.out.println("STEP: Updating one crime and verifying no duplicate is stored");
+        Crime first = created.get(0);
+        Crime resolvedFirst = new Crime.Builder()
+                .withId(first.getId())
+                .withDescription(first.getDescription())
+                .withLocation(first.getLocation())
+                .withCrimeType(first.getCrimeType())
+                .withReporterId(first.getReporterId())
+                .withReportedAt(first.getReportedAt())
+                .isResolved(true)
+                .build();
+        repository.update(resolvedFirst);
+        assertEquals(1000, repository.readAll().size(), "Update should not change the repository size");
+        assertTrue(repository.read(first.getId()).get().isResolved(), "Updated crime should be resolved");
+
+        System.out.println("STEP: Deleting one crime and verifying it can no longer be read");
+        assertTrue(repository.delete(first.getId()), "Delete should return true");
+        assertFalse(repository.read(first.getId()).isPresent(), "Deleted crime should not be found");
+        assertEquals(999, repository.readAll().size(), "Repository should contain 999 crimes");
+    }
+
+    @Test
+    public void testFinders_afterUpdateAndDelete_shouldReflectCurrentState(TestInfo testInfo) {
+        System.out.println("STEP: Creating three crimes");
+        Crime theft = repository.create(testCrime);
+        Crime fraud = repository.create(CrimeFactory.createCrime("Card fraud", "Online", CrimeType.FRAUD, "citizen123"));
+        Crime assault = repository.create(CrimeFactory.createCrime("Assault", "Bus station", CrimeType.ASSAULT, "victim456"));
+
+        System.out.println("STEP: Updating the theft into a resolved burglary by another reporter");
+        Crime burglary = new Crime.Builder()
+                .withId(theft.getId())
+                .withDescription("Break-in")
+                .withLocation(theft.getLocation())
+                .withCrimeType(CrimeType.BURGLARY)
+                .withReporterId("victim456")
+                .withReportedAt(theft.getReportedAt())
+                .isResolved(true)
+                .build();
+        repository.update(burglary);
+
+        System.out.println("STEP: Verifying indexes followed the update");
+        assertTrue(repository.findByCrimeType(CrimeType.THEFT).isEmpty(), "No theft should remain");
+        assertEquals(List.of(burglary), repository.findByCrimeType(CrimeType.BURGLARY), "Burglary should be indexed");
+        assertEquals(List.of(fraud), repository.findByReporterId("citizen123"), "Only fraud should remain for citizen123");
+        assertEquals(2, repository.findByReporterId("victim456").size(), "victim456 should have two crimes");
+        assertEquals(List.of(burglary), repository.findByResolutionStatus(true), "Burglary should be resolved");
+        assertEquals(2, repository.findByResolutionStatus(false).size(), "Two crimes should be unresolved");
+
+        System.out.println("STEP: Deleting the first crime");
+        assertTrue(repository.delete(burglary.getId()), "Delete should return true");
+
+        System.out.println("STEP: Verifying indexes followed the delete");
+        assertTrue(repository.findByCrimeType(CrimeType.BURGLARY).isEmpty(), "Burglary should be gone");
+        assertEquals(List.of(assault), repository.findByCrimeType(CrimeType.ASSAULT), "Assault should still be indexed");
+        assertEquals(List.of(assault), repository.findByReporterId("victim456"), "Only assault should remain for victim456");
+        assertTrue(repository.findByResolutionStatus(true).isEmpty(), "No crime should be resolved");
+        assertEquals(assault, repository.read(assault.getId()).orElse(null), "Remaining crime should still be found by ID");
+        assertEquals(2, repository.readAll().size(), "Repository should contain 2 crimes");
+    }
+
+    @Test
+    public void testDelete_manyCrimes_shouldKeepCreationOrder(TestInfo testInfo) {
+        System.out.println("STEP: Creating 1000 crimes, several per reporter and report time");
+        LocalDateTime start = LocalDateTime.of(2025, 4, 1, 0, 0);
+        List<Crime> expected = new ArrayList<Crime>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(repository.create(CrimeFactory.createCrimeWithTime("Crime " + i, "Woodstock",
+                    CrimeType.THEFT, "reporter" + (i % 7), start.plusMinutes(i % 13))));
+        }
+
+        System.out.println("STEP: Deleting crimes in random order, checking order along the way");
+        Random random = new Random(3);
+        while (expected.size() > 10) {
+            Crime deleted = expected.remove(random.nextInt(expected.size()));
+            assertTrue(repository.delete(deleted.getId()), "Delete should return true");
+            if (expected.size() % 97 == 0) {
+                assertCreationOrder(expected);
+            }
+        }
+        assertCreationOrder(expected);
+
+        System.out.println("STEP: Creating a crime after the deletes");
+        expected.add(repository.create(CrimeFactory.createCrimeWithTime("Latest", "Woodstock",
+                CrimeType.THEFT, "reporter0", start)));
+        assertCreationOrder(expected);
+    }
+
+    private void assertCreationOrder(List<Crime> expected) {
+        assertEquals(expected, repository.readAll(), "readAll should keep creation order");
+        assertEquals(expected, repository.findMatching(crime -> true), "findMatching should keep creation order");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), repository.readAll().get(i), "Indexed read should keep creation order");
+        }
+        for (int reporter = 0; reporter < 7; reporter++) {
+            String reporterId = "reporter" + reporter;
+            assertEquals(expected.stream().filter(crime -> crime.getReporterId().equals(reporterId))
+                    .collect(Collectors.toList()), repository.findByReporterId(reporterId),
+                    "findByReporterId should keep creation order");
+        }
+        List<Crime> byTime = new ArrayList<Crime>(expected);
+        byTime.sort(Comparator.comparing(Crime::getReportedAt));
+        assertEquals(byTime, repository.findByReportedAtBetween(LocalDateTime.MIN, LocalDateTime.MAX),
+                "Crimes reported at the same time should keep creation order");
+    }
+
+    @Test
+    public void testFindByLocation_withVariousQueries_shouldMatchCaseInsensitiveContains(TestInfo testInfo) {
+        System.out.println("STEP: Creating crimes at a mix of locations");
+        String[] locations = {"Cape Town CBD", "cape town cbd", "Woodstock", "Observatory", "Sea Point",
+                "Green Point Park", "Parklands", "Mowbray", "Rondebosch Park", "CBD Parkade"};
+        for (int i = 0; i < 100; i++) {
+            repository.create(CrimeFactory.createCrime("Crime " + i, locations[i % locations.length],
+                    CrimeType.THEFT, "reporter" + i));
+        }
+
+        System.out.println("STEP: Deleting some crimes so their locations leave the index");
+        for (Crime crime : repository.findByLocation("Mowbray")) {
+            repository.delete(crime.getId());
+        }
+
+        String[] queries = {"park", "PARK", "cbd", "Point", "p", "to", "ob", "town c", "Mowbray", "xyz",
+                "parkade", "Cape Town CBD", "stock"};
+        for (String query : queries) {
+            System.out.println("STEP: Comparing index lookup with a scan for '" + query + "'");
+            List<Crime> expected = new ArrayList<Crime>();
+            for (Crime crime : repository.readAll()) {
+                if (crime.getLocation().toLowerCase().contains(query.toLowerCase())) expected.add(crime);
+            }
+            List<Crime> actual = repository.findByLocation(query);
+            System.out.println("Found " + actual.size() + " crime(s), expected " + expected.size());
+            assertEquals(expected.size(), actual.size(), "Result size should match the scan for '" + query + "'");
+            assertTrue(actual.containsAll(expected), "Results should match the scan for '" + query + "'");
+        }
+    }
+
+    @Test
+    public void testBatch_withValidCrimes_shouldApplyEveryItem(TestInfo testInfo) {
+        Crime fraud = CrimeFactory.createCrime("Card fraud", "Online shop", CrimeType.FRAUD, "citizen456");
+        Crime assault = CrimeFactory.createCrime("Assault", "Bus station", CrimeType.ASSAULT, "victim456");
+
+        System.out.println("STEP: Creating three crimes in one batch");
+        BatchResult<String> created = repository.createAll(Arrays.asList(testCrime, fraud, assault));
+        System.out.println("Create result: " + created);
+        assertTrue(created.isApplied(), "Batch create should be applied");
+        assertEquals(3, created.count(BatchResult.Status.APPLIED), "Every item should be applied");
+        assertEquals(3, repository.readAll().size(), "Repository should contain 3 crimes");
+
+        System.out.println("STEP: Resolving two crimes in one batch");
+        Crime resolvedFraud = resolvedCopyOf(fraud);
+        Crime resolvedAssault = resolvedCopyOf(assault);
+        assertTrue(repository.updateAll(Arrays.asList(resolvedFraud, resolvedAssault)).isApplied(),
+                "Batch update should be applied");
+        assertEquals(2, repository.findByResolutionStatus(true).size(), "Two crimes should be resolved");
+
+        System.out.println("STEP: Deleting two crimes in one batch");
+        assertTrue(repository.deleteAll(Arrays.asList(testCrime.getId(), fraud.getId())).isApplied(),
+                "Batch delete should be applied");
+        assertEquals(List.of(resolvedAssault), repository.readAll(), "Only the assault should remain");
+        assertEquals(List.of(resolvedAssault), repository.findByCrimeType(CrimeType.ASSAULT), "Indexes should follow the batch");
+    }
+
+    @Test
+    public void testBatch_withInvalidItems_shouldApplyNothingAndReportEachItem(TestInfo testInfo) {
+        Crime fraud = CrimeFactory.createCrime("Card fraud", "Online shop", CrimeType.FRAUD, "citizen456");
+        Crime assault = CrimeFactory.createCrime("Assault", "Bus station", CrimeType.ASSAULT, "victim456");
+        repository.create(testCrime);
+
+        System.out.println("STEP: Creating a batch with an existing crime, a duplicate and a null (should not apply)");
+        BatchResult<String> created = repository.createAll(Arrays.asList(fraud, testCrime, assault, assault, null));
+        System.out.println("Create result: " + created);
+        assertFalse(created.isApplied(), "Batch create should not be applied");
+        assertEquals(Arrays.asList(BatchResult.Status.NOT_APPLIED, BatchResult.Status.ALREADY_EXISTS,
+                BatchResult.Status.NOT_APPLIED, BatchResult.Status.DUPLICATE_IN_BATCH, BatchResult.Status.NULL_ENTITY),
+                created.getStatuses(), "Each item should report its own status");
+        assertEquals(List.of(testCrime), repository.readAll(), "No crime from the batch should be stored");
+
+        System.out.println("STEP: Updating a batch with a missing crime (should not apply)");
+        BatchResult<String> updated = repository.updateAll(Arrays.asList(resolvedCopyOf(testCrime), fraud));
+        assertFalse(updated.isApplied(), "Batch update should not be applied");
+        assertEquals(List.of(fraud.getId()), updated.failedIds(), "Only the missing crime should fail");
+        assertFalse(repository.read(testCrime.getId()).get().isResolved(), "Existing crime should be unchanged");
+
+        System.out.println("STEP: Deleting a batch with a missing ID and a blank ID (should not apply)");
+        BatchResult<String> deleted = repository.deleteAll(Arrays.asList(testCrime.getId(), fraud.getId(), " "));
+        assertFalse(deleted.isApplied(), "Batch delete should not be applied");
+        assertEquals(BatchResult.Status.NOT_FOUND, deleted.getStatus(1), "Missing ID should be reported");
+        assertEquals(BatchResult.Status.INVALID_ID, deleted.getStatus(2), "Blank ID should be reported");
+        assertTrue(repository.read(testCrime.getId()).isPresent(), "Existing crime should not be deleted");
+
+        System.out.println("STEP: Passing a null batch (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.createAll(null));
+    }
+
+    @Test
+    public void testFindByReportedAtBetween_withVariousRanges_shouldMatchSortedScan(TestInfo testInfo) {
+        System.out.println("STEP: Creating 200 crimes reported an hour apart, some sharing a time");
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < 200; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Crime " + i, "Location " + i, CrimeType.THEFT,
+                    "reporter" + i, start.plusHours(i % 150)));
+        }
+
+        System.out.println("STEP: Moving and deleting some crimes so the index has to follow");
+        List<Crime> crimes = repository.readAll();
+        for (int i = 0; i < 20; i++) {
+            Crime crime = crimes.get(i * 7);
+            repository.update(new Crime.Builder()
+                    .withId(crime.getId())
+                    .withDescription(crime.getDescription())
+                    .withLocation(crime.getLocation())
+                    .withCrimeType(crime.getCrimeType())
+                    .withReporterId(crime.getReporterId())
+                    .withReportedAt(start.plusHours(i * 3).plusMinutes(30))
+                    .build());
+            repository.delete(crimes.get(i * 7 + 1).getId());
+        }
+
+        LocalDateTime[][] ranges = {
+                {start, start.plusHours(10)},
+                {start.plusHours(25), start.plusHours(25)},
+                {start.plusMinutes(30), start.plusHours(99).plusMinutes(59)},
+                {LocalDateTime.MIN, LocalDateTime.MAX},
+                {start.minusDays(1), start.minusHours(1)}};
+        for (LocalDateTime[] range : ranges) {
+            System.out.println("STEP: Comparing index lookup with a sorted scan for " + range[0] + " to " + range[1]);
+            List<Crime> expected = new ArrayList<Crime>();
+            for (Crime crime : repository.readAll()) {
+                if (!crime.getReportedAt().isBefore(range[0]) && !crime.getReportedAt().isAfter(range[1])) {
+                    expected.add(crime);
+                }
+            }
+            List<Crime> ascending = repository.findByReportedAtBetween(range[0], range[1]);
+            List<Crime> descending = repository.findByReportedAtBetweenOrderByReportedAtDesc(range[0], range[1]);
+            System.out.println("Found " + ascending.size() + " crime(s), expected " + expected.size());
+            assertEquals(expected.size(), ascending.size(), "Result size should match the scan");
+            assertTrue(ascending.containsAll(expected), "Results should match the scan");
+            List<Crime> sorted = new ArrayList<Crime>(ascending);
+            sorted.sort(Comparator.comparing(Crime::getReportedAt));
+            assertEquals(sorted, ascending, "Results should be oldest first");
+            List<Crime> reversed = new ArrayList<Crime>(ascending);
+            Collections.reverse(reversed);
+            assertEquals(reversed, descending, "Descending results should be most recent first");
+        }
+
+        System.out.println("STEP: Querying with a null or inverted range (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.findByReportedAtBetween(null, start));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.findByReportedAtBetweenOrderByReportedAtDesc(start, start.minusSeconds(1)));
+    }
+
+    @Test
+    public void testFind_withRandomQueries_shouldMatchScan(TestInfo testInfo) {
+        System.out.println("STEP: Creating 3000 crimes across types, locations, reporters and days");
+        Random random = new Random(7);
+        String[] locations = {"Woodstock", "Sea Point", "Cape Town CBD", "Observatory", "Green Point"};
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < 3000; i++) {
+            repository.create(new Crime.Builder()
+                    .withDescription("Crime " + i)
+                    .withLocation(locations[random.nextInt(locations.length)])
+                    .withCrimeType(CrimeType.values()[random.nextInt(CrimeType.values().length)])
+                    .withReporterId("reporter" + random.nextInt(300))
+                    .withReportedAt(start.plusMinutes(random.nextInt(60 * 24 * 30)))
+                    .isResolved(random.nextInt(4) == 0)
+                    .build());
+        }
+
+        for (int i = 0; i < 200; i++) {
+            CrimeQuery.Builder builder = new CrimeQuery.Builder();
+            if (random.nextBoolean()) builder.withCrimeType(CrimeType.values()[random.nextInt(CrimeType.values().length)]);
+            if (random.nextInt(3) == 0) builder.withLocation(locations[random.nextInt(locations.length)].substring(0, 4));
+            if (random.nextInt(4) == 0) builder.withReporterId("reporter" + random.nextInt(320));
+            if (random.nextBoolean()) builder.isResolved(random.nextBoolean());
+            if (random.nextInt(3) == 0) {
+                LocalDateTime from = start.plusDays(random.nextInt(30));
+                builder.withReportedAtBetween(from, from.plusHours(random.nextInt(24 * 7)));
+            }
+            CrimeQuery query = builder.build();
+
+            List<Crime> expected = new ArrayList<Crime>();
+            for (Crime crime : repository.readAll()) {
+                if (query.matches(crime)) expected.add(crime);
+            }
+            List<Crime> actual = repository.find(query);
+            assertEquals(expected.size(), actual.size(), "Result size should match the scan for " + query
+                    + " planned as " + repository.explain(query));
+            assertTrue(actual.containsAll(expected), "Results should match the scan for " + query);
+        }
+        System.out.println("Compared 200 random queries with a scan");
+
+        System.out.println("STEP: Querying with a null query (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.find(null));
+    }
+
+    @Test
+    public void testCreate_withRepeatedStrings_shouldShareCanonicalInstances(TestInfo testInfo) {
+        System.out.println("STEP: Creating crimes whose location and reporter ID are equal but distinct strings");
+        Crime first = repository.create(CrimeFactory.createCrime("Bike theft", new String("Cape Town CBD"),
+                CrimeType.THEFT, new String("officer7")));
+        Crime second = repository.create(CrimeFactory.createCrime("Broken window", new String("Cape Town CBD"),
+                CrimeType.VANDALISM, new String("officer7")));
+        Crime other = repository.create(CrimeFactory.createCrime("Stolen phone", "Sea Point",
+                CrimeType.THEFT, "citizen9"));
+        assertSame(first.getLocation(), second.getLocation(), "Locations should share one instance");
+        assertSame(first.getReporterId(), second.getReporterId(), "Reporter IDs should share one instance");
+        assertSame(second.getLocation(), repository.read(second.getId()).get().getLocation(),
+                "Stored crime should hold the canonical location");
+        assertEquals(4, repository.internedStringCount(), "Each distinct value should be interned once");
+
+        System.out.println("STEP: Querying through reporter codes");
+        assertEquals(Arrays.asList(first, second), repository.findByReporterId("officer7"));
+        assertEquals(Collections.singletonList(second), repository.find(new CrimeQuery.Builder()
+                .withReporterId("officer7")
+                .withCrimeType(CrimeType.VANDALISM)
+                .withLocation("town")
+                .build()));
+        assertTrue(repository.findByReporterId("officer8").isEmpty(), "Unknown reporter should match nothing");
+
+        System.out.println("STEP: Evicting values no stored crime holds any more");
+        repository.update(new Crime.Builder()
+                .withId(other.getId())
+                .withDescription(other.getDescription())
+                .withLocation("Cape Town CBD")
+                .withReportedAt(other.getReportedAt())
+                .withCrimeType(other.getCrimeType())
+                .withReporterId("officer7")
+                .build());
+        assertEquals(2, repository.internedStringCount(), "Replaced values should be evicted");
+        assertEquals(3, repository.findByReporterId("officer7").size());
+        repository.delete(first.getId());
+        repository.delete(second.getId());
+        repository.delete(other.getId());
+        assertEquals(0, repository.internedStringCount(), "Empty store should intern nothing");
+    }
+
+    @Test
+    public void testMarkResolved_singleAndBatch_shouldUpdateStatusIndexesAndStatistics(TestInfo testInfo) {
+        System.out.println("STEP: Creating three unresolved crimes");
+        Crime theft = repository.create(CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123"));
+        Crime fraud = repository.create(CrimeFactory.createCrime("Card fraud", "Online shop", CrimeType.FRAUD, "citizen456"));
+        Crime assault = repository.create(CrimeFactory.createCrime("Assault", "Bus station", CrimeType.ASSAULT, "victim456"));
+
+        System.out.println("STEP: Marking one crime resolved");
+        assertTrue(repository.markResolved(theft.getId(), true), "Existing crime should be marked");
+        assertFalse(repository.markResolved("missing", true), "Missing crime should not be marked");
+        assertEquals(theft.withResolved(true), repository.read(theft.getId()).get(), "Only the status should change");
+        assertEquals(Collections.singletonList(theft.withResolved(true)), repository.findByResolutionStatus(true));
+        assertEquals(1, repository.statistics().getResolvedCount(CrimeType.THEFT));
+        assertEquals(1, repository.find(new CrimeQuery.Builder()
+                .withCrimeType(CrimeType.THEFT)
+                .isResolved(true)
+                .build()).size(), "Query should see the new status");
+
+        System.out.println("STEP: Marking a batch, then a batch with a missing ID (should apply nothing)");
+        assertTrue(repository.markAllResolved(Arrays.asList(fraud.getId(), assault.getId()), true).isApplied());
+        assertTrue(repository.findByResolutionStatus(false).isEmpty(), "Every crime should be resolved");
+        BatchResult<String> rejected = repository.markAllResolved(Arrays.asList(theft.getId(), "missing"), false);
+        assertFalse(rejected.isApplied(), "Batch with a missing ID should not apply");
+        assertEquals(3, repository.findByResolutionStatus(true).size(), "Rejected batch should change nothing");
+
+        System.out.println("STEP: Reopening every case");
+        assertTrue(repository.markAllResolved(Arrays.asList(theft.getId(), fraud.getId(), assault.getId()), false).isApplied());
+        assertEquals(3, repository.findByResolutionStatus(false).size());
+        assertSameStatistics(repository.readAll(), repository.statistics());
+    }
+
+    @Test
+    public void testReadAll_whileWriting_shouldReturnStablePointInTimeViews(TestInfo testInfo) throws InterruptedException {
+        System.out.println("STEP: Creating enough crimes for a multi-level version trie");
+        List<Crime> created = new ArrayList<Crime>();
+        for (int i = 0; i < 2000; i++) {
+            created.add(repository.create(CrimeFactory.createCrime("Theft " + i, "Location " + i % 13,
+                    CrimeType.values()[i % CrimeType.values().length], "citizen" + i % 50)));
+        }
+        List<Crime> before = repository.readAll();
+        List<Crime> copyBefore = new ArrayList<Crime>(before);
+        assertThrows(UnsupportedOperationException.class, () -> before.add(testCrime), "Views should be immutable");
+
+        System.out.println("STEP: Deleting, updating and resolving while holding the old view");
+        Random random = new Random(23);
+        for (int i = 0; i < 1500; i++) {
+            Crime crime = created.get(random.nextInt(created.size()));
+            if (repository.read(crime.getId()).isPresent()) {
+                if (random.nextBoolean()) {
+                    repository.delete(crime.getId());
+                } else {
+                    repository.markResolved(crime.getId(), true);
+                }
+            }
+        }
+        assertEquals(copyBefore, before, "Old view should not change");
+        assertEquals(repository.findMatching(crime -> true), repository.readAll(), "New view should match a scan");
+
+        System.out.println("STEP: Iterating views while another thread writes");
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                Crime crime = repository.create(CrimeFactory.createCrime("Burglary " + i, "Harbour", CrimeType.BURGLARY, "officer1"));
+                if (i % 3 == 0) {
+                    repository.delete(crime.getId());
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            List<Crime> view = repository.readAll();
+            int size = view.size();
+            int count = 0;
+            for (Crime crime : view) {
+                assertNotNull(crime, "Views should never expose a torn slot");
+                count++;
+            }
+            assertEquals(size, count, "Views should not change while iterated");
+        }
+        writer.join();
+        assertEquals(repository.findByLocation("Harbour").size(), repository.readAll().stream()
+                .filter(crime -> crime.getLocation().equals("Harbour")).count());
+    }
+
+    @Test
+    public void testExplain_withSelectiveCriteria_shouldPickCheapestAccessPath(TestInfo testInfo) {
+        System.out.println("STEP: Creating 10000 crimes, one reporter owning only three of them");
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < 10000; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Crime " + i, i % 2 == 0 ? "Woodstock" : "Sea Point",
+                    CrimeType.values()[i % CrimeType.values().length], i < 3 ? "rare" : "reporter" + (i % 10),
+                    start.plusMinutes(i)));
+        }
+
+        System.out.println("STEP: Verifying the planner's choices");
+        String byReporter = repository.explain(new CrimeQuery.Builder()
+                .withCrimeType(CrimeType.THEFT).withReporterId("rare").isResolved(false).build());
+        System.out.println("Reporter query: " + byReporter);
+        assertTrue(byReporter.startsWith("REPORTER_ID"), "Rare reporter should drive the query");
+
+        String byTime = repository.explain(new CrimeQuery.Builder()
+                .withCrimeType(CrimeType.THEFT).withReportedAtBetween(start, start.plusMinutes(20)).build());
+        System.out.println("Time query: " + byTime);
+        assertTrue(byTime.startsWith("REPORTED_AT"), "Narrow time range should drive the query");
+
+        String byBitmaps = repository.explain(new CrimeQuery.Builder()
+                .withCrimeType(CrimeType.THEFT).withLocation("wood").isResolved(false).build());
+        System.out.println("Bitmap query: " + byBitmaps);
+        assertTrue(byBitmaps.startsWith("BITMAP_INTERSECTION"), "Broad criteria should intersect bitmaps");
+
+        String scan = repository.explain(new CrimeQuery.Builder().build());
+        assertTrue(scan.startsWith("SCAN"), "Empty query should scan");
+    }
+
+    @Test
+    public void testFindPage_throughEveryPage_shouldMatchSortedScan(TestInfo testInfo) {
+        System.out.println("STEP: Creating 2000 crimes, many sharing a report time");
+        Random random = new Random(11);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Crime " + i, i % 3 == 0 ? "Woodstock" : "Sea Point",
+                    CrimeType.values()[random.nextInt(CrimeType.values().length)], "reporter" + random.nextInt(50),
+                    start.plusMinutes(random.nextInt(500))));
+        }
+
+        CrimeQuery[] queries = {
+                new CrimeQuery.Builder().build(),
+                new CrimeQuery.Builder().withLocation("wood").build(),
+                new CrimeQuery.Builder().withReporterId("reporter7").build(),
+                new CrimeQuery.Builder().withCrimeType(CrimeType.THEFT).withReportedAtBetween(start, start.plusHours(3)).build()};
+        for (CrimeQuery query : queries) {
+            System.out.println("STEP: Paging through " + query + " 37 crimes at a time");
+            List<Crime> expected = repository.find(query);
+            expected.sort(Comparator.comparing(Crime::getReportedAt).thenComparing(Crime::getId));
+            List<Crime> paged = new ArrayList<Crime>();
+            String token = null;
+            do {
+                Page<Crime> page = repository.findPage(query, 37, token);
+                assertTrue(page.getItems().size() <= 37, "Page should respect the limit");
+                paged.addAll(page.getItems());
+                token = page.getContinuationToken();
+            } while (token != null);
+            assertEquals(expected, paged, "Pages should list every match once, in order");
+
+            System.out.println("STEP: Streaming the same query");
+            List<Crime> streamed = repository.stream(query).collect(Collectors.toList());
+            assertEquals(expected, streamed, "Stream should produce every match in order");
+        }
+
+        System.out.println("STEP: Passing a bad limit or token (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(queries[0], 0, null));
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(queries[0], 10, "not a token!"));
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(queries[0], 10, "AAAA"));
+    }
+
+    @Test
+    public void testFindPage_withWritesBetweenPages_shouldNotRepeatOrSkipUnchangedCrimes(TestInfo testInfo) {
+        System.out.println("STEP: Creating 500 crimes");
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Crime " + i, "Woodstock", CrimeType.THEFT,
+                    "reporter" + (i % 5), start.plusMinutes(i % 100)));
+        }
+        Set<String> untouched = new HashSet<String>();
+        for (Crime crime : repository.readAll()) {
+            untouched.add(crime.getId());
+        }
+
+        System.out.println("STEP: Paging while deleting seen crimes and adding new ones");
+        CrimeQuery all = new CrimeQuery.Builder().build();
+        Set<String> seen = new HashSet<String>();
+        String token = null;
+        int pages = 0;
+        do {
+            Page<Crime> page = repository.findPage(all, 50, token);
+            for (Crime crime : page.getItems()) {
+                assertTrue(seen.add(crime.getId()), "No crime should be returned twice");
+            }
+            for (Crime crime : page.getItems().subList(0, page.getItems().size() / 2)) {
+                repository.delete(crime.getId());
+            }
+            repository.create(CrimeFactory.createCrimeWithTime("Late", "Woodstock", CrimeType.THEFT, "late",
+                    start.minusDays(1)));
+            token = page.getContinuationToken();
+            pages++;
+        } while (token != null);
+        System.out.println("Read " + seen.size() + " crime(s) in " + pages + " page(s)");
+        assertTrue(seen.containsAll(untouched), "Every crime present from the start should be seen");
+
+        System.out.println("STEP: Taking only the first rows of a stream");
+        List<Crime> firstFive = repository.stream(all).limit(5).collect(Collectors.toList());
+        assertEquals(repository.findPage(all, 5, null).getItems(), firstFive, "Stream prefix should equal the first page");
+    }
+
+    @Test
+    public void testStream_withUntimedCrimes_shouldMatchFindAfterTimedOnes(TestInfo testInfo) {
+        System.out.println("STEP: Creating timed crimes across several stream batches and a few untimed ones");
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < 600; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Crime " + i, "Location " + (i % 5),
+                    CrimeType.values()[i % CrimeType.values().length], "reporter" + (i % 3), base.plusMinutes(i)));
+        }
+        for (int i = 0; i < 3; i++) {
+            repository.create(new Crime.Builder()
+                    .withDescription("Untimed " + i)
+                    .withLocation("Location " + i)
+                    .withCrimeType(CrimeType.THEFT)
+                    .withReporterId("reporter" + i)
+                    .withReportedAt(null)
+                    .build());
+        }
+
+        System.out.println("STEP: Comparing stream and find for open, filtered and time-ranged queries");
+        List<CrimeQuery> queries = Arrays.asList(new CrimeQuery.Builder().build(),
+                new CrimeQuery.Builder().withCrimeType(CrimeType.THEFT).build(),
+                new CrimeQuery.Builder().withReportedAtBetween(base, base.plusHours(3)).build());
+        for (CrimeQuery query : queries) {
+            List<Crime> streamed = repository.stream(query).collect(Collectors.toList());
+            assertEquals(new HashSet<Crime>(repository.find(query)), new HashSet<Crime>(streamed),
+                    "Stream should return the same crimes as find");
+            assertEquals(repository.find(query).size(), streamed.size(), "Stream should not repeat crimes");
+        }
+        List<Crime> all = repository.stream(new CrimeQuery.Builder().build()).collect(Collectors.toList());
+        assertEquals(603, all.size(), "Untimed crimes should be streamed");
+        assertTrue(all.subList(600, 603).stream().allMatch(crime -> crime.getReportedAt() == null),
+                "Untimed crimes should follow the timed ones");
+    }
+
+    @Test
+    public void testFindPage_withUntimedCrimes_shouldPageThemLastInEveryBackend(TestInfo testInfo) {
+        System.out.println("STEP: Creating timed and untimed crimes in every in-memory backend");
+        ConcurrentCrimeRepositoryImpl concurrent = ConcurrentCrimeRepositoryImpl.getRepository();
+        ColumnarCrimeRepositoryImpl columnar = ColumnarCrimeRepositoryImpl.getRepository();
+        OffHeapCrimeRepositoryImpl offHeap = new OffHeapCrimeRepositoryImpl.Builder().build();
+        List<CrimeRepository> backends = Arrays.asList(repository, concurrent, columnar, offHeap);
+        concurrent.clearRepository();
+        columnar.clearRepository();
+        try {
+            LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+            for (int i = 0; i < 90; i++) {
+                Crime crime = new Crime.Builder()
+                        .withDescription("Crime " + i)
+                        .withLocation("Location " + i % 4)
+                        .withCrimeType(CrimeType.THEFT)
+                        .withReporterId("reporter" + i % 3)
+                        .withReportedAt(i % 3 == 0 ? null : base.plusMinutes(i % 7))
+                        .build();
+                for (CrimeRepository backend : backends) {
+                    backend.create(crime);
+                }
+            }
+
+            System.out.println("STEP: Paging open and selective queries across the untimed crimes");
+            for (CrimeQuery query : Arrays.asList(new CrimeQuery.Builder().build(),
+                    new CrimeQuery.Builder().withReporterId("reporter0").build())) {
+                List<Crime> expected = repository.find(query);
+                expected.sort(PageSelector.ORDER);
+                assertNull(expected.get(expected.size() - 1).getReportedAt(), "Untimed crimes should sort last");
+                for (CrimeRepository backend : backends) {
+                    List<Crime> paged = new ArrayList<Crime>();
+                    String token = null;
+                    do {
+                        Page<Crime> page = backend.findPage(query, 7, token);
+                        paged.addAll(page.getItems());
+                        token = page.getContinuationToken();
+                    } while (token != null);
+                    assertEquals(expected, paged, backend.getClass().getSimpleName() + " should page every match in order");
+                }
+            }
+        } finally {
+            concurrent.clearRepository();
+            columnar.clearRepository();
+        }
+    }
+
+    @Test
+    public void testStatistics_afterRandomOperations_shouldMatchRecount(TestInfo testInfo) {
+        System.out.println("STEP: Applying 3000 random creates, updates, deletes and batches");
+        Random random = new Random(19);
+        String[] locations = {"Woodstock", "Sea Point", "Cape Town CBD", "Observatory"};
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            int operation = random.nextInt(10);
+            Crime.Builder builder = new Crime.Builder()
+                    .withDescription("Crime " + i)
+                    .withLocation(locations[random.nextInt(locations.length)])
+                    .withCrimeType(CrimeType.values()[random.nextInt(CrimeType.values().length)])
+                    .withReporterId("reporter" + random.nextInt(30))
+                    .withReportedAt(LocalDateTime.of(2025, 3, 1, 0, 0).plusMinutes(random.nextInt(10000)))
+                    .isResolved(random.nextInt(3) == 0);
+            if (operation < 5 || ids.isEmpty()) {
+                Crime crime = builder.build();
+                repository.create(crime);
+                ids.add(crime.getId());
+            } else if (operation < 8) {
+                repository.update(builder.withId(ids.get(random.nextInt(ids.size()))).build());
+            } else if (operation < 9) {
+                repository.delete(ids.remove(random.nextInt(ids.size())));
+            } else {
+                Crime crime = builder.build();
+                assertTrue(repository.createAll(Arrays.asList(crime)).isApplied(), "Batch should apply");
+                ids.add(crime.getId());
+            }
+        }
+
+        System.out.println("STEP: Comparing maintained counts with a recount of readAll()");
+        assertSameStatistics(repository.readAll(), repository.statistics());
+
+        System.out.println("STEP: Clearing the repository");
+        repository.clearRepository();
+        assertEquals(0, repository.statistics().getTotalCount(), "Counts should reset with the repository");
+        assertTrue(repository.statistics().getCountsByLocation().isEmpty(), "Location counts should reset");
+    }
+
+    @Test
+    public void testGroupBy_withQuery_shouldMatchManualRollup(TestInfo testInfo) {
+        System.out.println("STEP: Creating 1000 crimes");
+        Random random = new Random(23);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            repository.create(new Crime.Builder()
+                    .withDescription("Crime " + i)
+                    .withLocation(i % 2 == 0 ? "Woodstock" : "Sea Point")
+                    .withCrimeType(CrimeType.values()[random.nextInt(CrimeType.values().length)])
+                    .withReporterId("reporter" + random.nextInt(10))
+                    .withReportedAt(start.plusMinutes(random.nextInt(10000)))
+                    .isResolved(random.nextBoolean())
+                    .build());
+        }
+
+        System.out.println("STEP: Grouping Woodstock crimes by type");
+        CrimeQuery query = new CrimeQuery.Builder().withLocation("wood").build();
+        Map<CrimeType, CrimeRollup> rollups = repository.groupBy(query, Crime::getCrimeType);
+        System.out.println("Rollups: " + rollups);
+        int grouped = 0;
+        for (Map.Entry<CrimeType, CrimeRollup> entry : rollups.entrySet()) {
+            List<Crime> group = new ArrayList<Crime>();
+            for (Crime crime : repository.find(query)) {
+                if (crime.getCrimeType() == entry.getKey()) group.add(crime);
+            }
+            CrimeRollup rollup = entry.getValue();
+            assertEquals(group.size(), rollup.getCount(), "Group count should match");
+            assertEquals(group.stream().filter(Crime::isResolved).count(), rollup.getResolvedCount(),
+                    "Resolved count should match");
+            assertEquals(group.stream().map(Crime::getReportedAt).min(Comparator.naturalOrder()).get(),
+                    rollup.getFirstReportedAt(), "First report should match");
+            assertEquals(group.stream().map(Crime::getReportedAt).max(Comparator.naturalOrder()).get(),
+                    rollup.getLastReportedAt(), "Last report should match");
+            grouped += group.size();
+        }
+        assertEquals(repository.find(query).size(), grouped, "Every match should be grouped once");
+
+        System.out.println("STEP: Grouping with a null key or query (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.groupBy(query, null));
+        assertThrows(IllegalArgumentException.class, () -> repository.groupBy(null, Crime::getCrimeType));
+    }
+
+    @Test
+    public void testHotspots_withRecentReports_shouldCountPerWindowAndRankLocations(TestInfo testInfo) {
+        System.out.println("STEP: Reporting crimes 2, 10, 40 and 90 minutes ago");
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 6; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Recent " + i, "Woodstock",
+                    i < 4 ? CrimeType.THEFT : CrimeType.ASSAULT, "reporter" + i, now.minusMinutes(2)));
+        }
+        for (int i = 0; i < 3; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Earlier " + i, "Sea Point", CrimeType.THEFT,
+                    "reporter" + i, now.minusMinutes(10)));
+        }
+        for (int i = 0; i < 8; i++) {
+            repository.create(CrimeFactory.createCrimeWithTime("Older " + i, "Observatory", CrimeType.FRAUD,
+                    "reporter" + i, now.minusMinutes(40)));
+        }
+        repository.create(CrimeFactory.createCrimeWithTime("Stale", "Woodstock", CrimeType.THEFT, "reporter",
+                now.minusMinutes(90)));
+
+        System.out.println("STEP: Verifying counts per window");
+        CrimeHotspots hotspots = repository.hotspots();
+        Duration five = Duration.ofMinutes(5);
+        Duration fifteen = Duration.ofMinutes(15);
+        Duration hour = Duration.ofMinutes(60);
+        assertEquals(6, hotspots.getCount("Woodstock", five), "Woodstock should have 6 crimes in 5 minutes");
+        assertEquals(4, hotspots.getCount("Woodstock", CrimeType.THEFT, five), "Woodstock should have 4 thefts");
+        assertEquals(0, hotspots.getCount("Sea Point", five), "Sea Point crimes are older than 5 minutes");
+        assertEquals(3, hotspots.getCount("Sea Point", fifteen), "Sea Point should have 3 crimes in 15 minutes");
+        assertEquals(8, hotspots.getCount("Observatory", hour), "Observatory should have 8 crimes in an hour");
+        assertEquals(6, hotspots.getCount("Woodstock", hour), "A crime from 90 minutes ago should not count");
+        assertEquals(0, hotspots.getCount("Nowhere", hour), "Unknown location should count zero");
+
+        System.out.println("STEP: Ranking the hottest locations");
+        List<Hotspot> lastHour = hotspots.getHottestLocations(2, hour);
+        System.out.println("Hottest in the last hour: " + lastHour);
+        assertEquals(Arrays.asList("Observatory", "Woodstock"),
+                lastHour.stream().map(Hotspot::getLocation).collect(Collectors.toList()), "Hour ranking should match");
+        List<Hotspot> thefts = hotspots.getHottestLocations(5, CrimeType.THEFT, fifteen);
+        assertEquals(Arrays.asList("Woodstock", "Sea Point"),
+                thefts.stream().map(Hotspot::getLocation).collect(Collectors.toList()), "Theft ranking should match");
+        assertEquals(4, thefts.get(0).getCount(), "Woodstock should have 4 recent thefts");
+
+        System.out.println("STEP: Passing invalid windows or limits (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> hotspots.getCount("Woodstock", Duration.ofMinutes(61)));
+        assertThrows(IllegalArgumentException.class, () -> hotspots.getCount("Woodstock", Duration.ofSeconds(90)));
+        assertThrows(IllegalArgumentException.class, () -> hotspots.getCount("Woodstock", Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> hotspots.getHottestLocations(0, five));
+
+        System.out.println("STEP: Clearing the repository");
+        repository.clearRepository();
+        assertTrue(repository.hotspots().getHottestLocations(10, hour).isEmpty(), "Counters should reset");
+    }
+
+    @Test
+    public void testFindMatching_aboveParallelThreshold_shouldMatchSequentialScanInOrder(TestInfo testInfo) {
+        System.out.println("STEP: Creating 20000 crimes");
+        Random random = new Random(29);
+        for (int i = 0; i < 20000; i++) {
+            repository.create(CrimeFactory.createCrime("Crime " + random.nextInt(100000),
+                    i % 2 == 0 ? "Woodstock" : "Sea Point", CrimeType.values()[i % CrimeType.values().length],
+                    "reporter" + (i % 40)));
+        }
+        List<Crime> all = repository.readAll();
+        List<Crime> expected = all.stream().filter(crime -> crime.getDescription().contains("77"))
+                .collect(Collectors.toList());
+
+        try {
+            System.out.println("STEP: Scanning on a single thread, then split across the fork-join pool");
+            repository.setParallelScanThreshold(Integer.MAX_VALUE);
+            assertEquals(expected, repository.findMatching(crime -> crime.getDescription().contains("77")),
+                    "Sequential scan should match in store order");
+            repository.setParallelScanThreshold(1000);
+            assertEquals(expected, repository.findMatching(crime -> crime.getDescription().contains("77")),
+                    "Parallel scan should match in store order");
+            CrimeQuery everything = new CrimeQuery.Builder().build();
+            assertEquals(all, repository.find(everything), "Parallel query scan should list every crime in order");
+        } finally {
+            repository.setParallelScanThreshold(ParallelScanner.DEFAULT_THRESHOLD);
+        }
+
+        System.out.println("STEP: Passing a null predicate or threshold below one (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.findMatching(null));
+        assertThrows(IllegalArgumentException.class, () -> repository.setParallelScanThreshold(0));
+    }
+
+    @Test
+    public void testSearchDescriptions_withOperators_shouldMatchAndRank(TestInfo testInfo) {
+        System.out.println("STEP: Creating crimes with free-text descriptions");
+        Crime car = repository.create(CrimeFactory.createCrime("Red car stolen from driveway", "Woodstock",
+                CrimeType.THEFT, "reporter1"));
+        Crime cars = repository.create(CrimeFactory.createCrime("Two cars broken into, one red car stolen",
+                "Sea Point", CrimeType.BURGLARY, "reporter2"));
+        Crime knife = repository.create(CrimeFactory.createCrime("Man threatened with a knife near the station",
+                "Observatory", CrimeType.ASSAULT, "reporter3"));
+        Crime gun = repository.create(CrimeFactory.createCrime("Shop robbed at gunpoint, car seen leaving",
+                "Cape Town CBD", CrimeType.ROBBERY, "reporter4"));
+        Crime breaking = repository.create(CrimeFactory.createCrime("Someone breaking windows of parked cars",
+                "Woodstock", CrimeType.VANDALISM, "reporter5"));
+
+        System.out.println("STEP: Searching with terms, AND, OR and phrases");
+        assertEquals(new HashSet<Crime>(Arrays.asList(car, cars, gun, breaking)),
+                new HashSet<Crime>(repository.searchDescriptions("CARS")), "Stemmed term should match car and cars");
+        assertEquals(Arrays.asList(car, cars), repository.searchDescriptions("red AND stolen"),
+                "Both terms should be required, the shorter description ranking higher");
+        assertEquals(Arrays.asList(cars), repository.searchDescriptions("\"car stolen\" two"),
+                "Phrase and term should both be required");
+        assertTrue(repository.searchDescriptions("\"stolen car\"").isEmpty(), "Phrase should match terms in order only");
+        assertEquals(new HashSet<Crime>(Arrays.asList(knife, cars)),
+                new HashSet<Crime>(repository.searchDescriptions("knife OR broken \"one red\"")),
+                "OR should separate alternatives");
+        assertEquals(Arrays.asList(breaking), repository.searchDescriptions("breaks window"),
+                "Word endings should be folded");
+        assertTrue(repository.searchDescriptions("helicopter").isEmpty(), "Unknown term should match nothing");
+        assertTrue(repository.searchDescriptions("car AND helicopter").isEmpty(), "AND should need every term");
+
+        System.out.println("STEP: Updating and deleting crimes so the index has to follow");
+        repository.update(new Crime.Builder()
+                .withId(knife.getId())
+                .withDescription("Helicopter spotted over the station")
+                .withLocation(knife.getLocation())
+                .withCrimeType(knife.getCrimeType())
+                .withReporterId(knife.getReporterId())
+                .withReportedAt(knife.getReportedAt())
+                .build());
+        repository.delete(car.getId());
+        assertTrue(repository.searchDescriptions("knife").isEmpty(), "Old description should be unindexed");
+        assertEquals(1, repository.searchDescriptions("helicopter").size(), "New description should be indexed");
+        assertEquals(Arrays.asList(cars), repository.searchDescriptions("\"red car\""), "Deleted crime should be gone");
+
+        System.out.println("STEP: Turning stemming off");
+        repository.setDescriptionStemming(false);
+        try {
+            assertEquals(new HashSet<Crime>(Arrays.asList(cars, breaking)),
+                    new HashSet<Crime>(repository.searchDescriptions("cars")), "Only the exact term should match");
+        } finally {
+            repository.setDescriptionStemming(true);
+        }
+
+        System.out.println("STEP: Searching with a blank query (should throw exception)");
+        assertThrows(IllegalArgumentException.class, () -> repository.searchDescriptions(" "));
+        assertThrows(IllegalArgumentException.class, () -> repository.searchDescriptions(null));
+    }
+
+    static void assertSameStatistics(List<Crime> crimes, CrimeStatistics statistics) {
+        assertEquals(crimes.size(), statistics.getTotalCount(), "Total should match");
+        assertEquals(crimes.stream().filter(Crime::isResolved).count(), statistics.getResolvedCount(),
+                "Resolved total should match");
+        assertEquals(crimes.stream().filter(crime -> !crime.isResolved()).count(), statistics.getUnresolvedCount(),
+                "Unresolved total should match");
+        for (CrimeType crimeType : CrimeType.values()) {
+            long count = crimes.stream().filter(crime -> crime.getCrimeType() == crimeType).count();
+            long resolved = crimes.stream().filter(crime -> crime.getCrimeType() == crimeType && crime.isResolved()).count();
+            assertEquals(count, statistics.getCount(crimeType), "Count of " + crimeType + " should match");
+            assertEquals(count, (long) statistics.getCountsByType().get(crimeType), "Count of " + crimeType + " should match");
+            assertEquals(resolved, statistics.getResolvedCount(crimeType), "Resolved " + crimeType + " should match");
+            assertEquals(count == 0 ? 0 : (double) resolved / count, statistics.getResolutionRate(crimeType), 1e-9,
+                    "Resolution rate of " + crimeType + " should match");
+        }
+        Map<String, Long> byLocation = crimes.stream()
+                .collect(Collectors.groupingBy(Crime::getLocation, Collectors.counting()));
+        assertEquals(byLocation, statistics.getCountsByLocation(), "Location counts should match");
+        for (Map.Entry<String, Long> entry : byLocation.entrySet()) {
+            assertEquals((long) entry.getValue(), statistics.getLocationCount(entry.getKey()),
+                    "Count at " + entry.getKey() + " should match");
+        }
+        assertEquals(0, statistics.getLocationCount("Nowhere"), "Unknown location should count zero");
+    }
+
+    @Test
+    public void testChanges_withDemandAndResume_shouldDeliverOrderedEvents(TestInfo testInfo) throws InterruptedException {
+        long start = repository.changes().getLatestSequence();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        repository.changes().subscribe(subscriber);
+
+        System.out.println("STEP: Creating, updating, resolving and deleting a crime");
+        repository.create(testCrime);
+        Crime updated = repository.update(new Crime.Builder()
+                .withId(testCrime.getId())
+                .withDescription("Bike and helmet theft")
+                .withLocation(testCrime.getLocation())
+                .withCrimeType(testCrime.getCrimeType())
+                .withReporterId(testCrime.getReporterId())
+                .withReportedAt(testCrime.getReportedAt())
+                .build());
+        repository.markResolved(testCrime.getId(), true);
+        repository.markResolved(testCrime.getId(), true);
+        repository.delete(testCrime.getId());
+        assertEquals(start + 4, repository.changes().getLatestSequence(), "Unchanged status should not be published");
+
+        System.out.println("STEP: Requesting one event at a time");
+        subscriber.subscription.request(1);
+        CrimeChangeEvent created = subscriber.next();
+        assertEquals(start + 1, created.getSequence());
+        assertEquals(CrimeChangeEvent.Type.CREATED, created.getType());
+        assertEquals(testCrime, created.getCrime());
+        Thread.sleep(50);
+        assertTrue(subscriber.events.isEmpty(), "Nothing should be delivered beyond the demand");
+
+        subscriber.subscription.request(3);
+        CrimeChangeEvent update = subscriber.next();
+        CrimeChangeEvent resolve = subscriber.next();
+        CrimeChangeEvent delete = subscriber.next();
+        assertEquals(Arrays.asList(start + 2, start + 3, start + 4),
+                Arrays.asList(update.getSequence(), resolve.getSequence(), delete.getSequence()));
+        assertEquals(updated, update.getCrime());
+        assertTrue(resolve.getCrime().isResolved(), "Status change should carry the resolved crime");
+        assertEquals(CrimeChangeEvent.Type.DELETED, delete.getType());
+        assertEquals(testCrime.getId(), delete.getCrimeId());
+        assertTrue(delete.getCrime().isResolved(), "Delete should carry the crime as it was");
+
+        System.out.println("STEP: Resuming from a sequence");
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        repository.changes().subscribe(resumed, start + 3);
+        resumed.subscription.request(Long.MAX_VALUE);
+        assertEquals(start + 3, resumed.next().getSequence());
+        assertEquals(start + 4, resumed.next().getSequence());
+        Crime another = repository.create(CrimeFactory.createCrime("Car break-in", "Sea Point", CrimeType.BURGLARY, "reporter2"));
+        assertEquals(another, resumed.next().getCrime(), "Live changes should follow the replayed ones");
+        resumed.subscription.cancel();
+        subscriber.subscription.cancel();
+
+        assertThrows(IllegalArgumentException.class, () -> repository.changes().subscribe(new RecordingSubscriber(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.changes().subscribe(new RecordingSubscriber(), repository.changes().getLatestSequence() + 2));
+    }
+
+    @Test
+    public void testChanges_whenSubscriberFallsBehind_shouldSignalMissedChanges(TestInfo testInfo) throws InterruptedException {
+        System.out.println("STEP: Publishing past the end of a small ring");
+        CrimeChangeLog log = new CrimeChangeLog(4, Runnable::run);
+        RecordingSubscriber slow = new RecordingSubscriber();
+        log.subscribe(slow);
+        for (int i = 0; i < 6; i++) {
+            log.created(testCrime);
+        }
+        assertEquals(6, log.getLatestSequence());
+
+        System.out.println("STEP: Requesting the overwritten events");
+        slow.subscription.request(10);
+        CrimeChangeFeed.MissedChangesException missed = assertInstanceOf(CrimeChangeFeed.MissedChangesException.class,
+                slow.error.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, missed.getMissedSequence());
+        assertTrue(slow.events.isEmpty(), "No event should follow the gap");
+
+        System.out.println("STEP: Resuming inside and outside the retained window");
+        RecordingSubscriber tooOld = new RecordingSubscriber();
+        log.subscribe(tooOld, 2);
+        assertEquals(2, assertInstanceOf(CrimeChangeFeed.MissedChangesException.class,
+                tooOld.error.poll(5, TimeUnit.SECONDS)).getMissedSequence());
+        RecordingSubscriber retained = new RecordingSubscriber();
+        log.subscribe(retained, 3);
+        retained.subscription.request(10);
+        assertEquals(Arrays.asList(3L, 4L, 5L, 6L), Arrays.asList(retained.next().getSequence(),
+                retained.next().getSequence(), retained.next().getSequence(), retained.next().getSequence()));
+        assertThrows(IllegalArgumentException.class, () -> new CrimeChangeLog(3, Runnable::run));
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<CrimeChangeEvent> {
+        final BlockingQueue<CrimeChangeEvent> events = new LinkedBlockingQueue<CrimeChangeEvent>();
+        final BlockingQueue<Throwable> error = new LinkedBlockingQueue<Throwable>();
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(CrimeChangeEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        CrimeChangeEvent next() throws InterruptedException {
+            CrimeChangeEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "Event should be delivered");
+            return event;
+        }
+    }
+
+    private static Crime resolvedCopyOf(Crime crime) {
+        return new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(crime.getDescription())
+                .withLocation(crime.getLocation())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .withReportedAt(crime.getReportedAt())
+                .isResolved(true)
+                .build();
+    }
 }
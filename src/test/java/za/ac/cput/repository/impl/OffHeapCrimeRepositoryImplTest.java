@@ -0,0 +1,331 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+import za.ac.cput.repository.CrimeQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapCrimeRepositoryImplTest {
+
+    private OffHeapCrimeRepositoryImpl repository;
+    private CrimeRepositoryImpl reference;
+
+    @BeforeEach
+    public void setUp(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+        repository = new OffHeapCrimeRepositoryImpl.Builder()
+                .withChunkSize(4096)
+                .withInitialCapacity(4096)
+                .withMaxCapacity(64 << 20)
+                .build();
+        reference = CrimeRepositoryImpl.getRepository();
+        reference.clearRepository();
+        System.out.println("Created off-heap repository with 4 KiB chunks");
+    }
+
+    @AfterEach
+    public void tearDown(TestInfo testInfo) {
+        reference.clearRepository();
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testCrud_withSingleCrime_shouldFollowRepositoryContract(TestInfo testInfo) {
+        Crime crime = CrimeFactory.createCrimeWithTime("Bike theft – blue", "City park", CrimeType.THEFT, "citizen123",
+                LocalDateTime.of(2025, 3, 28, 10, 15, 30, 123456789));
+
+        System.out.println("STEP: Creating and reading a crime");
+        repository.create(crime);
+        assertEquals(crime, repository.read(crime.getId()).orElse(null), "Crime should round-trip off-heap");
+        assertThrows(IllegalArgumentException.class, () -> repository.create(crime));
+
+        System.out.println("STEP: Updating and deleting the crime");
+        Crime resolved = new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(crime.getDescription())
+                .withLocation(crime.getLocation())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .withReportedAt(crime.getReportedAt())
+                .isResolved(true)
+                .build();
+        repository.update(resolved);
+        assertEquals(List.of(resolved), repository.readAll(), "Only the updated record should be live");
+        assertThrows(IllegalArgumentException.class, () -> repository.update(
+                CrimeFactory.createCrime("Unknown", "Nowhere", CrimeType.OTHER, "unknown")));
+        assertTrue(repository.delete(crime.getId()), "Delete should return true");
+        assertFalse(repository.delete(crime.getId()), "Second delete should return false");
+        assertTrue(repository.readAll().isEmpty(), "Repository should be empty");
+    }
+
+    @Test
+    public void testRandomOperations_acrossChunksAndCompactions_shouldMatchObjectRepository(TestInfo testInfo) {
+        System.out.println("STEP: Applying 20000 random operations to both repositories");
+        Random random = new Random(7);
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || ids.isEmpty()) {
+                Crime crime = randomCrime(random, null);
+                repository.create(crime);
+                reference.create(crime);
+                ids.add(crime.getId());
+            } else if (operation < 8) {
+                Crime crime = randomCrime(random, ids.get(random.nextInt(ids.size())));
+                repository.update(crime);
+                reference.update(crime);
+            } else {
+                String id = ids.remove(random.nextInt(ids.size()));
+                assertEquals(reference.delete(id), repository.delete(id), "Delete results should match");
+            }
+        }
+        System.out.println("Off-heap bytes allocated: " + repository.allocatedBytes());
+
+        System.out.println("STEP: Comparing reads and finders with the object repository");
+        for (String id : ids) {
+            assertEquals(reference.read(id), repository.read(id), "Read by ID should match");
+        }
+        assertSameCrimes(reference.readAll(), repository.readAll());
+        for (CrimeType crimeType : CrimeType.values()) {
+            assertSameCrimes(reference.findByCrimeType(crimeType), repository.findByCrimeType(crimeType));
+        }
+        assertSameCrimes(reference.findByLocation("point"), repository.findByLocation("point"));
+        assertSameCrimes(reference.findByReporterId("officer3"), repository.findByReporterId("officer3"));
+        assertSameCrimes(reference.findByResolutionStatus(true), repository.findByResolutionStatus(true));
+        CrimeQuery query = new CrimeQuery.Builder().withLocation("point").withReporterId("officer3").isResolved(false).build();
+        assertSameCrimes(reference.find(query), repository.find(query));
+        assertSameCrimes(reference.find(query), repository.stream(query).collect(Collectors.toList()));
+        ColumnarCrimeRepositoryImplTest.assertSamePages(reference, repository, new CrimeQuery.Builder().isResolved(true).build());
+        assertSameCrimes(reference.findMatching(crime -> crime.getDescription().endsWith("7")),
+                repository.findMatching(crime -> crime.getDescription().endsWith("7")));
+        CrimeRepositoryImplTest.assertSameStatistics(reference.readAll(), repository.statistics());
+        for (String search : new String[]{"Crime 7 OR \"Crime 12\"", "crime", "\"crime 999\" OR 5 OR 42"}) {
+            assertEquals(reference.searchDescriptions(search), repository.searchDescriptions(search),
+                    "Search results should match in rank order");
+        }
+        ColumnarCrimeRepositoryImplTest.assertSameRollups(reference.groupBy(query, Crime::getCrimeType),
+                repository.groupBy(query, Crime::getCrimeType));
+    }
+
+    @Test
+    public void testMarkResolved_shouldRewriteRecordsInPlace(TestInfo testInfo) {
+        System.out.println("STEP: Filling more than one chunk with unresolved crimes");
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            Crime crime = CrimeFactory.createCrime("Theft " + i, "Location " + i % 7, CrimeType.values()[i % 5], "citizen" + i);
+            repository.create(crime);
+            reference.create(crime);
+            ids.add(crime.getId());
+        }
+        long allocated = repository.allocatedBytes();
+
+        System.out.println("STEP: Resolving every other crime, one by one and as a batch");
+        List<String> batch = new ArrayList<String>();
+        for (int i = 0; i < ids.size(); i += 2) {
+            if (i < 50) {
+                assertTrue(repository.markResolved(ids.get(i), true));
+                reference.markResolved(ids.get(i), true);
+            } else {
+                batch.add(ids.get(i));
+            }
+        }
+        assertTrue(repository.markAllResolved(batch, true).isApplied(), "Batch should apply");
+        reference.markAllResolved(batch, true);
+        assertFalse(repository.markResolved("missing", true), "Missing crime should not be marked");
+
+        assertEquals(allocated, repository.allocatedBytes(), "Status changes should not append records");
+        assertEquals(new HashSet<Crime>(reference.readAll()), new HashSet<Crime>(repository.readAll()),
+                "Off-heap store should match the object repository");
+        assertEquals(50, repository.findByResolutionStatus(true).size());
+        CrimeRepositoryImplTest.assertSameStatistics(reference.readAll(), repository.statistics());
+    }
+
+    @Test
+    public void testCreate_beyondMaxCapacity_shouldThrowException(TestInfo testInfo) {
+        System.out.println("STEP: Filling a repository capped at two 1 KiB chunks");
+        OffHeapCrimeRepositoryImpl small = new OffHeapCrimeRepositoryImpl.Builder()
+                .withChunkSize(1024)
+                .withInitialCapacity(1024)
+                .withMaxCapacity(2048)
+                .build();
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                small.create(CrimeFactory.createCrime("Crime " + i, "Location", CrimeType.OTHER, "reporter"));
+            }
+        });
+        System.out.println("EXPECTED: capacity exhausted after " + small.readAll().size() + " crimes");
+    }
+
+    @Test
+    public void testUpdate_churningAtMaxCapacity_shouldCompactWithinExistingChunks(TestInfo testInfo) {
+        System.out.println("STEP: Filling a repository capped at four preallocated 1 KiB chunks");
+        OffHeapCrimeRepositoryImpl small = new OffHeapCrimeRepositoryImpl.Builder()
+                .withChunkSize(1024)
+                .withInitialCapacity(4096)
+                .withMaxCapacity(4096)
+                .build();
+        List<Crime> crimes = new ArrayList<Crime>();
+        for (int i = 0; i < 10; i++) {
+            Crime crime = CrimeFactory.createCrime("Crime " + i, "Location " + i, CrimeType.OTHER, "reporter" + i);
+            small.create(crime);
+            crimes.add(crime);
+        }
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .findFirst()
+                .orElseThrow();
+        long directBefore = direct.getTotalCapacity();
+
+        System.out.println("STEP: Updating every crime until the store has compacted many times over");
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < crimes.size(); i++) {
+                crimes.set(i, withDescription(crimes.get(i), "Crime " + i + " revision " + round));
+                assertNotNull(small.update(crimes.get(i)), "Update should fit after compaction");
+            }
+        }
+
+        assertEquals(directBefore, direct.getTotalCapacity(), "Compaction should reuse the chunks it already has");
+        assertEquals(4096, small.allocatedBytes(), "Store should stay within its maximum capacity");
+        assertSameCrimes(crimes, small.readAll());
+        for (Crime crime : crimes) {
+            assertEquals(crime, small.read(crime.getId()).orElse(null), "Compacted handles should point at moved records");
+        }
+    }
+
+    @Test
+    public void testCreate_withoutReportTime_shouldStoreAndSkipInTimeQueries(TestInfo testInfo) {
+        Crime untimed = CrimeFixtures.untimedCrime();
+        Crime timed = CrimeFixtures.timedCrime();
+
+        System.out.println("STEP: Creating crimes with and without a report time");
+        repository.create(untimed);
+        repository.create(timed);
+        assertEquals(untimed, repository.read(untimed.getId()).orElse(null), "Null time should round-trip off-heap");
+        assertTrue(repository.markResolved(untimed.getId(), true), "Untimed crime should be markable");
+        assertNull(repository.read(untimed.getId()).get().getReportedAt(), "Time should stay null in place");
+
+        System.out.println("STEP: Querying by time and paging");
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 12, 31, 0, 0);
+        assertEquals(List.of(timed), repository.findByReportedAtBetween(from, to), "Untimed crime should be out of range");
+        assertEquals(List.of(timed), repository.find(new CrimeQuery.Builder().withReportedAtBetween(from, to).build()));
+        assertEquals(2, repository.find(new CrimeQuery.Builder().build()).size(), "Untimed crime should match an open query");
+        assertTrue(repository.delete(untimed.getId()), "Untimed crime should be deletable");
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites_shouldNeverObserveMovingStorage(TestInfo testInfo) throws Exception {
+        System.out.println("STEP: Running writers that grow and compact off-heap storage alongside readers");
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Thread> readers = new ArrayList<Thread>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (writing.get()) {
+                        for (Crime crime : repository.readAll()) {
+                            assertNotNull(crime.getId());
+                        }
+                        repository.find(new CrimeQuery.Builder().withCrimeType(CrimeType.THEFT).build());
+                        repository.findByReporterId("writer0");
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        List<Thread> writers = new ArrayList<Thread>();
+        for (int w = 0; w < 2; w++) {
+            String reporter = "writer" + w;
+            writers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        Crime crime = repository.create(CrimeFactory.createCrime("Crime " + i, "Location " + (i % 50),
+                                CrimeType.values()[i % CrimeType.values().length], reporter));
+                        if (i % 2 == 0) {
+                            repository.update(withDescription(crime, "Updated " + i));
+                        } else {
+                            repository.delete(crime.getId());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        System.out.println("STEP: Verifying no thread failed and every write landed");
+        assertNull(failure.get(), () -> "No reader or writer should fail: " + failure.get());
+        assertEquals(2000, repository.readAll().size(), "Half of the created crimes should remain");
+
+        System.out.println("STEP: Writing while a stream is consumed (should throw exception)");
+        Iterator<Crime> streamed = repository.stream(new CrimeQuery.Builder().build()).iterator();
+        streamed.next();
+        repository.create(CrimeFactory.createCrime("Late", "Station", CrimeType.OTHER, "late"));
+        assertThrows(ConcurrentModificationException.class, () -> {
+            while (streamed.hasNext()) {
+                streamed.next();
+            }
+        });
+    }
+
+    private static void assertSameCrimes(List<Crime> expected, List<Crime> actual) {
+        assertEquals(expected.size(), actual.size(), "Result sizes should match");
+        assertEquals(new HashSet<Crime>(expected), new HashSet<Crime>(actual), "Results should match");
+    }
+
+    private static Crime randomCrime(Random random, String id) {
+        String[] locations = {"Cape Town CBD", "Woodstock", "Sea Point", "Green Point", "Observatory"};
+        Crime.Builder builder = new Crime.Builder()
+                .withDescription("Crime " + random.nextInt(1000))
+                .withLocation(locations[random.nextInt(locations.length)])
+                .withCrimeType(CrimeType.values()[random.nextInt(CrimeType.values().length)])
+                .withReporterId("officer" + random.nextInt(20))
+                .withReportedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(random.nextInt(1_000_000)))
+                .isResolved(random.nextBoolean());
+        if (id != null) {
+            builder.withId(id);
+        }
+        return builder.build();
+    }
+
+    private static Crime withDescription(Crime crime, String description) {
+        return new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(description)
+                .withLocation(crime.getLocation())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .withReportedAt(crime.getReportedAt())
+                .isResolved(crime.isResolved())
+                .build();
+    }
+}
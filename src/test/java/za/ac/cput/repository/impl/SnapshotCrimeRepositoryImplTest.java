@@ -0,0 +1,230 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+import za.ac.cput.repository.CrimeQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotCrimeRepositoryImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotFile;
+
+    @BeforeEach
+    public void setUp(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+        snapshotFile = tempDir.resolve("crimes.snapshot");
+        System.out.println("Using snapshot file " + snapshotFile);
+    }
+
+    @Test
+    public void testOpen_afterWriteSnapshot_shouldServeCrimesFromMappedFile(TestInfo testInfo) {
+        System.out.println("STEP: Creating 2000 crimes and writing a snapshot");
+        SnapshotCrimeRepositoryImpl repository = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        List<Crime> created = createCrimes(repository, 2000);
+        repository.create(CrimeFactory.createCrime("Non-UUID", "Observatory", CrimeType.OTHER, "réporter"));
+        repository.writeSnapshot();
+
+        System.out.println("STEP: Reopening the snapshot in a fresh repository");
+        SnapshotCrimeRepositoryImpl reopened = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        assertEquals(2001, reopened.readAll().size(), "All crimes should be in the snapshot");
+        for (Crime crime : created) {
+            assertEquals(crime, reopened.read(crime.getId()).orElse(null), "Crime should be read back unchanged");
+        }
+        assertFalse(reopened.read("non-existing-id").isPresent(), "Unknown ID should not be found");
+
+        System.out.println("STEP: Verifying finders over the mapped records");
+        assertEquals(2000 / 7 + 1, reopened.findByCrimeType(CrimeType.THEFT).size(), "Theft count should match");
+        assertEquals(220, reopened.findByLocation("LOCATION 7").size(), "Location 7 and 70-79 should match");
+        assertEquals(20, reopened.findByReporterId("reporter3").size(), "reporter3 should have 20 crimes");
+        assertEquals(1, reopened.findByReporterId("réporter").size(), "Non-ASCII reporter should match");
+        assertEquals(1000, reopened.findByResolutionStatus(true).size(), "Half the crimes should be resolved");
+        CrimeQuery query = new CrimeQuery.Builder().withReporterId("reporter3").isResolved(true).build();
+        List<Crime> expected = new ArrayList<Crime>();
+        for (Crime crime : created) {
+            if (query.matches(crime)) expected.add(crime);
+        }
+        assertEquals(expected.size(), reopened.find(query).size(), "Query should match the mapped records");
+        assertTrue(reopened.find(query).containsAll(expected), "Query results should match");
+        assertEquals(expected.size(), reopened.stream(query).count(), "Stream should match the mapped records");
+        assertEquals(expected.size(), reopened.findPage(query, 1000, null).getItems().size(), "Page should hold every match");
+    }
+
+    @Test
+    public void testOverlay_withChangesAfterSnapshot_shouldShadowMappedRecords(TestInfo testInfo) {
+        SnapshotCrimeRepositoryImpl repository = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        List<Crime> created = createCrimes(repository, 100);
+        repository.writeSnapshot();
+        assertEquals(100, repository.statistics().getTotalCount(), "Statistics should count the snapshot");
+        Crime updatedSource = created.get(0);
+        Crime deleted = created.get(1);
+
+        System.out.println("STEP: Updating, deleting and re-creating crimes on top of the snapshot");
+        Crime updated = new Crime.Builder()
+                .withId(updatedSource.getId())
+                .withDescription("Updated")
+                .withLocation("Elsewhere")
+                .withCrimeType(CrimeType.FRAUD)
+                .withReporterId("someone")
+                .withReportedAt(updatedSource.getReportedAt())
+                .build();
+        repository.update(updated);
+        assertTrue(repository.delete(deleted.getId()), "Delete of mapped crime should return true");
+        assertFalse(repository.delete(deleted.getId()), "Second delete should return false");
+        assertThrows(IllegalArgumentException.class, () -> repository.create(updatedSource));
+
+        System.out.println("STEP: Verifying reads see the overlay");
+        assertEquals(updated, repository.read(updatedSource.getId()).orElse(null), "Update should shadow snapshot");
+        assertFalse(repository.read(deleted.getId()).isPresent(), "Deleted crime should not be found");
+        assertEquals(99, repository.readAll().size(), "One crime should be gone");
+        assertTrue(repository.findByLocation("Elsewhere").contains(updated), "Updated crime should be found");
+        CrimeRepositoryImplTest.assertSameStatistics(repository.readAll(), repository.statistics());
+        assertEquals(Arrays.asList(updated), repository.searchDescriptions("updated"), "Search should see the overlay");
+        repository.update(new Crime.Builder()
+                .withId(updated.getId())
+                .withDescription("Revised")
+                .withLocation(updated.getLocation())
+                .withCrimeType(updated.getCrimeType())
+                .withReporterId(updated.getReporterId())
+                .withReportedAt(updated.getReportedAt())
+                .build());
+        assertTrue(repository.searchDescriptions("updated").isEmpty(), "Search should follow later writes");
+        repository.update(updated);
+
+        System.out.println("STEP: Re-creating the deleted crime and folding everything into a new snapshot");
+        repository.create(deleted);
+        repository.writeSnapshot();
+        SnapshotCrimeRepositoryImpl reopened = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        assertEquals(100, reopened.readAll().size(), "All crimes should be in the new snapshot");
+        assertEquals(updated, reopened.read(updatedSource.getId()).orElse(null), "Update should be persisted");
+        assertEquals(deleted, reopened.read(deleted.getId()).orElse(null), "Re-created crime should be persisted");
+        CrimeRepositoryImplTest.assertSameStatistics(reopened.readAll(), reopened.statistics());
+        ColumnarCrimeRepositoryImplTest.assertSameRollups(repository.groupBy(new CrimeQuery.Builder().build(), Crime::getLocation),
+                reopened.groupBy(new CrimeQuery.Builder().build(), Crime::getLocation));
+    }
+
+    @Test
+    public void testWriteSnapshot_withConcurrentReads_shouldNotBlockOrMissCrimes(TestInfo testInfo) throws Exception {
+        SnapshotCrimeRepositoryImpl repository = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        List<Crime> created = createCrimes(repository, 5000);
+        repository.writeSnapshot();
+
+        System.out.println("STEP: Reading continuously while new snapshots are written");
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            int i = 0;
+            while (running.get()) {
+                Crime crime = created.get(i++ % created.size());
+                if (!repository.read(crime.getId()).isPresent()) {
+                    misses.incrementAndGet();
+                }
+                reads.incrementAndGet();
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 5; i++) {
+            repository.create(CrimeFactory.createCrime("Extra " + i, "Somewhere", CrimeType.OTHER, "extra"));
+            repository.writeSnapshot();
+        }
+        running.set(false);
+        reader.join();
+
+        System.out.println("Reader performed " + reads.get() + " reads during snapshot writes");
+        assertEquals(0, misses.get(), "No read should miss a crime while snapshots are written");
+        assertEquals(5005, repository.readAll().size(), "All crimes should be present");
+    }
+
+    @Test
+    public void testWriteSnapshot_afterFailure_shouldKeepOverlayForNextSnapshot(TestInfo testInfo) throws IOException {
+        SnapshotCrimeRepositoryImpl repository = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        List<Crime> created = createCrimes(repository, 100);
+        repository.writeSnapshot();
+
+        System.out.println("STEP: Changing crimes after the snapshot");
+        Crime original = created.get(1);
+        Crime resolved = new Crime.Builder()
+                .withId(original.getId())
+                .withDescription(original.getDescription())
+                .withLocation(original.getLocation())
+                .withCrimeType(original.getCrimeType())
+                .withReporterId(original.getReporterId())
+                .withReportedAt(original.getReportedAt())
+                .isResolved(true)
+                .build();
+        repository.update(resolved);
+        repository.delete(created.get(2).getId());
+        Crime extra = repository.create(CrimeFactory.createCrime("Extra", "Somewhere", CrimeType.OTHER, "extra"));
+
+        System.out.println("STEP: Blocking the snapshot's temporary file with a directory");
+        Path blocked = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        Files.createDirectory(blocked);
+        assertThrows(UncheckedIOException.class, repository::writeSnapshot);
+        assertEquals(100, repository.readAll().size(), "Changes should still be visible after the failure");
+
+        System.out.println("STEP: Unblocking, writing again and reopening the snapshot");
+        Files.delete(blocked);
+        Crime later = repository.create(CrimeFactory.createCrime("Later", "Elsewhere", CrimeType.OTHER, "later"));
+        repository.writeSnapshot();
+        SnapshotCrimeRepositoryImpl reopened = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        assertEquals(101, reopened.readAll().size(), "No change made before the failure should be lost");
+        assertEquals(resolved, reopened.read(resolved.getId()).orElse(null), "Update should be persisted");
+        assertFalse(reopened.read(created.get(2).getId()).isPresent(), "Delete should be persisted");
+        assertEquals(extra, reopened.read(extra.getId()).orElse(null), "Create before the failure should be persisted");
+        assertEquals(later, reopened.read(later.getId()).orElse(null), "Create after the failure should be persisted");
+    }
+
+    @Test
+    public void testFindByReportedAtBetween_withUntimedCrimes_shouldSkipThem(TestInfo testInfo) {
+        SnapshotCrimeRepositoryImpl repository = SnapshotCrimeRepositoryImpl.open(snapshotFile);
+        List<Crime> created = createCrimes(repository, 10);
+        Crime mapped = repository.create(CrimeFixtures.untimedCrime("Untimed in snapshot"));
+        repository.writeSnapshot();
+        Crime overlay = repository.create(CrimeFixtures.untimedCrime("Untimed in overlay"));
+        LocalDateTime from = created.get(0).getReportedAt();
+        LocalDateTime to = created.get(9).getReportedAt();
+
+        System.out.println("STEP: Querying a time range over mapped and overlay crimes without a report time");
+        assertEquals(created, repository.findByReportedAtBetween(from, to), "Only timed crimes should be in range");
+        assertEquals(10, repository.findByReportedAtBetweenOrderByReportedAtDesc(from, to).size());
+        assertEquals(10, repository.find(new CrimeQuery.Builder().withReportedAtBetween(from, to).build()).size());
+        assertEquals(mapped, repository.read(mapped.getId()).orElse(null), "Mapped crime should keep its null time");
+        assertEquals(overlay, repository.read(overlay.getId()).orElse(null), "Overlay crime should be readable");
+    }
+
+    private static List<Crime> createCrimes(SnapshotCrimeRepositoryImpl repository, int count) {
+        List<Crime> created = new ArrayList<Crime>();
+        for (int i = 0; i < count; i++) {
+            Crime crime = new Crime.Builder()
+                    .withDescription("Crime " + i)
+                    .withLocation("Location " + (i % 100))
+                    .withCrimeType(CrimeType.values()[i % CrimeType.values().length])
+                    .withReporterId("reporter" + (i % 100))
+                    .withReportedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(i).withNano(i))
+                    .isResolved(i % 2 == 0)
+                    .build();
+            created.add(repository.create(crime));
+        }
+        return created;
+    }
+}
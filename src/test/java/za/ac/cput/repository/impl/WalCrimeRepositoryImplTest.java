@@ -0,0 +1,466 @@
+package za.ac.cput.repository.impl;
+
+import za.ac.cput.domain.Crime;
+import za.ac.cput.domain.CrimeType;
+import za.ac.cput.factory.CrimeFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WalCrimeRepositoryImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CrimeRepositoryImpl delegate;
+    private Path logFile;
+
+    @BeforeEach
+    public void setUp(TestInfo testInfo) {
+        System.out.println("\n---- STARTING TEST: " + testInfo.getDisplayName() + " ----");
+        delegate = CrimeRepositoryImpl.getRepository();
+        delegate.clearRepository();
+        logFile = tempDir.resolve("crimes.wal");
+        System.out.println("Using write-ahead log at " + logFile);
+    }
+
+    @AfterEach
+    public void tearDown(TestInfo testInfo) {
+        delegate.clearRepository();
+        System.out.println("---- FINISHED TEST: " + testInfo.getDisplayName() + " ----\n");
+    }
+
+    @Test
+    public void testReplay_afterReopen_shouldRestoreAllOperations(TestInfo testInfo) throws IOException {
+        Crime theft = CrimeFactory.createCrimeWithTime("Bike theft", "City park", CrimeType.THEFT, "citizen123",
+                LocalDateTime.of(2025, 3, 28, 10, 15, 30, 123456789));
+        Crime fraud = CrimeFactory.createCrime("Card fraud – online", "Online shop", CrimeType.FRAUD, "citizen456");
+        Crime vandalism = CrimeFactory.createCrime("Graffiti", "Station", CrimeType.VANDALISM, "citizen789");
+
+        System.out.println("STEP: Writing creates, an update and a delete through the log");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            repository.create(theft);
+            repository.create(fraud);
+            repository.create(vandalism);
+            repository.update(resolvedCopyOf(fraud));
+            assertTrue(repository.delete(vandalism.getId()), "Delete should return true");
+            assertFalse(repository.delete(vandalism.getId()), "Second delete should return false");
+        }
+
+        System.out.println("STEP: Simulating a restart by clearing the in-memory store");
+        delegate.clearRepository();
+
+        System.out.println("STEP: Reopening the log and verifying the replayed state");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            assertEquals(2, repository.readAll().size(), "Two crimes should be replayed");
+            assertEquals(theft, repository.read(theft.getId()).orElse(null), "Theft should be replayed unchanged");
+            assertEquals(resolvedCopyOf(fraud), repository.read(fraud.getId()).orElse(null), "Fraud should be resolved");
+            assertFalse(repository.read(vandalism.getId()).isPresent(), "Deleted crime should stay deleted");
+        }
+    }
+
+    @Test
+    public void testReplay_withTornTail_shouldTruncateAndKeepValidRecords(TestInfo testInfo) throws IOException {
+        Crime theft = CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123");
+
+        System.out.println("STEP: Writing one valid record");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.OS_MANAGED)) {
+            repository.create(theft);
+        }
+        long validSize = Files.size(logFile);
+
+        System.out.println("STEP: Appending a half-written record to simulate a crash");
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 1, 9, 9}));
+        }
+        delegate.clearRepository();
+
+        System.out.println("STEP: Reopening and verifying the torn record was dropped");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.OS_MANAGED)) {
+            assertEquals(1, repository.readAll().size(), "Only the valid record should be replayed");
+            assertEquals(validSize, Files.size(logFile), "Torn tail should be truncated");
+
+            System.out.println("STEP: Verifying new records append after the valid tail");
+            repository.create(CrimeFactory.createCrime("Assault", "Bus station", CrimeType.ASSAULT, "victim456"));
+        }
+        delegate.clearRepository();
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.OS_MANAGED)) {
+            assertEquals(2, repository.readAll().size(), "Both records should be replayed");
+        }
+    }
+
+    @Test
+    public void testGroupCommit_withManyWrites_shouldPersistOnClose(TestInfo testInfo) throws IOException {
+        System.out.println("STEP: Writing 1000 crimes with group commit");
+        try (WalCrimeRepositoryImpl repository = new WalCrimeRepositoryImpl.Builder()
+                .withLogFile(logFile)
+                .withDelegate(delegate)
+                .withFsyncPolicy(WalCrimeRepositoryImpl.FsyncPolicy.GROUP_COMMIT)
+                .build()) {
+            for (int i = 0; i < 1000; i++) {
+                repository.create(CrimeFactory.createCrime("Crime " + i, "Location " + i, CrimeType.OTHER, "r" + i));
+            }
+        }
+        delegate.clearRepository();
+
+        System.out.println("STEP: Reopening and verifying every crime was replayed");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.GROUP_COMMIT)) {
+            assertEquals(1000, repository.readAll().size(), "All crimes should be replayed");
+        }
+    }
+
+    @Test
+    public void testGroupCommit_withForcePending_shouldBlockWritersUntilForced(TestInfo testInfo) throws Exception {
+        GatedChannel gated = new GatedChannel();
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try (WalCrimeRepositoryImpl repository = new WalCrimeRepositoryImpl.Builder()
+                .withLogFile(logFile)
+                .withDelegate(delegate)
+                .withFsyncPolicy(WalCrimeRepositoryImpl.FsyncPolicy.GROUP_COMMIT)
+                .withChannelOpener(gated::open)
+                .build()) {
+            int forcesAfterOpen = gated.forces.get();
+            gated.closeGate();
+
+            System.out.println("STEP: Writing 8 crimes concurrently while every force is held back");
+            List<Future<Crime>> creates = new ArrayList<Future<Crime>>();
+            for (int i = 0; i < 8; i++) {
+                Crime crime = CrimeFactory.createCrime("Crime " + i, "Location " + i, CrimeType.OTHER, "r" + i);
+                creates.add(writers.submit(() -> repository.create(crime)));
+            }
+            Thread.sleep(200);
+            for (Future<Crime> create : creates) {
+                assertFalse(create.isDone(), "A write should not return before a force covers it");
+            }
+
+            System.out.println("STEP: Letting the forces through");
+            gated.openGate();
+            for (Future<Crime> create : creates) {
+                assertNotNull(create.get(5, TimeUnit.SECONDS), "Every write should return once forced");
+            }
+            int forces = gated.forces.get() - forcesAfterOpen;
+            System.out.println("Forces for 8 writes: " + forces);
+            assertTrue(forces >= 1 && forces < 8, "Writes waiting together should share a force");
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCreate_whenDelegateRejects_shouldNotLogAndStayReplayable(TestInfo testInfo) throws IOException {
+        System.out.println("STEP: Filling a small off-heap delegate until it runs out of capacity");
+        int applied = 0;
+        try (WalCrimeRepositoryImpl repository = new WalCrimeRepositoryImpl.Builder()
+                .withLogFile(logFile)
+                .withDelegate(smallOffHeap())
+                .withFsyncPolicy(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)
+                .build()) {
+            while (true) {
+                long sizeBefore = Files.size(logFile);
+                try {
+                    repository.create(CrimeFactory.createCrime("Crime " + applied, "Location " + applied,
+                            CrimeType.OTHER, "r" + applied));
+                    applied++;
+                } catch (IllegalStateException e) {
+                    System.out.println("Delegate rejected crime " + applied + ": " + e.getMessage());
+                    assertEquals(sizeBefore, Files.size(logFile), "A rejected create should not be logged");
+                    break;
+                }
+            }
+        }
+        assertTrue(applied > 0, "Some crimes should fit before capacity runs out");
+
+        System.out.println("STEP: Reopening into a fresh delegate of the same size");
+        try (WalCrimeRepositoryImpl repository = new WalCrimeRepositoryImpl.Builder()
+                .withLogFile(logFile)
+                .withDelegate(smallOffHeap())
+                .withFsyncPolicy(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)
+                .build()) {
+            assertEquals(applied, repository.readAll().size(), "Exactly the applied crimes should be replayed");
+        }
+    }
+
+    @Test
+    public void testCreate_withDuplicateId_shouldThrowWithoutLogging(TestInfo testInfo) throws IOException {
+        Crime theft = CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            repository.create(theft);
+            long sizeAfterCreate = Files.size(logFile);
+
+            System.out.println("STEP: Creating a duplicate and updating a missing crime (should throw exception)");
+            assertThrows(IllegalArgumentException.class, () -> repository.create(theft));
+            assertThrows(IllegalArgumentException.class, () -> repository.update(
+                    CrimeFactory.createCrime("Unknown", "Nowhere", CrimeType.OTHER, "unknown")));
+            assertEquals(sizeAfterCreate, Files.size(logFile), "Rejected operations should not be logged");
+        }
+    }
+
+    @Test
+    public void testReplay_withBatches_shouldRestoreWholeBatchesOnly(TestInfo testInfo) throws IOException {
+        Crime theft = CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123");
+        Crime fraud = CrimeFactory.createCrime("Card fraud", "Online shop", CrimeType.FRAUD, "citizen456");
+        Crime assault = CrimeFactory.createCrime("Assault", "Bus station", CrimeType.ASSAULT, "victim456");
+        long sizeAfterDelete;
+
+        System.out.println("STEP: Writing batch creates, updates and deletes through the log");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            assertTrue(repository.createAll(Arrays.asList(theft, fraud, assault)).isApplied(), "Create should apply");
+            assertTrue(repository.updateAll(Arrays.asList(resolvedCopyOf(fraud))).isApplied(), "Update should apply");
+            assertTrue(repository.deleteAll(Arrays.asList(assault.getId())).isApplied(), "Delete should apply");
+            sizeAfterDelete = Files.size(logFile);
+
+            System.out.println("STEP: Submitting a rejected batch (should not be logged)");
+            assertFalse(repository.deleteAll(Arrays.asList(theft.getId(), assault.getId())).isApplied(),
+                    "Batch with a missing ID should not apply");
+            assertEquals(sizeAfterDelete, Files.size(logFile), "Rejected batch should not be logged");
+
+            System.out.println("STEP: Writing a final batch that will be torn");
+            repository.deleteAll(Arrays.asList(theft.getId(), fraud.getId()));
+        }
+
+        System.out.println("STEP: Cutting the last batch record short to simulate a crash");
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(logFile) - 3);
+        }
+        delegate.clearRepository();
+
+        System.out.println("STEP: Reopening and verifying none of the torn batch was replayed");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            assertEquals(2, repository.readAll().size(), "Both remaining crimes should be replayed");
+            assertEquals(theft, repository.read(theft.getId()).orElse(null), "Theft should be replayed");
+            assertEquals(resolvedCopyOf(fraud), repository.read(fraud.getId()).orElse(null), "Fraud should be resolved");
+            assertFalse(repository.read(assault.getId()).isPresent(), "Deleted crime should stay deleted");
+        }
+    }
+
+    @Test
+    public void testReplay_withStatusChanges_shouldRestoreResolution(TestInfo testInfo) throws IOException {
+        Crime theft = CrimeFactory.createCrime("Bike theft", "City park", CrimeType.THEFT, "citizen123");
+        Crime fraud = CrimeFactory.createCrime("Card fraud", "Online shop", CrimeType.FRAUD, "citizen456");
+        Crime assault = CrimeFactory.createCrime("Assault", "Bus station", CrimeType.ASSAULT, "victim456");
+
+        System.out.println("STEP: Logging single and batch status changes");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            repository.createAll(Arrays.asList(theft, fraud, assault));
+            assertTrue(repository.markResolved(theft.getId(), true), "Existing crime should be marked");
+            assertTrue(repository.markAllResolved(Arrays.asList(fraud.getId(), assault.getId()), true).isApplied());
+            long size = Files.size(logFile);
+            assertFalse(repository.markResolved("missing", true), "Missing crime should not be marked");
+            assertFalse(repository.markAllResolved(Arrays.asList(theft.getId(), "missing"), false).isApplied());
+            assertEquals(size, Files.size(logFile), "Rejected status changes should not be logged");
+            assertTrue(repository.markResolved(assault.getId(), false), "Crime should be reopened");
+        }
+        delegate.clearRepository();
+
+        System.out.println("STEP: Reopening and verifying the replayed statuses");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            assertEquals(resolvedCopyOf(theft), repository.read(theft.getId()).orElse(null), "Theft should be resolved");
+            assertEquals(resolvedCopyOf(fraud), repository.read(fraud.getId()).orElse(null), "Fraud should be resolved");
+            assertEquals(assault, repository.read(assault.getId()).orElse(null), "Assault should be reopened");
+        }
+    }
+
+    @Test
+    public void testReplay_withoutReportTime_shouldRoundTripNullTime(TestInfo testInfo) throws IOException {
+        Crime untimed = CrimeFixtures.untimedCrime();
+        Crime timed = CrimeFixtures.timedCrime();
+
+        System.out.println("STEP: Logging crimes with and without a report time");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            repository.create(untimed);
+            repository.createAll(Arrays.asList(timed));
+            repository.markResolved(untimed.getId(), true);
+        }
+        delegate.clearRepository();
+
+        System.out.println("STEP: Reopening and verifying the missing time is replayed as null");
+        try (WalCrimeRepositoryImpl repository = open(WalCrimeRepositoryImpl.FsyncPolicy.EVERY_OPERATION)) {
+            assertEquals(resolvedCopyOf(untimed), repository.read(untimed.getId()).orElse(null),
+                    "Crime without a report time should be replayed unchanged");
+            assertNull(repository.read(untimed.getId()).get().getReportedAt(), "Report time should stay null");
+            assertEquals(timed, repository.read(timed.getId()).orElse(null), "Timed crime should be replayed unchanged");
+        }
+    }
+
+    @Test
+    public void testBuild_withoutLogFile_shouldThrowException(TestInfo testInfo) {
+        System.out.println("STEP: Building without a log file (should throw exception)");
+        assertThrows(IllegalStateException.class, () -> new WalCrimeRepositoryImpl.Builder().build());
+    }
+
+    @Test
+    public void testBuild_withoutDelegate_shouldThrowException(TestInfo testInfo) {
+        System.out.println("STEP: Building without a delegate (should throw exception)");
+        assertThrows(IllegalStateException.class, () -> new WalCrimeRepositoryImpl.Builder().withLogFile(logFile).build());
+        assertFalse(Files.exists(logFile), "No log should be created without a delegate");
+    }
+
+    /**
+     * File channel whose forces wait while its gate is closed, and are counted.
+     */
+    private static final class GatedChannel extends FileChannel {
+        final AtomicInteger forces = new AtomicInteger();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private FileChannel channel;
+
+        FileChannel open(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return this;
+        }
+
+        void closeGate() {
+            gate = new CountDownLatch(1);
+        }
+
+        void openGate() {
+            gate.countDown();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while forcing", e);
+            }
+            forces.incrementAndGet();
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static OffHeapCrimeRepositoryImpl smallOffHeap() {
+        return new OffHeapCrimeRepositoryImpl.Builder()
+                .withChunkSize(1024)
+                .withInitialCapacity(1024)
+                .withMaxCapacity(2048)
+                .build();
+    }
+
+    private WalCrimeRepositoryImpl open(WalCrimeRepositoryImpl.FsyncPolicy fsyncPolicy) {
+        return new WalCrimeRepositoryImpl.Builder()
+                .withLogFile(logFile)
+                .withDelegate(delegate)
+                .withFsyncPolicy(fsyncPolicy)
+                .build();
+    }
+
+    private static Crime resolvedCopyOf(Crime crime) {
+        return new Crime.Builder()
+                .withId(crime.getId())
+                .withDescription(crime.getDescription())
+                .withLocation(crime.getLocation())
+                .withCrimeType(crime.getCrimeType())
+                .withReporterId(crime.getReporterId())
+                .withReportedAt(crime.getReportedAt())
+                .isResolved(true)
+                .build();
+    }
+}